@@ -83,7 +83,7 @@ public abstract class AbstractUnreadPrivateMembersCheck extends PythonSubscripti
   }
 
   private static boolean isNeverRead(Symbol symbol) {
-    return symbol.usages().stream().allMatch(Usage::isBindingUsage);
+    return symbol.readUsagesCount() == 0 && !symbol.hasUsageOfKind(Usage.Kind.GLOBAL_DECLARATION);
   }
 
   abstract String memberPrefix();
@@ -32,6 +32,7 @@ import org.sonar.plugins.python.api.tree.FileInput;
 import org.sonar.plugins.python.api.tree.FunctionDef;
 import org.sonar.plugins.python.api.tree.Tree;
 import org.sonar.plugins.python.api.tree.Tree.Kind;
+import org.sonar.python.cfg.ControlFlowCache;
 import org.sonar.python.tree.TreeUtils;
 
 @Rule(key = "S1763")
@@ -42,13 +43,13 @@ public class AfterJumpStatementCheck extends PythonSubscriptionCheck {
     context.registerSyntaxNodeConsumer(Kind.FILE_INPUT, ctx ->
       {
         FileInput fileInput = (FileInput) ctx.syntaxNode();
-        checkCfg(ControlFlowGraph.build(fileInput, ctx.pythonFile()), ctx, fileInput.statements());
+        checkCfg(ControlFlowCache.of(ctx).cfg(fileInput), ctx, fileInput.statements());
       }
     );
     context.registerSyntaxNodeConsumer(Kind.FUNCDEF, ctx ->
       {
         FunctionDef functionDef = (FunctionDef) ctx.syntaxNode();
-        checkCfg(ControlFlowGraph.build(functionDef, ctx.pythonFile()), ctx, functionDef.body());
+        checkCfg(ControlFlowCache.of(ctx).cfg(functionDef), ctx, functionDef.body());
       }
     );
 
@@ -20,7 +20,7 @@
 package org.sonar.python.checks;
 
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -43,6 +43,7 @@ import org.sonar.plugins.python.api.tree.Name;
 import org.sonar.plugins.python.api.tree.QualifiedExpression;
 import org.sonar.plugins.python.api.tree.RegularArgument;
 import org.sonar.plugins.python.api.tree.Tree;
+import org.sonar.python.semantic.FunctionSummary;
 import org.sonar.python.semantic.FunctionSymbolImpl;
 import org.sonar.python.semantic.SymbolUtils;
 import org.sonar.python.tree.TreeUtils;
@@ -82,10 +83,9 @@ public class ArgumentNumberCheck extends PythonSubscriptionCheck {
     if (functionSymbol.isInstanceMethod() && callExpression.callee().is(Tree.Kind.QUALIFIED_EXPR) && !isCalledAsClassMethod((QualifiedExpression) callExpression.callee())) {
       self = 1;
     }
-    Map<String, FunctionSymbol.Parameter> positionalParamsWithoutDefault = positionalParamsWithoutDefault(functionSymbol);
-    long nbPositionalParamsWithDefault = functionSymbol.parameters().stream()
-      .filter(parameterName -> !parameterName.isKeywordOnly() && parameterName.hasDefaultValue())
-      .count();
+    FunctionSummary summary = ((FunctionSymbolImpl) functionSymbol).summary();
+    Map<String, FunctionSymbol.Parameter> positionalParamsWithoutDefault = summary.positionalParametersWithoutDefault();
+    long nbPositionalParamsWithDefault = summary.positionalParametersWithDefaultCount();
 
     List<RegularArgument> arguments = callExpression.arguments().stream()
       .map(RegularArgument.class::cast)
@@ -133,23 +133,6 @@ public class ArgumentNumberCheck extends PythonSubscriptionCheck {
       .isPresent();
   }
 
-  private static Map<String, FunctionSymbol.Parameter> positionalParamsWithoutDefault(FunctionSymbol functionSymbol) {
-    int unnamedIndex = 0;
-    Map<String, FunctionSymbol.Parameter> result = new HashMap<>();
-    for (FunctionSymbol.Parameter parameter : functionSymbol.parameters()) {
-      if (!parameter.isKeywordOnly() && !parameter.hasDefaultValue()) {
-        String name = parameter.name();
-        if (name == null) {
-          result.put("!unnamed" + unnamedIndex, parameter);
-          unnamedIndex++;
-        } else {
-          result.put(parameter.name(), parameter);
-        }
-      }
-    }
-    return result;
-  }
-
   private static void addPositionalIssue(SubscriptionContext ctx, Tree tree, FunctionSymbol functionSymbol, String message, String expected) {
     String msg = message + "'" + functionSymbol.name() + "' expects " + expected + " positional arguments.";
     PreciseIssue preciseIssue = ctx.addIssue(tree, msg);
@@ -186,16 +169,15 @@ public class ArgumentNumberCheck extends PythonSubscriptionCheck {
   }
 
   private static void checkKeywordArguments(SubscriptionContext ctx, CallExpression callExpression, FunctionSymbol functionSymbol, Expression callee) {
-    List<FunctionSymbol.Parameter> parameters = functionSymbol.parameters();
-    Set<String> mandatoryParamNamesKeywordOnly = parameters.stream()
-      .filter(parameterName -> parameterName.isKeywordOnly() && !parameterName.hasDefaultValue())
-      .map(FunctionSymbol.Parameter::name).collect(Collectors.toSet());
+    FunctionSummary summary = ((FunctionSymbolImpl) functionSymbol).summary();
+    Set<String> mandatoryParamNamesKeywordOnly = new HashSet<>(summary.mandatoryKeywordOnlyParameterNames());
 
     for (Argument argument : callExpression.arguments()) {
       RegularArgument arg = (RegularArgument) argument;
       Name keyword = arg.keywordArgument();
       if (keyword != null) {
-        if (parameters.stream().noneMatch(parameter -> keyword.name().equals(parameter.name()) && !parameter.isPositionalOnly())) {
+        FunctionSymbol.Parameter parameter = summary.parameter(keyword.name());
+        if (parameter == null || parameter.isPositionalOnly()) {
           PreciseIssue preciseIssue = ctx.addIssue(argument, "Remove this unexpected named argument '" + keyword.name() + "'.");
           addSecondary(functionSymbol, preciseIssue);
         } else {
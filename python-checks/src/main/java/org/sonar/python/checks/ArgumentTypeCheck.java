@@ -40,6 +40,7 @@ import org.sonar.plugins.python.api.tree.RegularArgument;
 import org.sonar.plugins.python.api.tree.Tree;
 import org.sonar.plugins.python.api.types.BuiltinTypes;
 import org.sonar.plugins.python.api.types.InferredType;
+import org.sonar.python.semantic.FunctionSymbolImpl;
 import org.sonar.python.semantic.SymbolUtils;
 import org.sonar.python.tree.TreeUtils;
 
@@ -134,7 +135,7 @@ public class ArgumentTypeCheck extends PythonSubscriptionCheck {
       return false;
     }
     String keywordName = keywordArgument.name();
-    Optional<FunctionSymbol.Parameter> correspondingParameter = functionSymbol.parameters().stream().filter(p -> keywordName.equals(p.name())).findFirst();
+    Optional<FunctionSymbol.Parameter> correspondingParameter = Optional.ofNullable(((FunctionSymbolImpl) functionSymbol).summary().parameter(keywordName));
     return correspondingParameter
       .map(c -> {
         InferredType parameterType = c.declaredType();
@@ -76,4 +76,9 @@ public class CommentRegularExpressionCheck extends PythonSubscriptionCheck {
       }
     });
   }
+
+  @Override
+  public boolean requiresTypeInference() {
+    return false;
+  }
 }
@@ -37,6 +37,7 @@ import org.sonar.plugins.python.api.tree.Tree;
 import org.sonar.plugins.python.api.tree.Trivia;
 import org.sonar.python.checks.utils.Expressions;
 import org.sonar.python.parser.PythonParser;
+import org.sonar.python.tree.FileTokens;
 import org.sonar.python.tree.PythonTreeMaker;
 
 @Rule(key = "S125")
@@ -63,11 +64,12 @@ public class CommentedCodeCheck extends PythonSubscriptionCheck {
   public void initialize(Context context) {
     exceptionPattern = Pattern.compile(exception);
 
-    context.registerSyntaxNodeConsumer(Tree.Kind.TOKEN, ctx -> {
-      Token token = (Token) ctx.syntaxNode();
-      List<List<Trivia>> groupedTrivias = groupTrivias(token);
-      for (List<Trivia> triviaGroup : groupedTrivias) {
-        checkTriviaGroup(triviaGroup, ctx);
+    context.registerSyntaxNodeConsumer(Tree.Kind.FILE_INPUT, ctx -> {
+      for (Token token : FileTokens.of(ctx.syntaxNode()).tokensWithComments()) {
+        List<List<Trivia>> groupedTrivias = groupTrivias(token);
+        for (List<Trivia> triviaGroup : groupedTrivias) {
+          checkTriviaGroup(triviaGroup, ctx);
+        }
       }
     });
 
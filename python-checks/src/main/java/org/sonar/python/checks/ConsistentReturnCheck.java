@@ -32,6 +32,7 @@ import org.sonar.plugins.python.api.tree.Statement;
 import org.sonar.plugins.python.api.tree.Tree;
 import org.sonar.plugins.python.api.tree.Tree.Kind;
 import org.sonar.plugins.python.api.tree.WhileStatement;
+import org.sonar.python.cfg.ControlFlowCache;
 import org.sonar.python.checks.utils.Expressions;
 
 @Rule(key = "S3801")
@@ -43,7 +44,7 @@ public class ConsistentReturnCheck extends PythonSubscriptionCheck {
   public void initialize(Context context) {
     context.registerSyntaxNodeConsumer(Kind.FUNCDEF, ctx -> {
       FunctionDef functionDef = (FunctionDef) ctx.syntaxNode();
-      ControlFlowGraph cfg = ControlFlowGraph.build(functionDef, ctx.pythonFile());
+      ControlFlowGraph cfg = ControlFlowCache.of(ctx).cfg(functionDef);
       if (cfg == null || hasExceptOrFinally(cfg)) {
         return;
       }
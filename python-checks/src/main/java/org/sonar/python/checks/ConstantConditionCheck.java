@@ -55,7 +55,7 @@ public class ConstantConditionCheck extends PythonVisitorCheck {
 
   @Override
   public void visitFileInput(FileInput fileInput) {
-    reachingDefinitionsAnalysis = new ReachingDefinitionsAnalysis(getContext().pythonFile());
+    reachingDefinitionsAnalysis = getContext().controlFlowCache().reachingDefinitions();
     super.visitFileInput(fileInput);
   }
 
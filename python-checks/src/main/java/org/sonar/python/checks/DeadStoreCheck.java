@@ -43,6 +43,7 @@ import org.sonar.plugins.python.api.tree.Statement;
 import org.sonar.plugins.python.api.tree.Token;
 import org.sonar.plugins.python.api.tree.Tree;
 import org.sonar.plugins.python.api.tree.UnaryExpression;
+import org.sonar.python.cfg.ControlFlowCache;
 import org.sonar.python.cfg.fixpoint.LiveVariablesAnalysis;
 import org.sonar.plugins.python.api.quickfix.PythonQuickFix;
 import org.sonar.python.checks.utils.DeadStoreUtils;
@@ -72,11 +73,12 @@ public class DeadStoreCheck extends PythonSubscriptionCheck {
       if (TreeUtils.hasDescendant(functionDef, tree -> tree.is(Tree.Kind.TRY_STMT))) {
         return;
       }
-      ControlFlowGraph cfg = ControlFlowGraph.build(functionDef, ctx.pythonFile());
-      if (cfg == null) {
+      ControlFlowCache controlFlowCache = ControlFlowCache.of(ctx);
+      ControlFlowGraph cfg = controlFlowCache.cfg(functionDef);
+      LiveVariablesAnalysis lva = controlFlowCache.liveVariables(functionDef);
+      if (cfg == null || lva == null) {
         return;
       }
-      LiveVariablesAnalysis lva = LiveVariablesAnalysis.analyze(cfg);
       cfg.blocks().forEach(block -> verifyBlock(ctx, block, lva.getLiveVariables(block), lva.getReadSymbols(), functionDef));
     });
   }
@@ -207,7 +209,7 @@ public class DeadStoreCheck extends PythonSubscriptionCheck {
   }
 
   private static boolean isLoopDeclarationSymbol(Symbol symbol, Tree element) {
-    return symbol.usages().stream().anyMatch(u -> u.kind() == Usage.Kind.LOOP_DECLARATION)
+    return symbol.hasUsageOfKind(Usage.Kind.LOOP_DECLARATION)
       && TreeUtils.firstAncestorOfKind(element, Tree.Kind.FOR_STMT) != null;
   }
 
@@ -241,7 +243,7 @@ public class DeadStoreCheck extends PythonSubscriptionCheck {
   }
 
   private static boolean isFunctionDeclarationSymbol(Symbol symbol) {
-    return symbol.usages().stream().anyMatch(u -> u.kind() == Usage.Kind.FUNC_DECLARATION);
+    return symbol.hasUsageOfKind(Usage.Kind.FUNC_DECLARATION);
   }
 
 
@@ -95,4 +95,9 @@ public class FileHeaderCopyrightCheck extends PythonSubscriptionCheck {
     }
   }
 
+  @Override
+  public boolean requiresTypeInference() {
+    return false;
+  }
+
 }
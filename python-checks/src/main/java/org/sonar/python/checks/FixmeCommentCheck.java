@@ -22,9 +22,9 @@ package org.sonar.python.checks;
 import java.util.regex.Pattern;
 import org.sonar.check.Rule;
 import org.sonar.plugins.python.api.PythonSubscriptionCheck;
-import org.sonar.plugins.python.api.tree.Token;
 import org.sonar.plugins.python.api.tree.Tree;
 import org.sonar.plugins.python.api.tree.Trivia;
+import org.sonar.python.tree.FileTokens;
 
 @Rule(key = "S1134")
 public class FixmeCommentCheck extends PythonSubscriptionCheck {
@@ -35,9 +35,8 @@ public class FixmeCommentCheck extends PythonSubscriptionCheck {
   @Override
   public void initialize(Context context) {
     Pattern pattern = Pattern.compile(FIXME_COMMENT_PATTERN, Pattern.CASE_INSENSITIVE);
-    context.registerSyntaxNodeConsumer(Tree.Kind.TOKEN, ctx -> {
-      Token token = (Token) ctx.syntaxNode();
-      for (Trivia trivia : token.trivia()) {
+    context.registerSyntaxNodeConsumer(Tree.Kind.FILE_INPUT, ctx -> {
+      for (Trivia trivia : FileTokens.of(ctx.syntaxNode()).comments()) {
         String comment = trivia.value();
         if (pattern.matcher(comment).matches()) {
           ctx.addIssue(trivia.token(), MESSAGE);
@@ -45,5 +44,10 @@ public class FixmeCommentCheck extends PythonSubscriptionCheck {
       }
     });
   }
+
+  @Override
+  public boolean requiresTypeInference() {
+    return false;
+  }
 }
 
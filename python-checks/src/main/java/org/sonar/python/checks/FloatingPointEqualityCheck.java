@@ -34,6 +34,7 @@ import org.sonar.plugins.python.api.tree.Expression;
 import org.sonar.plugins.python.api.tree.ImportName;
 import org.sonar.plugins.python.api.tree.Name;
 import org.sonar.plugins.python.api.tree.Tree;
+import org.sonar.python.cfg.ControlFlowCache;
 import org.sonar.python.cfg.fixpoint.ReachingDefinitionsAnalysis;
 import org.sonar.python.quickfix.TextEditUtils;
 import org.sonar.python.tree.TreeUtils;
@@ -72,7 +73,7 @@ public class FloatingPointEqualityCheck extends PythonSubscriptionCheck {
   }
 
   private void initializeAnalysis(SubscriptionContext ctx) {
-    reachingDefinitionsAnalysis = new ReachingDefinitionsAnalysis(ctx.pythonFile());
+    reachingDefinitionsAnalysis = ControlFlowCache.of(ctx).reachingDefinitions();
     importedModuleForIsClose = null;
     importedAlias = null;
   }
@@ -29,6 +29,7 @@ import org.sonar.plugins.python.api.symbols.Usage;
 import org.sonar.plugins.python.api.tree.FunctionDef;
 import org.sonar.plugins.python.api.tree.Tree;
 import org.sonar.python.cfg.CfgUtils;
+import org.sonar.python.cfg.ControlFlowCache;
 import org.sonar.python.cfg.fixpoint.LiveVariablesAnalysis;
 import org.sonar.python.checks.utils.DeadStoreUtils;
 import org.sonar.python.tree.TreeUtils;
@@ -46,11 +47,12 @@ public class IgnoredParameterCheck extends PythonSubscriptionCheck {
   public void initialize(Context context) {
     context.registerSyntaxNodeConsumer(Tree.Kind.FUNCDEF, ctx -> {
       FunctionDef functionDef = (FunctionDef) ctx.syntaxNode();
-      ControlFlowGraph cfg = ControlFlowGraph.build(functionDef, ctx.pythonFile());
-      if (cfg == null) {
+      ControlFlowCache controlFlowCache = ControlFlowCache.of(ctx);
+      ControlFlowGraph cfg = controlFlowCache.cfg(functionDef);
+      LiveVariablesAnalysis lva = controlFlowCache.liveVariables(functionDef);
+      if (cfg == null || lva == null) {
         return;
       }
-      LiveVariablesAnalysis lva = LiveVariablesAnalysis.analyze(cfg);
       Set<CfgBlock> unreachableBlocks = CfgUtils.unreachableBlocks(cfg);
       cfg.blocks().forEach(block -> {
         var unnecessaryAssignments = DeadStoreUtils.findUnnecessaryAssignments(block, lva.getLiveVariables(block), functionDef);
@@ -30,7 +30,6 @@ import java.util.stream.Collectors;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.check.Rule;
-import org.sonar.plugins.python.api.PythonFile;
 import org.sonar.plugins.python.api.PythonSubscriptionCheck;
 import org.sonar.plugins.python.api.cfg.CfgBlock;
 import org.sonar.plugins.python.api.cfg.ControlFlowGraph;
@@ -52,6 +51,7 @@ import org.sonar.plugins.python.api.tree.Name;
 import org.sonar.plugins.python.api.tree.QualifiedExpression;
 import org.sonar.plugins.python.api.tree.Tree;
 import org.sonar.python.api.PythonKeyword;
+import org.sonar.python.cfg.ControlFlowCache;
 import org.sonar.python.checks.utils.CheckUtils;
 import org.sonar.python.tree.DictCompExpressionImpl;
 import org.sonar.python.tree.TreeUtils;
@@ -66,7 +66,7 @@ public class InfiniteRecursionCheck extends PythonSubscriptionCheck {
     context.registerSyntaxNodeConsumer(Tree.Kind.FUNCDEF, ctx -> {
       FunctionDef functionDef = (FunctionDef) ctx.syntaxNode();
       List<Tree> allRecursiveCalls = new ArrayList<>();
-      boolean endBlockIsReachable = collectRecursiveCallsAndCheckIfEndBlockIsReachable(functionDef, ctx.pythonFile(), allRecursiveCalls);
+      boolean endBlockIsReachable = collectRecursiveCallsAndCheckIfEndBlockIsReachable(functionDef, ControlFlowCache.of(ctx), allRecursiveCalls);
       if (!allRecursiveCalls.isEmpty() && !endBlockIsReachable) {
         String message = String.format(MESSAGE, functionDef.isMethodDefinition() ? "method" : "function");
         PreciseIssue issue = ctx.addIssue(functionDef.name(), message);
@@ -75,12 +75,12 @@ public class InfiniteRecursionCheck extends PythonSubscriptionCheck {
     });
   }
 
-  private static boolean collectRecursiveCallsAndCheckIfEndBlockIsReachable(FunctionDef functionDef, PythonFile pythonFile, List<Tree> allRecursiveCalls) {
+  private static boolean collectRecursiveCallsAndCheckIfEndBlockIsReachable(FunctionDef functionDef, ControlFlowCache controlFlowCache, List<Tree> allRecursiveCalls) {
     Symbol functionSymbol = functionDef.name().symbol();
     if (functionSymbol == null) {
       return true;
     }
-    ControlFlowGraph cfg = ControlFlowGraph.build(functionDef, pythonFile);
+    ControlFlowGraph cfg = controlFlowCache.cfg(functionDef);
     if (cfg == null) {
       return true;
     }
@@ -45,6 +45,7 @@ import org.sonar.plugins.python.api.tree.Tree;
 import org.sonar.plugins.python.api.tree.Tree.Kind;
 import org.sonar.plugins.python.api.tree.TryStatement;
 import org.sonar.plugins.python.api.tree.UnaryExpression;
+import org.sonar.python.cfg.ControlFlowCache;
 import org.sonar.python.cfg.PythonCfgBranchingBlock;
 import org.sonar.python.tree.TreeUtils;
 
@@ -65,7 +66,7 @@ public class InvariantReturnCheck extends PythonSubscriptionCheck {
   public void initialize(Context context) {
     context.registerSyntaxNodeConsumer(Kind.FUNCDEF, ctx -> {
       FunctionDef functionDef = (FunctionDef) ctx.syntaxNode();
-      ControlFlowGraph cfg = ControlFlowGraph.build(functionDef, ctx.pythonFile());
+      ControlFlowGraph cfg = ControlFlowCache.of(ctx).cfg(functionDef);
       if (cfg != null) {
         List<LatestExecutedBlock> latestExecutedBlocks = collectLatestExecutedBlocks(cfg);
         boolean allBlocksHaveReturnStatement = latestExecutedBlocks.stream().allMatch(LatestExecutedBlock::hasReturnStatement);
@@ -51,4 +51,9 @@ public class LineLengthCheck extends PythonSubscriptionCheck {
       }
     });
   }
+
+  @Override
+  public boolean requiresTypeInference() {
+    return false;
+  }
 }
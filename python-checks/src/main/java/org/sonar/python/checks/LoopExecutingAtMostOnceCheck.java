@@ -38,6 +38,7 @@ import org.sonar.plugins.python.api.tree.Token;
 import org.sonar.plugins.python.api.tree.Tree;
 import org.sonar.plugins.python.api.tree.Tree.Kind;
 import org.sonar.plugins.python.api.tree.WhileStatement;
+import org.sonar.python.cfg.ControlFlowCache;
 import org.sonar.python.tree.TreeUtils;
 
 @Rule(key = "S1751")
@@ -46,10 +47,10 @@ public class LoopExecutingAtMostOnceCheck extends PythonSubscriptionCheck {
   @Override
   public void initialize(Context context) {
     context.registerSyntaxNodeConsumer(Kind.FUNCDEF, ctx ->
-      checkCfg(ControlFlowGraph.build((FunctionDef) ctx.syntaxNode(), ctx.pythonFile()), ctx)
+      checkCfg(ControlFlowCache.of(ctx).cfg((FunctionDef) ctx.syntaxNode()), ctx)
     );
     context.registerSyntaxNodeConsumer(Kind.FILE_INPUT, ctx ->
-      checkCfg(ControlFlowGraph.build((FileInput) ctx.syntaxNode(), ctx.pythonFile()), ctx)
+      checkCfg(ControlFlowCache.of(ctx).cfg((FileInput) ctx.syntaxNode()), ctx)
     );
   }
 
@@ -36,4 +36,9 @@ public class MissingNewlineAtEndOfFileCheck extends PythonSubscriptionCheck {
       }
     });
   }
+
+  @Override
+  public boolean requiresTypeInference() {
+    return false;
+  }
 }
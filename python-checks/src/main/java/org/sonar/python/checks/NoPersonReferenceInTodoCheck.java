@@ -67,5 +67,10 @@ public class NoPersonReferenceInTodoCheck extends PythonSubscriptionCheck {
       }
     }
   }
+
+  @Override
+  public boolean requiresTypeInference() {
+    return false;
+  }
 }
 
@@ -21,9 +21,9 @@ package org.sonar.python.checks;
 
 import org.sonar.check.Rule;
 import org.sonar.plugins.python.api.PythonSubscriptionCheck;
-import org.sonar.plugins.python.api.tree.Token;
 import org.sonar.plugins.python.api.tree.Tree;
 import org.sonar.plugins.python.api.tree.Trivia;
+import org.sonar.python.tree.FileTokens;
 
 import static org.sonar.python.metrics.FileLinesVisitor.containsNoSonarComment;
 
@@ -39,14 +39,18 @@ public class NoSonarCommentCheck extends PythonSubscriptionCheck {
 
   @Override
   public void initialize(Context context) {
-    context.registerSyntaxNodeConsumer(Tree.Kind.TOKEN, ctx -> {
-      Token token = (Token) ctx.syntaxNode();
-      for (Trivia trivia : token.trivia()) {
+    context.registerSyntaxNodeConsumer(Tree.Kind.FILE_INPUT, ctx -> {
+      for (Trivia trivia : FileTokens.of(ctx.syntaxNode()).comments()) {
         if (containsNoSonarComment(trivia)) {
           ctx.addIssue(trivia.token(), MESSAGE);
         }
       }
     });
   }
+
+  @Override
+  public boolean requiresTypeInference() {
+    return false;
+  }
 }
 
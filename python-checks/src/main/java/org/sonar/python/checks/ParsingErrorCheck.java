@@ -36,4 +36,9 @@ public class ParsingErrorCheck implements PythonCheck {
     }
   }
 
+  @Override
+  public boolean requiresTypeInference() {
+    return false;
+  }
+
 }
@@ -34,6 +34,7 @@ import org.sonar.plugins.python.api.symbols.Usage;
 import org.sonar.plugins.python.api.tree.FunctionDef;
 import org.sonar.plugins.python.api.tree.Tree;
 import org.sonar.python.cfg.CfgUtils;
+import org.sonar.python.cfg.ControlFlowCache;
 import org.sonar.python.cfg.fixpoint.DefinedVariablesAnalysis;
 import org.sonar.python.cfg.fixpoint.DefinedVariablesAnalysis.DefinedVariables;
 import org.sonar.python.tree.TreeUtils;
@@ -50,11 +51,12 @@ public class ReferencedBeforeAssignmentCheck extends PythonSubscriptionCheck {
       if (TreeUtils.hasDescendant(functionDef, tree -> tree.is(Tree.Kind.TRY_STMT))) {
         return;
       }
-      ControlFlowGraph cfg = ControlFlowGraph.build(functionDef, ctx.pythonFile());
-      if (cfg == null) {
+      ControlFlowCache controlFlowCache = ControlFlowCache.of(ctx);
+      ControlFlowGraph cfg = controlFlowCache.cfg(functionDef);
+      DefinedVariablesAnalysis analysis = controlFlowCache.definedVariables(functionDef);
+      if (cfg == null || analysis == null) {
         return;
       }
-      DefinedVariablesAnalysis analysis = DefinedVariablesAnalysis.analyze(cfg, functionDef.localVariables());
       Set<CfgBlock> unreachableBlocks = CfgUtils.unreachableBlocks(cfg);
       cfg.blocks().forEach(block -> checkCfgBlock(block, ctx, analysis.getDefinedVariables(block), unreachableBlocks, analysis, ignoredSymbols));
     });
@@ -23,9 +23,9 @@ import java.util.regex.Pattern;
 import org.sonar.check.Rule;
 import org.sonar.plugins.python.api.PythonSubscriptionCheck;
 import org.sonar.plugins.python.api.SubscriptionCheck;
-import org.sonar.plugins.python.api.tree.Token;
 import org.sonar.plugins.python.api.tree.Tree;
 import org.sonar.plugins.python.api.tree.Trivia;
+import org.sonar.python.tree.FileTokens;
 
 @Rule(key = "S1135")
 public class ToDoCommentCheck extends PythonSubscriptionCheck {
@@ -36,9 +36,8 @@ public class ToDoCommentCheck extends PythonSubscriptionCheck {
   @Override
   public void initialize(SubscriptionCheck.Context context) {
     Pattern pattern = Pattern.compile(TODO_COMMENT_PATTERN, Pattern.CASE_INSENSITIVE);
-    context.registerSyntaxNodeConsumer(Tree.Kind.TOKEN, ctx -> {
-      Token token = (Token) ctx.syntaxNode();
-      for (Trivia trivia : token.trivia()) {
+    context.registerSyntaxNodeConsumer(Tree.Kind.FILE_INPUT, ctx -> {
+      for (Trivia trivia : FileTokens.of(ctx.syntaxNode()).comments()) {
         String comment = trivia.value();
         if (pattern.matcher(comment).matches()) {
           ctx.addIssue(trivia.token(), MESSAGE);
@@ -46,4 +45,9 @@ public class ToDoCommentCheck extends PythonSubscriptionCheck {
       }
     });
   }
+
+  @Override
+  public boolean requiresTypeInference() {
+    return false;
+  }
 }
@@ -47,5 +47,10 @@ public class TooManyLinesInFileCheck extends PythonSubscriptionCheck {
       }
     });
   }
+
+  @Override
+  public boolean requiresTypeInference() {
+    return false;
+  }
 }
 
@@ -101,5 +101,10 @@ public class TrailingCommentCheck extends PythonSubscriptionCheck {
   private static int calculateStartColumnToRemove(Token commentToken, String line) {
     return line.substring(0, commentToken.column()).stripTrailing().length();
   }
+
+  @Override
+  public boolean requiresTypeInference() {
+    return false;
+  }
 }
 
@@ -51,5 +51,10 @@ public class TrailingWhitespaceCheck implements PythonCheck {
       }
     }
   }
+
+  @Override
+  public boolean requiresTypeInference() {
+    return false;
+  }
 }
 
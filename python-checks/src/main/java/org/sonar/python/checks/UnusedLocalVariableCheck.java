@@ -154,8 +154,7 @@ public class UnusedLocalVariableCheck extends PythonSubscriptionCheck {
     if (isOnlyTypeAnnotation(usages)) {
       return false;
     }
-    return usages.stream().noneMatch(usage -> usage.kind() == Usage.Kind.IMPORT)
-      && usages.stream().allMatch(Usage::isBindingUsage);
+    return !symbol.hasUsageOfKind(Usage.Kind.IMPORT) && symbol.bindingUsagesCount() == usages.size();
   }
 
   private static boolean isOnlyTypeAnnotation(List<Usage> usages) {
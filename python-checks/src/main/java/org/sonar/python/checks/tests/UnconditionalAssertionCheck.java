@@ -37,6 +37,7 @@ import org.sonar.plugins.python.api.tree.Name;
 import org.sonar.plugins.python.api.tree.NumericLiteral;
 import org.sonar.plugins.python.api.tree.RegularArgument;
 import org.sonar.plugins.python.api.tree.Tree;
+import org.sonar.python.cfg.ControlFlowCache;
 import org.sonar.python.cfg.fixpoint.ReachingDefinitionsAnalysis;
 import org.sonar.python.checks.utils.CheckUtils;
 import org.sonar.python.tree.TreeUtils;
@@ -66,7 +67,7 @@ public class UnconditionalAssertionCheck extends PythonSubscriptionCheck {
   @Override
   public void initialize(Context context) {
     context.registerSyntaxNodeConsumer(Tree.Kind.FILE_INPUT, ctx ->
-      reachingDefinitionsAnalysis = new ReachingDefinitionsAnalysis(ctx.pythonFile()));
+      reachingDefinitionsAnalysis = ControlFlowCache.of(ctx).reachingDefinitions());
 
     context.registerSyntaxNodeConsumer(Tree.Kind.ASSERT_STMT, ctx -> {
       AssertStatement assertStatement = (AssertStatement) ctx.syntaxNode();
@@ -37,6 +37,16 @@ public interface PythonCheck {
     return true;
   }
 
+  /**
+   * Whether this check relies on inferred types, either directly through {@code Expression.type()} or indirectly through
+   * symbols of members resolved from these types (e.g. the callee symbol of a method call).
+   * Type inference is skipped on files where none of the executed checks requires it.
+   */
+  @Beta
+  default boolean requiresTypeInference() {
+    return true;
+  }
+
   class PreciseIssue {
 
     private final PythonCheck check;
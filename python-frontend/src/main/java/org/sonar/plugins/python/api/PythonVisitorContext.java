@@ -28,7 +28,9 @@ import org.sonar.plugins.python.api.PythonCheck.PreciseIssue;
 import org.sonar.plugins.python.api.caching.CacheContext;
 import org.sonar.plugins.python.api.tree.FileInput;
 import org.sonar.python.caching.CacheContextImpl;
+import org.sonar.python.cfg.ControlFlowCache;
 import org.sonar.python.semantic.ProjectLevelSymbolTable;
+import org.sonar.python.semantic.SemanticModelOptions;
 import org.sonar.python.semantic.SymbolTableBuilder;
 
 public class PythonVisitorContext extends PythonInputFileContext {
@@ -36,6 +38,7 @@ public class PythonVisitorContext extends PythonInputFileContext {
   private final FileInput rootTree;
   private final RecognitionException parsingException;
   private List<PreciseIssue> issues = new ArrayList<>();
+  private final ControlFlowCache controlFlowCache;
 
   public PythonVisitorContext(FileInput rootTree, PythonFile pythonFile, @Nullable File workingDirectory, @Nullable String packageName) {
     super(pythonFile, workingDirectory, CacheContextImpl.dummyCache());
@@ -43,20 +46,36 @@ public class PythonVisitorContext extends PythonInputFileContext {
     this.parsingException = null;
     SymbolTableBuilder symbolTableBuilder = packageName != null ? new SymbolTableBuilder(packageName, pythonFile) : new SymbolTableBuilder(pythonFile);
     symbolTableBuilder.visitFileInput(rootTree);
+    this.controlFlowCache = symbolTableBuilder.controlFlowCache();
   }
 
   public PythonVisitorContext(FileInput rootTree, PythonFile pythonFile, @Nullable File workingDirectory, String packageName,
     ProjectLevelSymbolTable projectLevelSymbolTable, CacheContext cacheContext) {
+    this(rootTree, pythonFile, workingDirectory, packageName, projectLevelSymbolTable, cacheContext, SemanticModelOptions.DEFAULT);
+  }
+
+  /**
+   * @see PythonCheck#requiresTypeInference()
+   */
+  public PythonVisitorContext(FileInput rootTree, PythonFile pythonFile, @Nullable File workingDirectory, String packageName,
+    ProjectLevelSymbolTable projectLevelSymbolTable, CacheContext cacheContext, SemanticModelOptions options) {
     super(pythonFile, workingDirectory, cacheContext);
     this.rootTree = rootTree;
     this.parsingException = null;
-    new SymbolTableBuilder(packageName, pythonFile, projectLevelSymbolTable).visitFileInput(rootTree);
+    SymbolTableBuilder symbolTableBuilder = new SymbolTableBuilder(packageName, pythonFile, projectLevelSymbolTable);
+    if (!options.inferTypes()) {
+      symbolTableBuilder.disableTypeInference();
+    }
+    symbolTableBuilder.setMaxBlocksForDataFlow(options.maxBlocksForDataFlow());
+    symbolTableBuilder.visitFileInput(rootTree);
+    this.controlFlowCache = symbolTableBuilder.controlFlowCache();
   }
 
   public PythonVisitorContext(PythonFile pythonFile, RecognitionException parsingException) {
     super(pythonFile, null, CacheContextImpl.dummyCache());
     this.rootTree = null;
     this.parsingException = parsingException;
+    this.controlFlowCache = new ControlFlowCache(pythonFile);
   }
 
   public FileInput rootTree() {
@@ -74,4 +93,11 @@ public class PythonVisitorContext extends PythonInputFileContext {
   public List<PreciseIssue> getIssues() {
     return issues;
   }
+
+  /**
+   * Control flow graphs and data flow analyses of this file, shared by all the checks.
+   */
+  public ControlFlowCache controlFlowCache() {
+    return controlFlowCache;
+  }
 }
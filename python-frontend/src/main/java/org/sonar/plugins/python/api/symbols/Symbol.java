@@ -43,6 +43,27 @@ public interface Symbol {
   @CheckForNull
   String annotatedTypeName();
 
+  @Beta
+  default boolean hasUsageOfKind(Usage.Kind kind) {
+    return usages().stream().anyMatch(u -> u.kind() == kind);
+  }
+
+  /**
+   * Number of usages which bind the symbol, see {@link Usage#isBindingUsage()}
+   */
+  @Beta
+  default int bindingUsagesCount() {
+    return (int) usages().stream().filter(Usage::isBindingUsage).count();
+  }
+
+  /**
+   * Number of usages which read the symbol, i.e. usages of kind {@link Usage.Kind#OTHER}
+   */
+  @Beta
+  default int readUsagesCount() {
+    return (int) usages().stream().filter(u -> u.kind() == Usage.Kind.OTHER).count();
+  }
+
   enum Kind {
     FUNCTION,
     CLASS,
@@ -20,12 +20,12 @@
 package org.sonar.python;
 
 import java.io.File;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Deque;
 import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Set;
@@ -48,6 +48,8 @@ import org.sonar.plugins.python.api.tree.StringElement;
 import org.sonar.plugins.python.api.tree.Token;
 import org.sonar.plugins.python.api.tree.Tree;
 import org.sonar.plugins.python.api.tree.Tree.Kind;
+import org.sonar.python.cfg.ControlFlowCache;
+import org.sonar.python.cfg.ControlFlowContext;
 import org.sonar.python.regex.PythonAnalyzerRegexSource;
 import org.sonar.python.regex.PythonRegexIssueLocation;
 import org.sonar.python.regex.RegexContext;
@@ -59,9 +61,46 @@ import org.sonarsource.analyzer.commons.regex.ast.RegexSyntaxElement;
 
 public class SubscriptionVisitor {
 
-  private final EnumMap<Kind, List<SubscriptionContextImpl>> consumers = new EnumMap<>(Kind.class);
+  private static final Kind[] KINDS = Kind.values();
+  private static final SubscriptionContextImpl[] NO_CONSUMERS = new SubscriptionContextImpl[0];
+
+  /**
+   * Kinds whose children can only be tokens.
+   */
+  private static final Set<Kind> TOKEN_ONLY_KINDS = EnumSet.of(Kind.NAME, Kind.NUMERIC_LITERAL, Kind.NONE, Kind.ELLIPSIS,
+    Kind.PASS_STMT, Kind.BREAK_STMT, Kind.CONTINUE_STMT);
+
+  /**
+   * Kinds which never appear inside an expression: statements, their clauses, declarations, decorators and patterns.
+   * All other kinds may only contain kinds which are not in this set.
+   */
+  private static final Set<Kind> STATEMENT_LEVEL_KINDS = EnumSet.of(Kind.FILE_INPUT, Kind.STATEMENT_LIST,
+    Kind.ANNOTATED_ASSIGNMENT, Kind.ASSERT_STMT, Kind.ASSIGNMENT_STMT, Kind.BREAK_STMT, Kind.CONTINUE_STMT, Kind.COMPOUND_ASSIGNMENT,
+    Kind.DEL_STMT, Kind.EXEC_STMT, Kind.EXPRESSION_STMT, Kind.FOR_STMT, Kind.GLOBAL_STMT, Kind.IF_STMT, Kind.IMPORT_FROM, Kind.IMPORT_NAME,
+    Kind.MATCH_STMT, Kind.NONLOCAL_STMT, Kind.PASS_STMT, Kind.PRINT_STMT, Kind.RAISE_STMT, Kind.RETURN_STMT, Kind.TRY_STMT,
+    Kind.TYPE_ALIAS_STMT, Kind.WHILE_STMT, Kind.WITH_STMT, Kind.YIELD_STMT, Kind.DYNAMIC_OBJECT_INFO_STATEMENT, Kind.CELL_MAGIC_STATEMENT,
+    Kind.ALIASED_NAME, Kind.CASE_BLOCK, Kind.ELSE_CLAUSE, Kind.EXCEPT_CLAUSE, Kind.EXCEPT_GROUP_CLAUSE, Kind.FINALLY_CLAUSE, Kind.GUARD,
+    Kind.WITH_ITEM, Kind.CLASSDEF, Kind.FUNCDEF, Kind.DECORATOR, Kind.TYPE_PARAMS, Kind.TYPE_PARAM, Kind.VARIABLE_TYPE_ANNOTATION,
+    Kind.RETURN_TYPE_ANNOTATION, Kind.AS_PATTERN, Kind.BOOLEAN_LITERAL_PATTERN, Kind.CAPTURE_PATTERN, Kind.CLASS_PATTERN,
+    Kind.DOUBLE_STAR_PATTERN, Kind.GROUP_PATTERN, Kind.KEYWORD_PATTERN, Kind.KEY_VALUE_PATTERN, Kind.MAPPING_PATTERN,
+    Kind.NONE_LITERAL_PATTERN, Kind.NUMERIC_LITERAL_PATTERN, Kind.OR_PATTERN, Kind.SEQUENCE_PATTERN, Kind.STAR_PATTERN,
+    Kind.STRING_LITERAL_PATTERN, Kind.VALUE_PATTERN, Kind.WILDCARD_PATTERN);
+
+  /**
+   * Consumers indexed by {@link Kind#ordinal()}.
+   */
+  private final SubscriptionContextImpl[][] consumersByKind = new SubscriptionContextImpl[KINDS.length][];
+  /**
+   * Kinds, indexed by {@link Kind#ordinal()}, whose children cannot contain any subscribed kind and therefore don't need to be visited.
+   */
+  private final boolean[] skipChildrenByKind = new boolean[KINDS.length];
+  /**
+   * Kinds, indexed by {@link Kind#ordinal()}, without consumers and whose children are skipped: such nodes are not even pushed on the stack.
+   */
+  private final boolean[] skipNodeByKind = new boolean[KINDS.length];
   private final PythonVisitorContext pythonVisitorContext;
   private Tree currentElement;
+  private Tree[] stack = new Tree[64];
   private final HashMap<String, RegexParseResult> regexCache = new HashMap<>();
 
   public static void analyze(Collection<PythonSubscriptionCheck> checks, PythonVisitorContext pythonVisitorContext) {
@@ -75,29 +114,67 @@ public class SubscriptionVisitor {
 
   private SubscriptionVisitor(Collection<PythonSubscriptionCheck> checks, PythonVisitorContext pythonVisitorContext) {
     this.pythonVisitorContext = pythonVisitorContext;
+    EnumMap<Kind, List<SubscriptionContextImpl>> consumers = new EnumMap<>(Kind.class);
     for (PythonSubscriptionCheck check : checks) {
       check.initialize((elementType, consumer) -> {
         List<SubscriptionContextImpl> elementConsumers = consumers.computeIfAbsent(elementType, c -> new ArrayList<>());
         elementConsumers.add(new SubscriptionContextImpl(check, consumer));
       });
     }
+    boolean expressionLevelSubscription = consumers.keySet().stream().anyMatch(kind -> !STATEMENT_LEVEL_KINDS.contains(kind));
+    for (Kind kind : KINDS) {
+      List<SubscriptionContextImpl> kindConsumers = consumers.get(kind);
+      consumersByKind[kind.ordinal()] = kindConsumers == null ? NO_CONSUMERS : kindConsumers.toArray(NO_CONSUMERS);
+      skipChildrenByKind[kind.ordinal()] = !mayContainSubscribedKind(kind, consumers.keySet(), expressionLevelSubscription);
+      skipNodeByKind[kind.ordinal()] = kindConsumers == null && skipChildrenByKind[kind.ordinal()];
+    }
+  }
+
+  /**
+   * Conservative summary of the kinds which may appear below a node of the given kind.
+   */
+  private static boolean mayContainSubscribedKind(Kind kind, Set<Kind> subscribedKinds, boolean expressionLevelSubscription) {
+    if (kind == Kind.TOKEN) {
+      return false;
+    }
+    if (TOKEN_ONLY_KINDS.contains(kind)) {
+      return subscribedKinds.contains(Kind.TOKEN);
+    }
+    if (STATEMENT_LEVEL_KINDS.contains(kind)) {
+      return !subscribedKinds.isEmpty();
+    }
+    return expressionLevelSubscription;
   }
 
   private void scan(Tree element) {
-    Deque<Tree> stack = new ArrayDeque<>();
-    stack.push(element);
-    while (!stack.isEmpty()) {
-      currentElement = stack.pop();
-      consumers.getOrDefault(currentElement.getKind(), Collections.emptyList()).forEach(SubscriptionContextImpl::execute);
-      for (int i = currentElement.children().size() - 1; i >= 0; i--) {
-        if (currentElement.children().get(i) != null) {
-          stack.push(currentElement.children().get(i));
+    int size = 0;
+    stack[size++] = element;
+    while (size > 0) {
+      Tree tree = stack[--size];
+      stack[size] = null;
+      currentElement = tree;
+      int kindIndex = tree.getKind().ordinal();
+      for (SubscriptionContextImpl consumer : consumersByKind[kindIndex]) {
+        consumer.execute();
+      }
+      if (skipChildrenByKind[kindIndex]) {
+        continue;
+      }
+      List<Tree> children = tree.children();
+      int childrenCount = children.size();
+      if (size + childrenCount > stack.length) {
+        stack = Arrays.copyOf(stack, Math.max(stack.length * 2, size + childrenCount));
+      }
+      for (int i = childrenCount - 1; i >= 0; i--) {
+        Tree child = children.get(i);
+        if (child != null && !skipNodeByKind[child.getKind().ordinal()]) {
+          stack[size++] = child;
         }
       }
     }
   }
 
-  private class SubscriptionContextImpl implements SubscriptionContext, RegexContext {
+  private class SubscriptionContextImpl implements SubscriptionContext, RegexContext, ControlFlowContext {
     private final PythonCheck check;
     private final Consumer<SubscriptionContext> consumer;
 
@@ -182,6 +259,11 @@ public class SubscriptionVisitor {
       return pythonVisitorContext.cacheContext();
     }
 
+    @Override
+    public ControlFlowCache controlFlowCache() {
+      return pythonVisitorContext.controlFlowCache();
+    }
+
     public RegexParseResult regexForStringElement(StringElement stringElement, FlagSet flagSet) {
       return regexCache.computeIfAbsent(stringElement.hashCode() + "-" + flagSet.getMask(),
         s -> new RegexParser(new PythonAnalyzerRegexSource(stringElement), flagSet).parse());
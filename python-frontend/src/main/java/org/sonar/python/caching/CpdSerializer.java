@@ -23,12 +23,19 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import javax.annotation.Nullable;
 import org.sonar.plugins.python.api.tree.Token;
 import org.sonar.python.TokenLocation;
+import org.sonar.python.tree.FileTokens;
 
+/**
+ * Serializes CPD tokens into a single blob made of a string table followed by one column per token attribute.
+ * Positions are delta-encoded: each token starts relatively to the end of the previous one and ends relatively to its own start,
+ * so that most of them fit in a single byte.
+ */
 public class CpdSerializer {
 
+  private static final String END = "END";
+
   private CpdSerializer() {
     // Prevent instantiation
   }
@@ -54,135 +61,161 @@ public class CpdSerializer {
     }
   }
 
-  public static class SerializationResult {
-    public final byte[] data;
-    public final byte[] stringTable;
+  /**
+   * Receives the deserialized tokens, in order, without any intermediate object being created.
+   */
+  @FunctionalInterface
+  public interface TokenConsumer {
+    void accept(int startLine, int startLineOffset, int endLine, int endLineOffset, String value);
+  }
 
-    public SerializationResult(byte[] data, byte[] stringTable) {
-      this.data = data;
-      this.stringTable = stringTable;
+  public static byte[] serialize(List<Token> tokens) throws IOException {
+    Columns columns = new Columns(tokens.size());
+    for (Token token : tokens) {
+      TokenLocation location = new TokenLocation(token);
+      columns.add(location.startLine(), location.startLineOffset(), location.endLine(), location.endLineOffset(), token.value());
     }
+    return columns.toByteArray();
   }
 
-  public static SerializationResult serialize(List<Token> tokens) throws IOException {
-    return new Serializer().convert(tokens);
+  /**
+   * Serializes the tokens of {@code fileTokens} at the given indexes, using their precomputed positions.
+   */
+  public static byte[] serialize(FileTokens fileTokens, int[] tokenIndexes) throws IOException {
+    Columns columns = new Columns(tokenIndexes.length);
+    for (int index : tokenIndexes) {
+      columns.add(fileTokens.startLine(index), fileTokens.startLineOffset(index), fileTokens.endLine(index), fileTokens.endLineOffset(index),
+        fileTokens.token(index).value());
+    }
+    return columns.toByteArray();
   }
 
-  public static List<TokenInfo> deserialize(byte[] dataBytes, byte[] stringTableBytes) throws IOException {
-    return new Deserializer(new VarLengthInputStream(dataBytes), new VarLengthInputStream(stringTableBytes)).convert();
+  public static List<TokenInfo> deserialize(byte[] data) throws IOException {
+    List<TokenInfo> tokens = new ArrayList<>();
+    deserialize(data, (startLine, startLineOffset, endLine, endLineOffset, value) ->
+      tokens.add(new TokenInfo(startLine, startLineOffset, endLine, endLineOffset, value)));
+    return tokens;
   }
 
-  private static class Serializer {
-    private final ByteArrayOutputStream stream;
-    private final VarLengthOutputStream out;
-    private final StringTable stringTable;
-
-    private Serializer() {
-      stream = new ByteArrayOutputStream();
-      out = new VarLengthOutputStream(stream);
-      stringTable = new StringTable();
-    }
+  /**
+   * Decodes {@code data} and passes each token to {@code consumer}. Nothing is passed to the consumer if the data is corrupted.
+   */
+  public static void deserialize(byte[] data, TokenConsumer consumer) throws IOException {
+    try (VarLengthInputStream in = new VarLengthInputStream(data)) {
+      int stringTableSize = readSize(in, data);
+      String[] strings = new String[stringTableSize];
+      for (int i = 0; i < stringTableSize; i++) {
+        strings[i] = in.readUTF();
+      }
+      int size = readSize(in, data);
+      int[] startLines = readColumn(in, size);
+      int[] startLineOffsets = readColumn(in, size);
+      int[] endLines = readColumn(in, size);
+      int[] endLineOffsets = readColumn(in, size);
+      int[] values = readColumn(in, size);
+      if (!END.equals(in.readUTF())) {
+        throw corrupted();
+      }
 
-    public SerializationResult convert(List<Token> tokens) throws IOException {
-      try (out; stream) {
-        writeInt(tokens.size());
-        for (Token token : tokens) {
-          write(token);
+      int previousEndLine = 0;
+      int previousEndLineOffset = 0;
+      for (int i = 0; i < size; i++) {
+        int startLine = previousEndLine + startLines[i];
+        int startLineOffset = startLines[i] == 0 ? (previousEndLineOffset + startLineOffsets[i]) : startLineOffsets[i];
+        int endLine = startLine + endLines[i];
+        int endLineOffset = endLines[i] == 0 ? (startLineOffset + endLineOffsets[i]) : endLineOffsets[i];
+        if (values[i] < 0 || values[i] >= strings.length) {
+          throw corrupted();
         }
-        out.writeUTF("END");
-
-        return new SerializationResult(stream.toByteArray(), writeStringTable());
+        previousEndLine = endLine;
+        previousEndLineOffset = endLineOffset;
+        startLines[i] = startLine;
+        startLineOffsets[i] = startLineOffset;
+        endLines[i] = endLine;
+        endLineOffsets[i] = endLineOffset;
+      }
+      for (int i = 0; i < size; i++) {
+        consumer.accept(startLines[i], startLineOffsets[i], endLines[i], endLineOffsets[i], strings[values[i]]);
       }
     }
+  }
 
-    private void write(Token token) throws IOException {
-      TokenLocation location = new TokenLocation(token);
-      writeInt(location.startLine());
-      writeInt(location.startLineOffset());
-      writeInt(location.endLine());
-      writeInt(location.endLineOffset());
-      writeText(token.value());
-    }
-
-    private void writeText(@Nullable String text) throws IOException {
-      out.writeInt(stringTable.getIndex(text));
-    }
-
-    private void writeInt(int number) throws IOException {
-      out.writeInt(number);
+  private static int readSize(VarLengthInputStream in, byte[] data) throws IOException {
+    int size = in.readInt();
+    // Every element takes at least one byte
+    if (size < 0 || size > data.length) {
+      throw corrupted();
     }
+    return size;
+  }
 
-    private byte[] writeStringTable() throws IOException {
-      ByteArrayOutputStream stringTableStream = new ByteArrayOutputStream();
-      VarLengthOutputStream output = new VarLengthOutputStream(stringTableStream);
-      List<String> byIndex = stringTable.getStringList();
-      output.writeInt(byIndex.size());
-      for (String string : byIndex) {
-        output.writeUTF(string);
-      }
-
-      output.writeUTF("END");
-      return stringTableStream.toByteArray();
+  private static int[] readColumn(VarLengthInputStream in, int size) throws IOException {
+    int[] column = new int[size];
+    for (int i = 0; i < size; i++) {
+      column[i] = in.readInt();
     }
+    return column;
   }
 
-  private static class Deserializer {
-    private final VarLengthInputStream in;
-    private final VarLengthInputStream stringTableIn;
-
-    private StringTable stringTable;
+  private static IOException corrupted() {
+    return new IOException("Can't read data from cache, format corrupted");
+  }
 
-    private Deserializer(VarLengthInputStream in, VarLengthInputStream stringTableIn) {
-      this.in = in;
-      this.stringTableIn = stringTableIn;
+  private static class Columns {
+    private final StringTable stringTable = new StringTable();
+    private final int[] startLines;
+    private final int[] startLineOffsets;
+    private final int[] endLines;
+    private final int[] endLineOffsets;
+    private final int[] values;
+    private int size = 0;
+    private int previousEndLine = 0;
+    private int previousEndLineOffset = 0;
+
+    private Columns(int capacity) {
+      startLines = new int[capacity];
+      startLineOffsets = new int[capacity];
+      endLines = new int[capacity];
+      endLineOffsets = new int[capacity];
+      values = new int[capacity];
     }
 
-    public List<TokenInfo> convert() throws IOException {
-      try (in; stringTableIn) {
-        stringTable = readStringTable();
-        int sizeOfCpdTokens = readInt();
-        List<TokenInfo> cpdTokens = new ArrayList<>(sizeOfCpdTokens);
-
-        for (int i = 0; i < sizeOfCpdTokens; i++) {
-          readCpdToken(cpdTokens);
-        }
+    private void add(int startLine, int startLineOffset, int endLine, int endLineOffset, String value) {
+      int startLineDelta = startLine - previousEndLine;
+      int endLineDelta = endLine - startLine;
+      startLines[size] = startLineDelta;
+      startLineOffsets[size] = startLineDelta == 0 ? (startLineOffset - previousEndLineOffset) : startLineOffset;
+      endLines[size] = endLineDelta;
+      endLineOffsets[size] = endLineDelta == 0 ? (endLineOffset - startLineOffset) : endLineOffset;
+      values[size] = stringTable.getIndex(value);
+      previousEndLine = endLine;
+      previousEndLineOffset = endLineOffset;
+      size++;
+    }
 
-        if (!"END".equals(in.readUTF())) {
-          throw new IOException("Can't read data from cache, format corrupted");
+    private byte[] toByteArray() throws IOException {
+      ByteArrayOutputStream stream = new ByteArrayOutputStream(16 + size * 6);
+      try (VarLengthOutputStream out = new VarLengthOutputStream(stream)) {
+        List<String> strings = stringTable.getStringList();
+        out.writeInt(strings.size());
+        for (String string : strings) {
+          out.writeUTF(string);
         }
-        return cpdTokens;
+        out.writeInt(size);
+        writeColumn(out, startLines);
+        writeColumn(out, startLineOffsets);
+        writeColumn(out, endLines);
+        writeColumn(out, endLineOffsets);
+        writeColumn(out, values);
+        out.writeUTF(END);
       }
+      return stream.toByteArray();
     }
 
-    private void readCpdToken(List<TokenInfo> cpdTokens) throws IOException {
-      cpdTokens.add(new TokenInfo(
-        readInt(),
-        readInt(),
-        readInt(),
-        readInt(),
-        readString()
-      ));
-    }
-
-    private int readInt() throws IOException {
-      return in.readInt();
-    }
-
-    private String readString() throws IOException {
-      return stringTable.getString(in.readInt());
-    }
-
-    private StringTable readStringTable() throws IOException {
-      int size = stringTableIn.readInt();
-      List<String> byIndex = new ArrayList<>(size);
+    private void writeColumn(VarLengthOutputStream out, int[] column) throws IOException {
       for (int i = 0; i < size; i++) {
-        byIndex.add(stringTableIn.readUTF());
+        out.writeInt(column[i]);
       }
-      if (!"END".equals(stringTableIn.readUTF())) {
-        throw new IOException("Can't read data from cache, format corrupted");
-      }
-      return new StringTable(byIndex);
     }
   }
-
 }
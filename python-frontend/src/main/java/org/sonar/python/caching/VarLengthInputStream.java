@@ -37,10 +37,14 @@ public class VarLengthInputStream implements Closeable {
   }
 
   public String readUTF() throws IOException {
+    return new String(readBytes(), StandardCharsets.UTF_8);
+  }
+
+  public byte[] readBytes() throws IOException {
     int length = readInt();
     byte[] bytes = new byte[length];
     in.readFully(bytes);
-    return new String(bytes, StandardCharsets.UTF_8);
+    return bytes;
   }
 
   public int readInt() throws IOException {
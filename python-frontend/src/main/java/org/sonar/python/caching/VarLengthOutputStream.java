@@ -56,6 +56,10 @@ public class VarLengthOutputStream implements Closeable {
     } else {
       bytes = string.getBytes(StandardCharsets.UTF_8);
     }
+    writeBytes(bytes);
+  }
+
+  public void writeBytes(byte[] bytes) throws IOException {
     writeInt(bytes.length);
     out.write(bytes);
   }
@@ -0,0 +1,184 @@
+/*
+ * SonarQube Python Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.python.cfg;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.annotation.CheckForNull;
+import org.sonar.plugins.python.api.PythonFile;
+import org.sonar.plugins.python.api.SubscriptionContext;
+import org.sonar.plugins.python.api.cfg.ControlFlowGraph;
+import org.sonar.plugins.python.api.tree.FileInput;
+import org.sonar.plugins.python.api.tree.FunctionDef;
+import org.sonar.plugins.python.api.tree.Tree;
+import org.sonar.python.cfg.fixpoint.DefinedVariablesAnalysis;
+import org.sonar.python.cfg.fixpoint.LiveVariablesAnalysis;
+import org.sonar.python.cfg.fixpoint.ReachingDefinitionsAnalysis;
+
+/**
+ * Per-file cache of control flow graphs and of the data flow analyses computed on them.
+ * <p>
+ * Each control flow graph is built at most once, the first time it is requested, and is then shared by type inference and by all
+ * the rules executed on the file. Analyses are computed lazily on top of the cached graphs. A graph which cannot be built is
+ * cached as {@code null}, so that a failure is reported only once.
+ * <p>
+ * Graphs with more blocks than {@link #maxBlocksForDataFlow()}, typically found in generated code, are still built but are not
+ * analyzed: data flow analyses are not computed on them and type inference falls back to its flow-insensitive mode.
+ */
+public class ControlFlowCache {
+
+  public static final int DEFAULT_MAX_BLOCKS_FOR_DATA_FLOW = 2_000;
+
+  private final PythonFile pythonFile;
+  private final int maxBlocksForDataFlow;
+  private final Map<Tree, ControlFlowGraph> cfgByTree = new HashMap<>();
+  private final Map<FunctionDef, LiveVariablesAnalysis> liveVariablesByFunction = new HashMap<>();
+  private final Map<FunctionDef, DefinedVariablesAnalysis> definedVariablesByFunction = new HashMap<>();
+  private ReachingDefinitionsAnalysis reachingDefinitions;
+  private int buildCount = 0;
+  private int hitCount = 0;
+  private final Set<ControlFlowGraph> tooLargeForDataFlow = new HashSet<>();
+
+  public ControlFlowCache(PythonFile pythonFile) {
+    this(pythonFile, DEFAULT_MAX_BLOCKS_FOR_DATA_FLOW);
+  }
+
+  public ControlFlowCache(PythonFile pythonFile, int maxBlocksForDataFlow) {
+    this.pythonFile = pythonFile;
+    this.maxBlocksForDataFlow = maxBlocksForDataFlow;
+  }
+
+  /**
+   * Returns the cache attached to the file being analyzed, or a new empty cache if the context doesn't provide one.
+   */
+  public static ControlFlowCache of(SubscriptionContext ctx) {
+    if (ctx instanceof ControlFlowContext) {
+      return ((ControlFlowContext) ctx).controlFlowCache();
+    }
+    return new ControlFlowCache(ctx.pythonFile());
+  }
+
+  public int maxBlocksForDataFlow() {
+    return maxBlocksForDataFlow;
+  }
+
+  @CheckForNull
+  public ControlFlowGraph cfg(FunctionDef functionDef) {
+    return cfg(functionDef, () -> ControlFlowGraph.build(functionDef, pythonFile));
+  }
+
+  @CheckForNull
+  public ControlFlowGraph cfg(FileInput fileInput) {
+    return cfg(fileInput, () -> ControlFlowGraph.build(fileInput, pythonFile));
+  }
+
+  private ControlFlowGraph cfg(Tree tree, Supplier<ControlFlowGraph> builder) {
+    if (cfgByTree.containsKey(tree)) {
+      hitCount++;
+      return cfgByTree.get(tree);
+    }
+    buildCount++;
+    ControlFlowGraph cfg = builder.get();
+    cfgByTree.put(tree, cfg);
+    return cfg;
+  }
+
+  /**
+   * Returns the control flow graph of the function, or null if it cannot be built or is too large for data flow analyses.
+   */
+  @CheckForNull
+  public ControlFlowGraph cfgForDataFlow(FunctionDef functionDef) {
+    ControlFlowGraph cfg = cfg(functionDef);
+    if (cfg == null || isTooLargeForDataFlow(cfg)) {
+      return null;
+    }
+    return cfg;
+  }
+
+  public boolean isTooLargeForDataFlow(ControlFlowGraph cfg) {
+    if (cfg.blocks().size() > maxBlocksForDataFlow) {
+      tooLargeForDataFlow.add(cfg);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Returns null if the control flow graph of the function cannot be built or is too large for data flow analyses.
+   */
+  @CheckForNull
+  public LiveVariablesAnalysis liveVariables(FunctionDef functionDef) {
+    return analysis(functionDef, liveVariablesByFunction, LiveVariablesAnalysis::analyze);
+  }
+
+  /**
+   * Returns null if the control flow graph of the function cannot be built or is too large for data flow analyses.
+   */
+  @CheckForNull
+  public DefinedVariablesAnalysis definedVariables(FunctionDef functionDef) {
+    return analysis(functionDef, definedVariablesByFunction, cfg -> DefinedVariablesAnalysis.analyze(cfg, functionDef.localVariables()));
+  }
+
+  @CheckForNull
+  private <T> T analysis(FunctionDef functionDef, Map<FunctionDef, T> analyses, Function<ControlFlowGraph, T> analyzer) {
+    T analysis = analyses.get(functionDef);
+    if (analysis == null) {
+      ControlFlowGraph cfg = cfgForDataFlow(functionDef);
+      if (cfg == null) {
+        return null;
+      }
+      analysis = analyzer.apply(cfg);
+      analyses.put(functionDef, analysis);
+    }
+    return analysis;
+  }
+
+  public ReachingDefinitionsAnalysis reachingDefinitions() {
+    if (reachingDefinitions == null) {
+      reachingDefinitions = new ReachingDefinitionsAnalysis(this);
+    }
+    return reachingDefinitions;
+  }
+
+  /**
+   * Number of control flow graphs built so far.
+   */
+  public int buildCount() {
+    return buildCount;
+  }
+
+  /**
+   * Number of control flow graph requests answered from the cache.
+   */
+  public int hitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Number of control flow graphs on which data flow analyses were skipped or degraded because of their size.
+   */
+  public int tooLargeForDataFlowCount() {
+    return tooLargeForDataFlow.size();
+  }
+}
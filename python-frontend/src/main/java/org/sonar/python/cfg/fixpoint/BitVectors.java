@@ -0,0 +1,95 @@
+/*
+ * SonarQube Python Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.python.cfg.fixpoint;
+
+import java.util.Arrays;
+
+/**
+ * Operations on fixed-size bit vectors stored as {@code long[]}. All the vectors combined by an operation must have the same size.
+ */
+final class BitVectors {
+
+  private BitVectors() {
+  }
+
+  static long[] create(int size) {
+    return new long[(size + 63) >>> 6];
+  }
+
+  static void set(long[] bits, int index) {
+    bits[index >>> 6] |= 1L << index;
+  }
+
+  static boolean get(long[] bits, int index) {
+    return (bits[index >>> 6] & (1L << index)) != 0;
+  }
+
+  static int nextSetBit(long[] bits, int fromIndex) {
+    int wordIndex = fromIndex >>> 6;
+    if (wordIndex >= bits.length) {
+      return -1;
+    }
+    long word = bits[wordIndex] & (-1L << fromIndex);
+    while (true) {
+      if (word != 0) {
+        return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+      }
+      wordIndex++;
+      if (wordIndex == bits.length) {
+        return -1;
+      }
+      word = bits[wordIndex];
+    }
+  }
+
+  /**
+   * target = target | source
+   */
+  static void or(long[] target, long[] source) {
+    for (int i = 0; i < target.length; i++) {
+      target[i] |= source[i];
+    }
+  }
+
+  /**
+   * target = gen | (source & ~kill)
+   *
+   * @return true if target has changed
+   */
+  static boolean transfer(long[] target, long[] gen, long[] source, long[] kill) {
+    boolean changed = false;
+    for (int i = 0; i < target.length; i++) {
+      long value = gen[i] | (source[i] & ~kill[i]);
+      if (value != target[i]) {
+        target[i] = value;
+        changed = true;
+      }
+    }
+    return changed;
+  }
+
+  static void clear(long[] bits) {
+    Arrays.fill(bits, 0L);
+  }
+
+  static void copy(long[] source, long[] target) {
+    System.arraycopy(source, 0, target, 0, source.length);
+  }
+}
@@ -19,10 +19,7 @@
  */
 package org.sonar.python.cfg.fixpoint;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import org.sonar.plugins.python.api.cfg.CfgBlock;
@@ -46,17 +43,23 @@ public class DefinedVariablesAnalysis {
       boolean isParameter = variable.usages().stream().anyMatch(u -> u.kind() == Usage.Kind.PARAMETER);
       initialState.put(variable, isParameter ? VariableDefinition.DEFINED : VariableDefinition.UNDEFINED);
     }
-    Set<CfgBlock> blocks = cfg.blocks();
-    blocks.forEach(block -> definedVariablesPerBlock.put(block, DefinedVariables.build(block, initialState)));
-    Deque<CfgBlock> workList = new ArrayDeque<>(blocks);
-    while (!workList.isEmpty()) {
-      CfgBlock currentBlock = workList.pop();
-      DefinedVariables definedVariables = this.definedVariablesPerBlock.get(currentBlock);
-      boolean outHasChanged = definedVariables.propagate(this.definedVariablesPerBlock);
-      if (outHasChanged) {
-        currentBlock.successors().forEach(workList::push);
-      }
+    SymbolIndex symbolIndex = new SymbolIndex();
+    symbolIndex.addAll(initialState.keySet());
+    for (CfgBlock block : cfg.blocks()) {
+      DefinedVariables definedVariables = DefinedVariables.build(block, initialState);
+      definedVariablesPerBlock.put(block, definedVariables);
+      symbolIndex.addAll(definedVariables.kill);
     }
+    // a variable is defined at the exit of a block if it's defined at its entry or written in the block
+    GenKillAnalysis analysis = new GenKillAnalysis(cfg, GenKillAnalysis.Direction.FORWARD, symbolIndex.size());
+    initialState.forEach((symbol, definition) -> {
+      if (definition == VariableDefinition.DEFINED) {
+        BitVectors.set(analysis.initial(), symbolIndex.indexOf(symbol));
+      }
+    });
+    definedVariablesPerBlock.forEach((block, definedVariables) -> symbolIndex.setBits(analysis.gen(block), definedVariables.kill));
+    analysis.solve();
+    definedVariablesPerBlock.forEach((block, definedVariables) -> definedVariables.setSolution(symbolIndex, analysis.in(block), analysis.out(block)));
   }
 
   public DefinedVariables getDefinedVariables(CfgBlock block) {
@@ -65,14 +68,7 @@ public class DefinedVariablesAnalysis {
 
   public enum VariableDefinition {
     UNDEFINED,
-    DEFINED;
-
-    static VariableDefinition join(VariableDefinition v1, VariableDefinition v2) {
-      if (v1 == UNDEFINED && v2 == UNDEFINED) {
-        return UNDEFINED;
-      }
-      return DEFINED;
-    }
+    DEFINED
   }
 
   public static class DefinedVariables extends CfgBlockState {
@@ -81,6 +77,11 @@ public class DefinedVariablesAnalysis {
 
     private Map<Symbol, VariableDefinition> out = new HashMap<>();
 
+    private Set<Symbol> variables;
+    private SymbolIndex symbolIndex;
+    private long[] inBits;
+    private long[] outBits;
+
     private DefinedVariables(CfgBlock block) {
       super(block);
     }
@@ -96,37 +97,38 @@ public class DefinedVariablesAnalysis {
     }
 
     /**
-     * Propagates forward: first computes the in set from all predecessors, then the out set.
+     * Records the fixpoint computed for this block. 'in' and 'out' maps are only materialized when requested: they contain the
+     * local variables, plus all the variables which are defined.
      */
-    private boolean propagate(Map<CfgBlock, DefinedVariables> definedVariablesPerBlock) {
-      block.predecessors().stream()
-        .map(definedVariablesPerBlock::get)
-        .map(DefinedVariables::getOut)
-        .forEach(predecessorOuts -> in = join(in, predecessorOuts));
-      Map<Symbol, VariableDefinition> newOut = new HashMap<>(in);
-      kill.forEach(symbol -> newOut.put(symbol, VariableDefinition.DEFINED));
-      boolean outHasChanged = !newOut.equals(out);
-      out = newOut;
-      return outHasChanged;
+    private void setSolution(SymbolIndex symbolIndex, long[] inBits, long[] outBits) {
+      this.variables = in.keySet();
+      this.symbolIndex = symbolIndex;
+      this.inBits = inBits;
+      this.outBits = outBits;
+      this.in = null;
+      this.out = null;
     }
 
-    private static Map<Symbol, VariableDefinition> join(Map<Symbol, VariableDefinition> programState1, Map<Symbol, VariableDefinition> programState2) {
+    private Map<Symbol, VariableDefinition> toMap(long[] definedBits) {
       Map<Symbol, VariableDefinition> result = new HashMap<>();
-      Set<Symbol> allKeys = new HashSet<>(programState1.keySet());
-      allKeys.addAll(programState2.keySet());
-      for (Symbol key : allKeys) {
-        VariableDefinition varDef1 = programState1.getOrDefault(key, VariableDefinition.UNDEFINED);
-        VariableDefinition varDef2 = programState2.getOrDefault(key, VariableDefinition.UNDEFINED);
-        result.put(key, VariableDefinition.join(varDef1, varDef2));
+      variables.forEach(variable -> result.put(variable, VariableDefinition.UNDEFINED));
+      for (int i = BitVectors.nextSetBit(definedBits, 0); i >= 0; i = BitVectors.nextSetBit(definedBits, i + 1)) {
+        result.put(symbolIndex.symbol(i), VariableDefinition.DEFINED);
       }
       return result;
     }
 
     public Map<Symbol, VariableDefinition> getIn() {
+      if (in == null) {
+        in = toMap(inBits);
+      }
       return in;
     }
 
     public Map<Symbol, VariableDefinition> getOut() {
+      if (out == null) {
+        out = toMap(outBits);
+      }
       return out;
     }
   }
@@ -61,6 +61,7 @@ public abstract class ForwardAnalysis {
     private final CfgBlock block;
     protected ProgramState in;
     protected ProgramState out = initialState();
+    private boolean propagated = false;
 
     private ProgramStateAtBlock(CfgBlock block, ProgramState initialState) {
       this.block = block;
@@ -72,7 +73,13 @@ public abstract class ForwardAnalysis {
      * Propagates forward: first computes the in set from all predecessors, then the out set.
      */
     private boolean propagate() {
+      ProgramState previousIn = in;
       block.predecessors().forEach(predecessor -> in = in.join(programStateByBlock.get(predecessor).out));
+      if (propagated && in == previousIn) {
+        // the join didn't bring anything new: out is unchanged
+        return false;
+      }
+      propagated = true;
       ProgramState newOut = in.copy();
       block.elements().forEach(element -> updateProgramState(element, newOut));
       boolean outHasChanged = !newOut.equals(out);
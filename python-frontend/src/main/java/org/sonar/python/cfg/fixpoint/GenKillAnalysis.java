@@ -0,0 +1,109 @@
+/*
+ * SonarQube Python Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.python.cfg.fixpoint;
+
+import org.sonar.plugins.python.api.cfg.CfgBlock;
+import org.sonar.plugins.python.api.cfg.ControlFlowGraph;
+
+/**
+ * Solver for "may" data flow problems whose facts are sets of symbols, each block being summarized by the symbols it generates
+ * and kills. Sets are bit vectors over the indices of a {@link SymbolIndex}.
+ * <ul>
+ *   <li>forward: in = initial + union of predecessors' out, out = gen + (in - kill)</li>
+ *   <li>backward: out = union of successors' in, in = gen + (out - kill)</li>
+ * </ul>
+ */
+final class GenKillAnalysis {
+
+  enum Direction {
+    FORWARD,
+    BACKWARD
+  }
+
+  private final Direction direction;
+  private final Worklist worklist;
+  private final long[] initial;
+  private final long[][] gen;
+  private final long[][] kill;
+  private final long[][] in;
+  private final long[][] out;
+
+  GenKillAnalysis(ControlFlowGraph cfg, Direction direction, int size) {
+    this.direction = direction;
+    this.worklist = direction == Direction.FORWARD ? Worklist.forward(cfg) : Worklist.backward(cfg);
+    int blockCount = worklist.blocks().size();
+    this.initial = BitVectors.create(size);
+    this.gen = new long[blockCount][];
+    this.kill = new long[blockCount][];
+    this.in = new long[blockCount][];
+    this.out = new long[blockCount][];
+    for (int i = 0; i < blockCount; i++) {
+      gen[i] = BitVectors.create(size);
+      kill[i] = BitVectors.create(size);
+      in[i] = BitVectors.create(size);
+      out[i] = BitVectors.create(size);
+    }
+  }
+
+  /**
+   * Facts holding at the entry of every block of a forward analysis.
+   */
+  long[] initial() {
+    return initial;
+  }
+
+  long[] gen(CfgBlock block) {
+    return gen[worklist.position(block)];
+  }
+
+  long[] kill(CfgBlock block) {
+    return kill[worklist.position(block)];
+  }
+
+  long[] in(CfgBlock block) {
+    return in[worklist.position(block)];
+  }
+
+  long[] out(CfgBlock block) {
+    return out[worklist.position(block)];
+  }
+
+  void solve() {
+    while (!worklist.isEmpty()) {
+      CfgBlock block = worklist.pop();
+      int position = worklist.position(block);
+      if (direction == Direction.FORWARD) {
+        long[] blockIn = in[position];
+        BitVectors.copy(initial, blockIn);
+        block.predecessors().forEach(predecessor -> BitVectors.or(blockIn, out[worklist.position(predecessor)]));
+        if (BitVectors.transfer(out[position], gen[position], blockIn, kill[position])) {
+          block.successors().forEach(worklist::push);
+        }
+      } else {
+        long[] blockOut = out[position];
+        BitVectors.clear(blockOut);
+        block.successors().forEach(successor -> BitVectors.or(blockOut, in[worklist.position(successor)]));
+        if (BitVectors.transfer(in[position], gen[position], blockOut, kill[position])) {
+          block.predecessors().forEach(worklist::push);
+        }
+      }
+    }
+  }
+}
@@ -19,8 +19,6 @@
  */
 package org.sonar.python.cfg.fixpoint;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -45,16 +43,20 @@ public class LiveVariablesAnalysis {
    * An alternative terminology for "kill/gen" is "def/use"
    */
   private void compute(ControlFlowGraph cfg) {
-    cfg.blocks().forEach(block -> liveVariablesPerBlock.put(block, LiveVariables.build(block)));
-    Deque<CfgBlock> workList = new ArrayDeque<>(cfg.blocks());
-    while (!workList.isEmpty()) {
-      CfgBlock currentBlock = workList.pop();
-      LiveVariables liveVariables = liveVariablesPerBlock.get(currentBlock);
-      boolean liveInHasChanged = liveVariables.propagate(liveVariablesPerBlock);
-      if (liveInHasChanged) {
-        currentBlock.predecessors().forEach(workList::push);
-      }
+    SymbolIndex symbolIndex = new SymbolIndex();
+    for (CfgBlock block : cfg.blocks()) {
+      LiveVariables liveVariables = LiveVariables.build(block);
+      liveVariablesPerBlock.put(block, liveVariables);
+      symbolIndex.addAll(liveVariables.gen);
+      symbolIndex.addAll(liveVariables.kill);
     }
+    GenKillAnalysis analysis = new GenKillAnalysis(cfg, GenKillAnalysis.Direction.BACKWARD, symbolIndex.size());
+    liveVariablesPerBlock.forEach((block, liveVariables) -> {
+      symbolIndex.setBits(analysis.gen(block), liveVariables.gen);
+      symbolIndex.setBits(analysis.kill(block), liveVariables.kill);
+    });
+    analysis.solve();
+    liveVariablesPerBlock.forEach((block, liveVariables) -> liveVariables.setSolution(symbolIndex, analysis.in(block), analysis.out(block)));
   }
 
   public LiveVariables getLiveVariables(CfgBlock block) {
@@ -89,6 +91,10 @@ public class LiveVariablesAnalysis {
      */
     private Set<Symbol> out = new HashSet<>();
 
+    private SymbolIndex symbolIndex;
+    private long[] inBits;
+    private long[] outBits;
+
     private LiveVariables(CfgBlock block) {
       super(block);
     }
@@ -103,34 +109,27 @@ public class LiveVariablesAnalysis {
     }
 
     /**
-     * Propagates backwards: first computes the 'out' set, then the 'in' set.
+     * Records the fixpoint computed for this block. 'in' and 'out' sets are only materialized when requested.
      */
-    private boolean propagate(Map<CfgBlock, LiveVariables> liveVariablesPerBlock) {
-      out.clear();
-      block.successors().stream()
-        .map(liveVariablesPerBlock::get)
-        .map(LiveVariables::getIn)
-        .forEach(out::addAll);
-      // in = gen + (out - kill)
-      Set<Symbol> newIn = new HashSet<>(gen);
-      newIn.addAll(difference(out, kill));
-      boolean inHasChanged = !newIn.equals(in);
-      in = newIn;
-      return inHasChanged;
-    }
-
-    private static Set<Symbol> difference(Set<Symbol> out, Set<Symbol> kill) {
-      Set<Symbol> result = new HashSet<>(out);
-      result.removeIf(kill::contains);
-      return result;
+    private void setSolution(SymbolIndex symbolIndex, long[] inBits, long[] outBits) {
+      this.symbolIndex = symbolIndex;
+      this.inBits = inBits;
+      this.outBits = outBits;
+      this.in = null;
+      this.out = null;
     }
 
-
     public Set<Symbol> getIn() {
+      if (in == null) {
+        in = symbolIndex.toSymbols(inBits);
+      }
       return in;
     }
 
     public Set<Symbol> getOut() {
+      if (out == null) {
+        out = symbolIndex.toSymbols(outBits);
+      }
       return out;
     }
   }
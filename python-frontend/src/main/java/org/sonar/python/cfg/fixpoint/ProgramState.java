@@ -20,6 +20,11 @@
 package org.sonar.python.cfg.fixpoint;
 
 public interface ProgramState {
+
+  /**
+   * Implementations may return this state itself when the other state doesn't bring anything new: {@link ForwardAnalysis} then
+   * knows that the output of the block is unchanged.
+   */
   ProgramState join(ProgramState programState);
 
   ProgramState copy();
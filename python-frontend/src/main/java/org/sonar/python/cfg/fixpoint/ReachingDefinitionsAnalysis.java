@@ -23,10 +23,8 @@ import static org.sonar.plugins.python.api.tree.Tree.Kind.ASSIGNMENT_STMT;
 import static org.sonar.plugins.python.api.tree.Tree.Kind.FUNCDEF;
 import static org.sonar.plugins.python.api.tree.Tree.Kind.TRY_STMT;
 
-import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -44,11 +42,11 @@ import org.sonar.plugins.python.api.symbols.Symbol;
 import org.sonar.plugins.python.api.symbols.Usage;
 import org.sonar.plugins.python.api.tree.AnnotatedAssignment;
 import org.sonar.plugins.python.api.tree.AssignmentStatement;
-import org.sonar.plugins.python.api.tree.BaseTreeVisitor;
 import org.sonar.plugins.python.api.tree.Expression;
 import org.sonar.plugins.python.api.tree.FunctionDef;
 import org.sonar.plugins.python.api.tree.Name;
 import org.sonar.plugins.python.api.tree.Tree;
+import org.sonar.python.cfg.ControlFlowCache;
 import org.sonar.python.tree.TreeUtils;
 
 /**
@@ -57,15 +55,26 @@ import org.sonar.python.tree.TreeUtils;
  * Program state is represented by a map where:
  *  - key is symbol
  *  - value is set of possible expressions that symbol may have been assigned to
+ * <p>
+ * The fixpoint of a function is computed at most once, on the first query about one of its names. Only the state at the entry
+ * of each block is kept: the state at a given element is rebuilt on demand from the entry of its block.
  */
 public class ReachingDefinitionsAnalysis {
   private final Map<CfgBlock, ProgramStateAtBlock> programStateByBlock = new HashMap<>();
+  private final Map<FunctionDef, Map<Tree, CfgBlock>> blockByElementByFunction = new HashMap<>();
   private final Map<Name, Set<Expression>> assignedExpressionByName = new HashMap<>();
-  private final PythonFile pythonFile;
+  private final ControlFlowCache controlFlowCache;
   private final Map<Symbol, Set<Name>> assignedNamesBySymbol = new HashMap<>();
 
   public ReachingDefinitionsAnalysis(PythonFile pythonFile) {
-    this.pythonFile = pythonFile;
+    this(new ControlFlowCache(pythonFile));
+  }
+
+  /**
+   * @param controlFlowCache cache from which control flow graphs of the analyzed functions are retrieved
+   */
+  public ReachingDefinitionsAnalysis(ControlFlowCache controlFlowCache) {
+    this.controlFlowCache = controlFlowCache;
   }
 
   public Set<Expression> valuesAtLocation(Name variable) {
@@ -75,22 +84,60 @@ public class ReachingDefinitionsAnalysis {
     }
     Set<Expression> assignedExpressions = assignedExpressionByName.get(variable);
     if (assignedExpressions != null) {
-      // avoid recomputing cfg and analysis
       return assignedExpressions;
     }
     FunctionDef enclosingFunction = (FunctionDef) TreeUtils.firstAncestorOfKind(variable, FUNCDEF);
-    if (enclosingFunction == null || TreeUtils.hasDescendant(enclosingFunction, t -> t.is(TRY_STMT))) {
+    if (enclosingFunction == null) {
       return Collections.emptySet();
     }
-    ControlFlowGraph cfg = ControlFlowGraph.build(enclosingFunction, pythonFile);
+    Map<Tree, CfgBlock> blockByElement = blockByElementByFunction.computeIfAbsent(enclosingFunction, this::compute);
+    assignedExpressions = valuesAtElement(variable, enclosingFunction, blockByElement);
+    assignedExpressionByName.put(variable, assignedExpressions);
+    return assignedExpressions;
+  }
+
+  /**
+   * Computes the fixpoint of the given function and returns the block of each element of its CFG,
+   * or an empty map if the function cannot be analyzed.
+   */
+  private Map<Tree, CfgBlock> compute(FunctionDef functionDef) {
+    if (TreeUtils.hasDescendant(functionDef, t -> t.is(TRY_STMT))) {
+      return Collections.emptyMap();
+    }
+    ControlFlowGraph cfg = controlFlowCache.cfgForDataFlow(functionDef);
     if (cfg == null) {
+      return Collections.emptyMap();
+    }
+    compute(cfg, functionDef.localVariables());
+    Map<Tree, CfgBlock> blockByElement = new HashMap<>();
+    for (CfgBlock block : cfg.blocks()) {
+      block.elements().forEach(element -> blockByElement.put(element, block));
+      // only the state at the entry of the block is needed to answer queries
+      programStateByBlock.get(block).out = null;
+    }
+    return blockByElement;
+  }
+
+  private Set<Expression> valuesAtElement(Name variable, FunctionDef enclosingFunction, Map<Tree, CfgBlock> blockByElement) {
+    Tree element = variable;
+    while (element != null && element != enclosingFunction && !blockByElement.containsKey(element)) {
+      element = element.parent();
+    }
+    CfgBlock block = blockByElement.get(element);
+    if (block == null) {
       return Collections.emptySet();
     }
-    compute(cfg, enclosingFunction.localVariables());
-    return assignedExpressionByName.getOrDefault(variable, Collections.emptySet());
+    Map<Symbol, Set<Expression>> programState = new HashMap<>(programStateByBlock.get(block).in);
+    for (Tree blockElement : block.elements()) {
+      updateProgramState(blockElement, programState);
+      if (blockElement == element) {
+        break;
+      }
+    }
+    return getAssignedExpressions(variable, programState);
   }
 
-  private Set<Expression> getAssignedExpressions(Name variable, ProgramStateAtElement programStateAtElement) {
+  private Set<Expression> getAssignedExpressions(Name variable, Map<Symbol, Set<Expression>> programState) {
     Symbol symbol = variable.symbol();
     if (symbol == null) {
       return Collections.emptySet();
@@ -101,7 +148,7 @@ public class ReachingDefinitionsAnalysis {
     if (hasMissingBindingUsage) {
       return Collections.emptySet();
     }
-    return Optional.ofNullable(programStateAtElement.out.get(symbol))
+    return Optional.ofNullable(programState.get(symbol))
         .orElse(Collections.emptySet());
   }
 
@@ -112,7 +159,7 @@ public class ReachingDefinitionsAnalysis {
     }
     Set<CfgBlock> blocks = cfg.blocks();
     blocks.forEach(block -> programStateByBlock.put(block, new ProgramStateAtBlock(block, initialState)));
-    Deque<CfgBlock> workList = new ArrayDeque<>(blocks);
+    Worklist workList = Worklist.forward(cfg);
     while (!workList.isEmpty()) {
       CfgBlock currentBlock = workList.pop();
       ProgramStateAtBlock programStateAtBlock = programStateByBlock.get(currentBlock);
@@ -121,28 +168,6 @@ public class ReachingDefinitionsAnalysis {
         currentBlock.successors().forEach(workList::push);
       }
     }
-    updateProgramStateByElement(cfg);
-  }
-
-  private void updateProgramStateByElement(ControlFlowGraph cfg) {
-    for (CfgBlock block : cfg.blocks()) {
-      Map<Symbol, Set<Expression>> inputState = programStateByBlock.get(block).in;
-      for (Tree element : block.elements()) {
-        ProgramStateAtElement programStateAtElement = new ProgramStateAtElement(inputState, element);
-        element.accept(new BaseTreeVisitor() {
-          @Override
-          public void visitFunctionDef(FunctionDef pyFunctionDefTree) {
-            // skip inner functions
-          }
-
-          @Override
-          public void visitName(Name name) {
-            assignedExpressionByName.put(name, getAssignedExpressions(name, programStateAtElement));
-          }
-        });
-        inputState = programStateAtElement.out;
-      }
-    }
   }
 
   private class ProgramStateAtBlock {
@@ -170,15 +195,6 @@ public class ReachingDefinitionsAnalysis {
     }
   }
 
-  private class ProgramStateAtElement {
-    private final Map<Symbol, Set<Expression>> out;
-
-    public ProgramStateAtElement(Map<Symbol, Set<Expression>> in, Tree element) {
-      out = join(in, Collections.emptyMap());
-      updateProgramState(element, out);
-    }
-  }
-
   private static Map<Symbol, Set<Expression>> join(Map<Symbol, Set<Expression>> programState1,
       Map<Symbol, Set<Expression>> programState2) {
     Map<Symbol, Set<Expression>> result = new HashMap<>();
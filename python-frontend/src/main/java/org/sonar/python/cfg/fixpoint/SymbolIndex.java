@@ -0,0 +1,73 @@
+/*
+ * SonarQube Python Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.python.cfg.fixpoint;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.sonar.plugins.python.api.symbols.Symbol;
+
+/**
+ * Dense numbering of the symbols involved in a data flow analysis, used to represent sets of symbols as bit vectors.
+ */
+final class SymbolIndex {
+
+  private final Map<Symbol, Integer> indexBySymbol = new HashMap<>();
+  private final List<Symbol> symbols = new ArrayList<>();
+
+  int indexOf(Symbol symbol) {
+    return indexBySymbol.computeIfAbsent(symbol, s -> {
+      symbols.add(s);
+      return symbols.size() - 1;
+    });
+  }
+
+  void addAll(Set<Symbol> symbols) {
+    symbols.forEach(this::indexOf);
+  }
+
+  int size() {
+    return symbols.size();
+  }
+
+  Symbol symbol(int index) {
+    return symbols.get(index);
+  }
+
+  /**
+   * Sets the bits of the given symbols, which must have been indexed before.
+   */
+  void setBits(long[] bits, Set<Symbol> symbolSet) {
+    for (Symbol symbol : symbolSet) {
+      BitVectors.set(bits, indexBySymbol.get(symbol));
+    }
+  }
+
+  Set<Symbol> toSymbols(long[] bits) {
+    Set<Symbol> result = new HashSet<>();
+    for (int i = BitVectors.nextSetBit(bits, 0); i >= 0; i = BitVectors.nextSetBit(bits, i + 1)) {
+      result.add(symbols.get(i));
+    }
+    return result;
+  }
+}
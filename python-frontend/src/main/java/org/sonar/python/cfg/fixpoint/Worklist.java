@@ -0,0 +1,142 @@
+/*
+ * SonarQube Python Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.python.cfg.fixpoint;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.sonar.plugins.python.api.cfg.CfgBlock;
+import org.sonar.plugins.python.api.cfg.ControlFlowGraph;
+
+/**
+ * Worklist of CFG blocks for fixpoint computations.
+ * <p>
+ * Blocks are numbered in reverse postorder for forward analyses, and in postorder for backward analyses, so that a block is
+ * usually processed after the blocks it depends on. Pending blocks are kept in a bit set: a block is never queued twice, and
+ * blocks are popped in increasing order, wrapping around until no block is pending.
+ */
+final class Worklist {
+
+  private final List<CfgBlock> blocks;
+  private final Map<CfgBlock, Integer> positions;
+  private final BitSet pending;
+  private int cursor = 0;
+
+  private Worklist(List<CfgBlock> blocks) {
+    this.blocks = blocks;
+    this.positions = new HashMap<>(blocks.size() * 2);
+    for (int i = 0; i < blocks.size(); i++) {
+      positions.put(blocks.get(i), i);
+    }
+    this.pending = new BitSet(blocks.size());
+    pending.set(0, blocks.size());
+  }
+
+  /**
+   * Worklist in reverse postorder, initially containing all the blocks of the CFG.
+   */
+  static Worklist forward(ControlFlowGraph cfg) {
+    List<CfgBlock> order = postorder(cfg);
+    Collections.reverse(order);
+    return new Worklist(order);
+  }
+
+  /**
+   * Worklist in postorder, initially containing all the blocks of the CFG.
+   */
+  static Worklist backward(ControlFlowGraph cfg) {
+    return new Worklist(postorder(cfg));
+  }
+
+  /**
+   * Blocks in postorder of a depth-first traversal starting at the start block. Blocks which are not reachable from the start block
+   * are traversed afterwards, so that every block of the CFG is present exactly once.
+   */
+  private static List<CfgBlock> postorder(ControlFlowGraph cfg) {
+    List<CfgBlock> order = new ArrayList<>(cfg.blocks().size());
+    Set<CfgBlock> visited = new HashSet<>();
+    postorder(cfg.start(), visited, order);
+    for (CfgBlock block : cfg.blocks()) {
+      postorder(block, visited, order);
+    }
+    return order;
+  }
+
+  private static void postorder(CfgBlock root, Set<CfgBlock> visited, List<CfgBlock> order) {
+    if (!visited.add(root)) {
+      return;
+    }
+    // iterative depth-first traversal: deep CFGs must not overflow the stack
+    Deque<Iterator<CfgBlock>> successors = new ArrayDeque<>();
+    Deque<CfgBlock> path = new ArrayDeque<>();
+    path.push(root);
+    successors.push(root.successors().iterator());
+    while (!path.isEmpty()) {
+      Iterator<CfgBlock> iterator = successors.peek();
+      if (iterator.hasNext()) {
+        CfgBlock successor = iterator.next();
+        if (visited.add(successor)) {
+          path.push(successor);
+          successors.push(successor.successors().iterator());
+        }
+      } else {
+        successors.pop();
+        order.add(path.pop());
+      }
+    }
+  }
+
+  List<CfgBlock> blocks() {
+    return blocks;
+  }
+
+  int position(CfgBlock block) {
+    return positions.get(block);
+  }
+
+  boolean isEmpty() {
+    return pending.isEmpty();
+  }
+
+  CfgBlock pop() {
+    int next = pending.nextSetBit(cursor);
+    if (next < 0) {
+      next = pending.nextSetBit(0);
+    }
+    pending.clear(next);
+    cursor = next + 1;
+    return blocks.get(next);
+  }
+
+  void push(CfgBlock block) {
+    Integer position = positions.get(block);
+    if (position != null) {
+      pending.set(position);
+    }
+  }
+}
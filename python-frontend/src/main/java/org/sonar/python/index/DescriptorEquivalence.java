@@ -0,0 +1,181 @@
+/*
+ * SonarQube Python Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.python.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import javax.annotation.Nullable;
+import org.sonar.plugins.python.api.LocationInFile;
+
+/**
+ * Structural comparison of descriptors.
+ * Descriptors do not implement equals/hashCode: this is used to detect whether the public surface of a module
+ * changed between two analyses, independently of the iteration order of the underlying collections.
+ * Equivalent descriptors have the same {@link #hash}.
+ */
+public class DescriptorEquivalence {
+
+  private DescriptorEquivalence() {}
+
+  public static boolean areEquivalent(@Nullable Collection<Descriptor> first, @Nullable Collection<Descriptor> second) {
+    if (first == null || second == null) {
+      return first == second;
+    }
+    if (first.size() != second.size()) {
+      return false;
+    }
+    List<Descriptor> remaining = new ArrayList<>(second);
+    for (Descriptor descriptor : first) {
+      if (!removeEquivalent(remaining, descriptor)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean removeEquivalent(List<Descriptor> candidates, Descriptor descriptor) {
+    for (int i = 0; i < candidates.size(); i++) {
+      if (areEquivalent(descriptor, candidates.get(i))) {
+        candidates.remove(i);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public static boolean areEquivalent(Descriptor first, Descriptor second) {
+    if (first.kind() != second.kind()
+      || !first.name().equals(second.name())
+      || !Objects.equals(first.fullyQualifiedName(), second.fullyQualifiedName())) {
+      return false;
+    }
+    switch (first.kind()) {
+      case FUNCTION:
+        return areEquivalent((FunctionDescriptor) first, (FunctionDescriptor) second);
+      case CLASS:
+        return areEquivalent((ClassDescriptor) first, (ClassDescriptor) second);
+      case VARIABLE:
+        return Objects.equals(((VariableDescriptor) first).annotatedType(), ((VariableDescriptor) second).annotatedType());
+      default:
+        return areEquivalent(((AmbiguousDescriptor) first).alternatives(), ((AmbiguousDescriptor) second).alternatives());
+    }
+  }
+
+  private static boolean areEquivalent(FunctionDescriptor first, FunctionDescriptor second) {
+    if (first.isAsynchronous() != second.isAsynchronous()
+      || first.isInstanceMethod() != second.isInstanceMethod()
+      || first.hasDecorators() != second.hasDecorators()
+      || !first.decorators().equals(second.decorators())
+      || !Objects.equals(first.annotatedReturnTypeName(), second.annotatedReturnTypeName())
+      || !areEquivalent(first.definitionLocation(), second.definitionLocation())
+      || first.parameters().size() != second.parameters().size()) {
+      return false;
+    }
+    for (int i = 0; i < first.parameters().size(); i++) {
+      if (!areEquivalent(first.parameters().get(i), second.parameters().get(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean areEquivalent(FunctionDescriptor.Parameter first, FunctionDescriptor.Parameter second) {
+    return Objects.equals(first.name(), second.name())
+      && Objects.equals(first.annotatedType(), second.annotatedType())
+      && first.hasDefaultValue() == second.hasDefaultValue()
+      && first.isKeywordOnly() == second.isKeywordOnly()
+      && first.isPositionalOnly() == second.isPositionalOnly()
+      && first.isKeywordVariadic() == second.isKeywordVariadic()
+      && first.isPositionalVariadic() == second.isPositionalVariadic()
+      && areEquivalent(first.location(), second.location());
+  }
+
+  private static boolean areEquivalent(ClassDescriptor first, ClassDescriptor second) {
+    return first.hasDecorators() == second.hasDecorators()
+      && first.hasSuperClassWithoutDescriptor() == second.hasSuperClassWithoutDescriptor()
+      && first.hasMetaClass() == second.hasMetaClass()
+      && first.supportsGenerics() == second.supportsGenerics()
+      && Objects.equals(first.metaclassFQN(), second.metaclassFQN())
+      && new ArrayList<>(first.superClasses()).equals(new ArrayList<>(second.superClasses()))
+      && areEquivalent(first.definitionLocation(), second.definitionLocation())
+      && areEquivalent(first.members(), second.members());
+  }
+
+  private static boolean areEquivalent(@Nullable LocationInFile first, @Nullable LocationInFile second) {
+    if (first == null || second == null) {
+      return first == second;
+    }
+    return first.fileId().equals(second.fileId())
+      && first.startLine() == second.startLine()
+      && first.startLineOffset() == second.startLineOffset()
+      && first.endLine() == second.endLine()
+      && first.endLineOffset() == second.endLineOffset();
+  }
+
+  public static int hash(@Nullable Collection<Descriptor> descriptors) {
+    if (descriptors == null) {
+      return 0;
+    }
+    // Sum of the element hashes, so that it does not depend on iteration order
+    int result = 1;
+    for (Descriptor descriptor : descriptors) {
+      result += hash(descriptor);
+    }
+    return result;
+  }
+
+  public static int hash(Descriptor descriptor) {
+    int result = Objects.hash(descriptor.kind(), descriptor.name(), descriptor.fullyQualifiedName());
+    switch (descriptor.kind()) {
+      case FUNCTION:
+        return 31 * result + hash((FunctionDescriptor) descriptor);
+      case CLASS:
+        return 31 * result + hash((ClassDescriptor) descriptor);
+      case VARIABLE:
+        return 31 * result + Objects.hashCode(((VariableDescriptor) descriptor).annotatedType());
+      default:
+        return 31 * result + hash(((AmbiguousDescriptor) descriptor).alternatives());
+    }
+  }
+
+  private static int hash(FunctionDescriptor descriptor) {
+    int result = Objects.hash(descriptor.isAsynchronous(), descriptor.isInstanceMethod(), descriptor.hasDecorators(), descriptor.decorators(),
+      descriptor.annotatedReturnTypeName(), hash(descriptor.definitionLocation()));
+    for (FunctionDescriptor.Parameter parameter : descriptor.parameters()) {
+      result = 31 * result + Objects.hash(parameter.name(), parameter.annotatedType(), parameter.hasDefaultValue(), parameter.isKeywordOnly(),
+        parameter.isPositionalOnly(), parameter.isKeywordVariadic(), parameter.isPositionalVariadic(), hash(parameter.location()));
+    }
+    return result;
+  }
+
+  private static int hash(ClassDescriptor descriptor) {
+    return Objects.hash(descriptor.hasDecorators(), descriptor.hasSuperClassWithoutDescriptor(), descriptor.hasMetaClass(), descriptor.supportsGenerics(),
+      descriptor.metaclassFQN(), new ArrayList<>(descriptor.superClasses()), hash(descriptor.definitionLocation()), hash(descriptor.members()));
+  }
+
+  private static int hash(@Nullable LocationInFile location) {
+    if (location == null) {
+      return 0;
+    }
+    return Objects.hash(location.fileId(), location.startLine(), location.startLineOffset(), location.endLine(), location.endLineOffset());
+  }
+}
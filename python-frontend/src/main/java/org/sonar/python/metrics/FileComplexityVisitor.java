@@ -0,0 +1,89 @@
+/*
+ * SonarQube Python Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.python.metrics;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.sonar.plugins.python.api.PythonSubscriptionCheck;
+import org.sonar.plugins.python.api.SubscriptionContext;
+import org.sonar.plugins.python.api.tree.IfStatement;
+import org.sonar.plugins.python.api.tree.Tree;
+import org.sonar.python.tree.TreeUtils;
+
+/**
+ * Computes the same complexities as {@link ComplexityVisitor}, for the whole file and for each function,
+ * as part of a subscription traversal (e.g. the one executing the checks) instead of dedicated tree visits.
+ * Each increment is attributed to the closest enclosing function: like {@link ComplexityVisitor#complexity(Tree)},
+ * the complexity of a function does not include the one of its nested functions.
+ */
+public class FileComplexityVisitor extends PythonSubscriptionCheck {
+
+  private int complexity = 0;
+  private final Map<Tree, int[]> complexityByFunction = new IdentityHashMap<>();
+  private final List<int[]> functionComplexities = new ArrayList<>();
+
+  @Override
+  public void initialize(Context context) {
+    context.registerSyntaxNodeConsumer(Tree.Kind.FUNCDEF, this::visitFunctionDef);
+    context.registerSyntaxNodeConsumer(Tree.Kind.FOR_STMT, this::increment);
+    context.registerSyntaxNodeConsumer(Tree.Kind.WHILE_STMT, this::increment);
+    context.registerSyntaxNodeConsumer(Tree.Kind.CONDITIONAL_EXPR, this::increment);
+    context.registerSyntaxNodeConsumer(Tree.Kind.AND, this::increment);
+    context.registerSyntaxNodeConsumer(Tree.Kind.OR, this::increment);
+    context.registerSyntaxNodeConsumer(Tree.Kind.COMP_IF, this::increment);
+    context.registerSyntaxNodeConsumer(Tree.Kind.IF_STMT, ctx -> {
+      if (!((IfStatement) ctx.syntaxNode()).isElif()) {
+        increment(ctx);
+      }
+    });
+  }
+
+  private void visitFunctionDef(SubscriptionContext ctx) {
+    // Functions are visited before their body: their complexity is known once the traversal is over
+    int[] functionComplexity = {0};
+    complexityByFunction.put(ctx.syntaxNode(), functionComplexity);
+    functionComplexities.add(functionComplexity);
+    complexity++;
+    functionComplexity[0]++;
+  }
+
+  private void increment(SubscriptionContext ctx) {
+    complexity++;
+    Tree function = TreeUtils.firstAncestorOfKind(ctx.syntaxNode(), Tree.Kind.FUNCDEF);
+    if (function != null) {
+      complexityByFunction.get(function)[0]++;
+    }
+  }
+
+  public int getComplexity() {
+    return complexity;
+  }
+
+  /**
+   * Complexities of the functions of the file, in the order of their definitions.
+   */
+  public List<Integer> functionComplexities() {
+    List<Integer> result = new ArrayList<>(functionComplexities.size());
+    functionComplexities.forEach(c -> result.add(c[0]));
+    return result;
+  }
+}
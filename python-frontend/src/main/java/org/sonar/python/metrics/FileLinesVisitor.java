@@ -21,6 +21,7 @@ package org.sonar.python.metrics;
 
 import com.sonar.sslr.api.GenericTokenType;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -41,6 +42,7 @@ import org.sonar.plugins.python.api.tree.Trivia;
 import org.sonar.python.SubscriptionVisitor;
 import org.sonar.python.TokenLocation;
 import org.sonar.python.api.PythonTokenType;
+import org.sonar.python.tree.FileTokens;
 
 /**
  * Visitor that computes {@link CoreMetrics#NCLOC_DATA_KEY} and {@link CoreMetrics#COMMENT_LINES} metrics used by the DevCockpit.
@@ -56,11 +58,11 @@ public class FileLinesVisitor extends PythonSubscriptionCheck {
     Tree.Kind.PASS_STMT, Tree.Kind.FOR_STMT, Tree.Kind.WHILE_STMT, Tree.Kind.IF_STMT, Tree.Kind.RAISE_STMT, Tree.Kind.TRY_STMT, Tree.Kind.EXCEPT_CLAUSE,
     Tree.Kind.EXEC_STMT, Tree.Kind.ASSERT_STMT, Tree.Kind.DEL_STMT, Tree.Kind.GLOBAL_STMT, Tree.Kind.CLASSDEF, Tree.Kind.FUNCDEF, Tree.Kind.FILE_INPUT);
 
-  private final Set<Integer> noSonar = new HashSet<>();
-  private final Set<Integer> linesOfCode = new HashSet<>();
-  private final Set<Integer> linesOfComments = new HashSet<>();
-  private final Set<Integer> linesOfDocstring = new HashSet<>();
-  private final Set<Integer> executableLines = new HashSet<>();
+  private BitSet noSonar = new BitSet();
+  private BitSet linesOfCode = new BitSet();
+  private BitSet linesOfComments = new BitSet();
+  private BitSet linesOfDocstring = new BitSet();
+  private BitSet executableLines = new BitSet();
   private int statements = 0;
   private int classDefs = 0;
 
@@ -71,17 +73,29 @@ public class FileLinesVisitor extends PythonSubscriptionCheck {
 
   @Override
   public void initialize(Context context) {
-    context.registerSyntaxNodeConsumer(Tree.Kind.FILE_INPUT, ctx -> visitFile());
+    context.registerSyntaxNodeConsumer(Tree.Kind.FILE_INPUT, ctx -> visitFile((FileInput) ctx.syntaxNode()));
     EXECUTABLE_LINES.forEach(kind -> context.registerSyntaxNodeConsumer(kind, this::visitNode));
-    context.registerSyntaxNodeConsumer(Tree.Kind.TOKEN, ctx -> visitToken((Token) ctx.syntaxNode()));
   }
 
-  private void visitFile() {
-    noSonar.clear();
-    linesOfCode.clear();
-    linesOfComments.clear();
-    linesOfDocstring.clear();
-    executableLines.clear();
+  private void visitFile(FileInput fileInput) {
+    FileTokens tokens = FileTokens.of(fileInput);
+    // Lines are 1-based and the last token is the end of file
+    int lineCount = tokens.size() == 0 ? 0 : tokens.endLine(tokens.size() - 1);
+    noSonar = new BitSet(lineCount + 1);
+    linesOfCode = new BitSet(lineCount + 1);
+    linesOfComments = new BitSet(lineCount + 1);
+    linesOfDocstring = new BitSet(lineCount + 1);
+    executableLines = new BitSet(lineCount + 1);
+    for (int i = 0; i < tokens.size(); i++) {
+      visitToken(tokens, i);
+    }
+    for (Token token : tokens.tokensWithComments()) {
+      if (!token.type().equals(GenericTokenType.EOF)) {
+        for (Trivia trivia : token.trivia()) {
+          visitComment(trivia, token);
+        }
+      }
+    }
   }
 
   private void visitNode(SubscriptionContext ctx) {
@@ -90,7 +104,7 @@ public class FileLinesVisitor extends PythonSubscriptionCheck {
       handleDocString(((FileInput) tree).docstring());
     } else {
       statements++;
-      executableLines.add(tree.firstToken().line());
+      executableLines.set(tree.firstToken().line());
     }
     if (tree.is(Tree.Kind.CLASSDEF)) {
       classDefs++;
@@ -102,7 +116,12 @@ public class FileLinesVisitor extends PythonSubscriptionCheck {
   }
 
   protected void handleDocString(@Nullable StringLiteral docstring) {
-    linesOfDocstring.addAll(countDocstringLines(docstring));
+    if (docstring != null) {
+      for (Tree stringElement : docstring.children()) {
+        TokenLocation location = new TokenLocation(stringElement.firstToken());
+        linesOfDocstring.set(location.startLine(), location.endLine() + 1);
+      }
+    }
   }
 
   public static Set<Integer> countDocstringLines(@Nullable StringLiteral docstring) {
@@ -119,19 +138,29 @@ public class FileLinesVisitor extends PythonSubscriptionCheck {
   }
 
   /**
-   * Gets the lines of codes and lines of comments (with character #).
+   * Gets the lines of codes. Lines of comments (with character #) are handled from the comment index.
    * Does not get the lines of docstrings.
    */
-  private void visitToken(Token token) {
+  private void visitToken(FileTokens tokens, int index) {
+    Token token = tokens.token(index);
     if (token.type().equals(GenericTokenType.EOF)) {
       return;
     }
 
-    linesOfCode.addAll(tokenLineNumbers(token));
+    if (!token.type().equals(PythonTokenType.DEDENT) && !token.type().equals(PythonTokenType.INDENT) && !token.type().equals(PythonTokenType.NEWLINE)) {
+      int startLine = tokens.startLine(index);
+      // Token positions also consider "\r" as a line break, lines of code only consider "\n" (see tokenLineNumbers)
+      int endLine = token.value().indexOf('\r') < 0 ? tokens.endLine(index) : (startLine + lineFeedCount(token.value()));
+      linesOfCode.set(startLine, endLine + 1);
+    }
+  }
 
-    for (Trivia trivia : token.trivia()) {
-      visitComment(trivia, token);
+  private static int lineFeedCount(String value) {
+    int count = 0;
+    for (int i = value.indexOf('\n'); i >= 0; i = value.indexOf('\n', i + 1)) {
+      count++;
     }
+    return count;
   }
 
   public static Set<Integer> tokenLineNumbers(Token token) {
@@ -151,10 +180,10 @@ public class FileLinesVisitor extends PythonSubscriptionCheck {
     String commentLine = getContents(trivia.token().value());
     int line = trivia.token().line();
     if (containsNoSonarComment(trivia)) {
-      linesOfComments.remove(line);
+      linesOfComments.clear(line);
       addNoSonarLines(trivia, parentToken);
     } else if (!isBlank(commentLine)) {
-      linesOfComments.add(line);
+      linesOfComments.set(line);
     }
   }
 
@@ -166,27 +195,54 @@ public class FileLinesVisitor extends PythonSubscriptionCheck {
   @Override
   public void leaveFile() {
     // account for the docstring lines
-    for (Integer line : linesOfDocstring) {
-      executableLines.remove(line);
-      linesOfCode.remove(line);
-      linesOfComments.add(line);
-    }
+    executableLines.andNot(linesOfDocstring);
+    linesOfCode.andNot(linesOfDocstring);
+    linesOfComments.or(linesOfDocstring);
   }
 
   public Set<Integer> getLinesWithNoSonar() {
-    return Collections.unmodifiableSet(noSonar);
+    return toSet(noSonar);
   }
 
   public Set<Integer> getLinesOfCode() {
-    return Collections.unmodifiableSet(linesOfCode);
+    return toSet(linesOfCode);
   }
 
   public int getCommentLineCount() {
-    return linesOfComments.size();
+    return linesOfComments.cardinality();
   }
 
   public Set<Integer> getExecutableLines() {
-    return Collections.unmodifiableSet(executableLines);
+    return toSet(executableLines);
+  }
+
+  /**
+   * Same lines as {@link #getLinesOfCode()}, without boxing: bit {@code n} is set when line {@code n} contains code.
+   */
+  public BitSet linesOfCode() {
+    return (BitSet) linesOfCode.clone();
+  }
+
+  /**
+   * Same lines as {@link #getExecutableLines()}, without boxing.
+   */
+  public BitSet executableLines() {
+    return (BitSet) executableLines.clone();
+  }
+
+  /**
+   * Same lines as {@link #getLinesWithNoSonar()}, without boxing.
+   */
+  public BitSet linesWithNoSonar() {
+    return (BitSet) noSonar.clone();
+  }
+
+  private static Set<Integer> toSet(BitSet lines) {
+    Set<Integer> set = new HashSet<>(lines.cardinality() * 2);
+    for (int line = lines.nextSetBit(0); line >= 0; line = lines.nextSetBit(line + 1)) {
+      set.add(line);
+    }
+    return Collections.unmodifiableSet(set);
   }
 
   private static boolean isBlank(String line) {
@@ -211,13 +267,13 @@ public class FileLinesVisitor extends PythonSubscriptionCheck {
         // Count every line of a string literal as part of the "NOSONAR" scope
         StringLiteral stringLiteral = (StringLiteral) expressionStatement.expressions().get(0);
         int firstLine = stringLiteral.firstToken().line();
-        for (int i = firstLine; i < line + 1; i++) {
-          noSonar.add(i);
+        if (firstLine <= line) {
+          noSonar.set(firstLine, line + 1);
         }
         return;
       }
     }
-    noSonar.add(line);
+    noSonar.set(line);
   }
 
   public int getStatements() {
@@ -19,39 +19,43 @@
  */
 package org.sonar.python.metrics;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import org.sonar.plugins.python.api.PythonVisitorContext;
-import org.sonar.plugins.python.api.tree.FileInput;
-import org.sonar.plugins.python.api.tree.FunctionDef;
-import org.sonar.plugins.python.api.tree.BaseTreeVisitor;
+import org.sonar.python.SubscriptionVisitor;
 
 public class FileMetrics {
 
   private int numberOfStatements;
   private int numberOfClasses;
-  private final ComplexityVisitor complexityVisitor = new ComplexityVisitor();
+  private final FileComplexityVisitor complexityVisitor;
   private final CognitiveComplexityVisitor cognitiveComplexityVisitor = new CognitiveComplexityVisitor(null);
   private final FileLinesVisitor fileLinesVisitor;
-  private List<Integer> functionComplexities = new ArrayList<>();
+  private final List<Integer> functionComplexities;
 
   public FileMetrics(PythonVisitorContext context) {
-    FileInput fileInput = context.rootTree();
-    fileLinesVisitor = new FileLinesVisitor();
-    fileLinesVisitor.scanFile(context);
-    numberOfStatements = fileLinesVisitor.getStatements();
-    numberOfClasses = fileLinesVisitor.getClassDefs();
-    fileInput.accept(complexityVisitor);
-    fileInput.accept(cognitiveComplexityVisitor);
-    fileInput.accept(new FunctionVisitor());
+    this(context, new FileLinesVisitor(), new FileComplexityVisitor(), true);
+  }
+
+  /**
+   * Computes metrics using a {@link FileLinesVisitor} and a {@link FileComplexityVisitor} which already scanned the file,
+   * for instance as part of the traversal executing the checks.
+   * Cognitive complexity depends on nesting, which subscriptions cannot track: it is still computed by a dedicated visit.
+   */
+  public FileMetrics(PythonVisitorContext context, FileLinesVisitor fileLinesVisitor, FileComplexityVisitor complexityVisitor) {
+    this(context, fileLinesVisitor, complexityVisitor, false);
   }
 
-  private class FunctionVisitor extends BaseTreeVisitor {
-    @Override
-    public void visitFunctionDef(FunctionDef pyFunctionDefTree) {
-      functionComplexities.add(ComplexityVisitor.complexity(pyFunctionDefTree));
-      super.visitFunctionDef(pyFunctionDefTree);
+  private FileMetrics(PythonVisitorContext context, FileLinesVisitor fileLinesVisitor, FileComplexityVisitor complexityVisitor, boolean scan) {
+    if (scan) {
+      SubscriptionVisitor.analyze(Arrays.asList(fileLinesVisitor, complexityVisitor), context);
     }
+    this.fileLinesVisitor = fileLinesVisitor;
+    this.complexityVisitor = complexityVisitor;
+    numberOfStatements = fileLinesVisitor.getStatements();
+    numberOfClasses = fileLinesVisitor.getClassDefs();
+    functionComplexities = complexityVisitor.functionComplexities();
+    context.rootTree().accept(cognitiveComplexityVisitor);
   }
 
   public int numberOfStatements() {
@@ -32,6 +32,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
@@ -41,6 +42,7 @@ import org.sonar.plugins.python.api.symbols.AmbiguousSymbol;
 import org.sonar.plugins.python.api.symbols.ClassSymbol;
 import org.sonar.plugins.python.api.symbols.Symbol;
 import org.sonar.plugins.python.api.tree.ClassDef;
+import org.sonar.plugins.python.api.types.InferredType;
 import org.sonar.python.index.ClassDescriptor;
 import org.sonar.python.types.TypeShed;
 import org.sonar.python.types.protobuf.SymbolsProtos;
@@ -69,6 +71,7 @@ public class ClassSymbolImpl extends SymbolImpl implements ClassSymbol {
   @Nullable
   private String metaclassFQN = null;
   private boolean supportsGenerics = false;
+  private InferredType instancesType = null;
 
   public ClassSymbolImpl(ClassDef classDef, @Nullable String fullyQualifiedName, PythonFile pythonFile) {
     super(classDef.name().name(), fullyQualifiedName);
@@ -395,6 +398,17 @@ public class ClassSymbolImpl extends SymbolImpl implements ClassSymbol {
     return hasSuperClassWithoutSymbol;
   }
 
+  /**
+   * Type of the instances of this class, created by the given factory on first call and shared afterwards.
+   * Super classes and members can no longer change once they have been read, so the type stays valid.
+   */
+  public InferredType instancesType(Function<ClassSymbol, InferredType> typeFactory) {
+    if (instancesType == null) {
+      instancesType = typeFactory.apply(this);
+    }
+    return instancesType;
+  }
+
   public boolean supportsGenerics() {
     return supportsGenerics;
   }
@@ -0,0 +1,89 @@
+/*
+ * SonarQube Python Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.python.semantic;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.CheckForNull;
+import org.sonar.plugins.python.api.symbols.FunctionSymbol;
+import org.sonar.plugins.python.api.symbols.FunctionSymbol.Parameter;
+
+/**
+ * Facts about the parameters of a function which are needed at each of its call sites.
+ * They are computed once per function symbol, see {@link FunctionSymbolImpl#summary()}.
+ */
+public class FunctionSummary {
+
+  private final Map<String, Parameter> parametersByName = new HashMap<>();
+  private final Map<String, Parameter> positionalParametersWithoutDefault = new HashMap<>();
+  private final Set<String> mandatoryKeywordOnlyParameterNames = new HashSet<>();
+  private final int positionalParametersWithDefaultCount;
+
+  FunctionSummary(FunctionSymbol functionSymbol) {
+    int unnamedIndex = 0;
+    int withDefaultCount = 0;
+    for (Parameter parameter : functionSymbol.parameters()) {
+      String name = parameter.name();
+      if (name != null) {
+        parametersByName.putIfAbsent(name, parameter);
+      }
+      if (parameter.isKeywordOnly()) {
+        if (!parameter.hasDefaultValue()) {
+          mandatoryKeywordOnlyParameterNames.add(name);
+        }
+      } else if (parameter.hasDefaultValue()) {
+        withDefaultCount++;
+      } else if (name == null) {
+        positionalParametersWithoutDefault.put("!unnamed" + unnamedIndex, parameter);
+        unnamedIndex++;
+      } else {
+        positionalParametersWithoutDefault.put(name, parameter);
+      }
+    }
+    positionalParametersWithDefaultCount = withDefaultCount;
+  }
+
+  /**
+   * First parameter with the given name, if any.
+   */
+  @CheckForNull
+  public Parameter parameter(String name) {
+    return parametersByName.get(name);
+  }
+
+  /**
+   * Parameters which can be passed positionally and have no default value, by name.
+   * Unnamed parameters are keyed by "!unnamed" followed by their index among unnamed parameters.
+   */
+  public Map<String, Parameter> positionalParametersWithoutDefault() {
+    return Collections.unmodifiableMap(positionalParametersWithoutDefault);
+  }
+
+  public int positionalParametersWithDefaultCount() {
+    return positionalParametersWithDefaultCount;
+  }
+
+  public Set<String> mandatoryKeywordOnlyParameterNames() {
+    return Collections.unmodifiableSet(mandatoryKeywordOnlyParameterNames);
+  }
+}
@@ -69,6 +69,7 @@ public class FunctionSymbolImpl extends SymbolImpl implements FunctionSymbol {
   private static final String STATIC_METHOD_DECORATOR = "staticmethod";
   private boolean isDjangoView = false;
   private boolean hasReadDeclaredReturnType = false;
+  private FunctionSummary summary = null;
 
   FunctionSymbolImpl(FunctionDef functionDef, @Nullable String fullyQualifiedName, PythonFile pythonFile) {
     super(functionDef.name().name(), fullyQualifiedName);
@@ -143,11 +144,13 @@ public class FunctionSymbolImpl extends SymbolImpl implements FunctionSymbol {
 
   public void setParametersWithType(ParameterList parametersList) {
     this.parameters.clear();
+    summary = null;
     createParameterNames(parametersList.all(), functionDefinitionLocation == null ? null : functionDefinitionLocation.fileId());
   }
 
   public void addParameter(ParameterImpl parameter) {
     this.parameters.add(parameter);
+    summary = null;
     if (parameter.isVariadic()) {
       this.hasVariadicParameter = true;
     }
@@ -351,6 +354,16 @@ public class FunctionSymbolImpl extends SymbolImpl implements FunctionSymbol {
     this.declaredReturnType = declaredReturnType;
   }
 
+  /**
+   * Facts about the parameters of this function needed by call sites, computed on first call and shared afterwards.
+   */
+  public FunctionSummary summary() {
+    if (summary == null) {
+      summary = new FunctionSummary(this);
+    }
+    return summary;
+  }
+
   public Symbol owner() {
     return owner;
   }
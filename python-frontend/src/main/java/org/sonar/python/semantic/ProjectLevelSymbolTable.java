@@ -83,6 +83,8 @@ public class ProjectLevelSymbolTable {
 
   public void addModule(FileInput fileInput, String packageName, PythonFile pythonFile) {
     SymbolTableBuilder symbolTableBuilder = new SymbolTableBuilder(packageName, pythonFile);
+    // descriptors of global symbols do not depend on inferred types
+    symbolTableBuilder.disableTypeInference();
     String fullyQualifiedModuleName = SymbolUtils.fullyQualifiedModuleName(packageName, pythonFile.fileName());
     fileInput.accept(symbolTableBuilder);
     Set<Descriptor> globalDescriptors = new HashSet<>();
@@ -0,0 +1,50 @@
+/*
+ * SonarQube Python Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.python.semantic;
+
+import org.sonar.python.cfg.ControlFlowCache;
+
+/**
+ * Internal settings of the semantic model built for a file: they are not part of the public API.
+ */
+public class SemanticModelOptions {
+
+  public static final SemanticModelOptions DEFAULT = new SemanticModelOptions(true, ControlFlowCache.DEFAULT_MAX_BLOCKS_FOR_DATA_FLOW);
+
+  private final boolean inferTypes;
+  private final int maxBlocksForDataFlow;
+
+  /**
+   * @param inferTypes when false, types are not inferred: this is only suitable when no check relies on them
+   * @param maxBlocksForDataFlow control flow graphs with more blocks are not analyzed by data flow analyses
+   */
+  public SemanticModelOptions(boolean inferTypes, int maxBlocksForDataFlow) {
+    this.inferTypes = inferTypes;
+    this.maxBlocksForDataFlow = maxBlocksForDataFlow;
+  }
+
+  public boolean inferTypes() {
+    return inferTypes;
+  }
+
+  public int maxBlocksForDataFlow() {
+    return maxBlocksForDataFlow;
+  }
+}
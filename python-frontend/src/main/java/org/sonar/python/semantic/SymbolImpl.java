@@ -20,6 +20,7 @@
 package org.sonar.python.semantic;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -49,6 +50,7 @@ public class SymbolImpl implements Symbol {
   @Nullable
   String fullyQualifiedName;
   private final List<Usage> usages = new ArrayList<>();
+  private final int[] usagesCountByKind = new int[Usage.Kind.values().length];
   private Map<String, Symbol> childrenSymbolByName = new HashMap<>();
   private Kind kind;
   private InferredType inferredType = InferredTypes.anyType();
@@ -92,6 +94,21 @@ public class SymbolImpl implements Symbol {
     return Collections.unmodifiableList(usages);
   }
 
+  @Override
+  public boolean hasUsageOfKind(Usage.Kind kind) {
+    return usagesCountByKind[kind.ordinal()] > 0;
+  }
+
+  @Override
+  public int bindingUsagesCount() {
+    return usages.size() - usagesCountByKind[Usage.Kind.OTHER.ordinal()] - usagesCountByKind[Usage.Kind.GLOBAL_DECLARATION.ordinal()];
+  }
+
+  @Override
+  public int readUsagesCount() {
+    return usagesCountByKind[Usage.Kind.OTHER.ordinal()];
+  }
+
   @CheckForNull
   @Override
   public String fullyQualifiedName() {
@@ -121,6 +138,7 @@ public class SymbolImpl implements Symbol {
   void addUsage(Tree tree, Usage.Kind kind) {
     UsageImpl usage = new UsageImpl(tree, kind);
     usages.add(usage);
+    usagesCountByKind[kind.ordinal()]++;
     if (tree.is(Tree.Kind.NAME)) {
       ((NameImpl) tree).setSymbol(this);
       ((NameImpl) tree).setUsage(usage);
@@ -191,6 +209,7 @@ public class SymbolImpl implements Symbol {
 
   public void removeUsages() {
     usages.clear();
+    Arrays.fill(usagesCountByKind, 0);
     childrenSymbolByName.values().forEach(symbol -> ((SymbolImpl) symbol).removeUsages());
   }
 
@@ -78,6 +78,7 @@ import org.sonar.plugins.python.api.tree.TypeAliasStatement;
 import org.sonar.plugins.python.api.tree.TypeAnnotation;
 import org.sonar.plugins.python.api.tree.TypeParams;
 import org.sonar.plugins.python.api.tree.WithItem;
+import org.sonar.python.cfg.ControlFlowCache;
 import org.sonar.python.tree.ClassDefImpl;
 import org.sonar.python.tree.ComprehensionExpressionImpl;
 import org.sonar.python.tree.DictCompExpressionImpl;
@@ -103,12 +104,15 @@ public class SymbolTableBuilder extends BaseTreeVisitor {
   private Set<Tree> assignmentLeftHandSides = new HashSet<>();
   private final PythonFile pythonFile;
   private final Set<String> importedModulesFQN = new HashSet<>();
+  private ControlFlowCache controlFlowCache;
+  private boolean typeInferenceEnabled = true;
 
   public SymbolTableBuilder(PythonFile pythonFile) {
     fullyQualifiedModuleName = null;
     filePath = null;
     projectLevelSymbolTable = ProjectLevelSymbolTable.empty();
     this.pythonFile = pythonFile;
+    this.controlFlowCache = new ControlFlowCache(pythonFile);
   }
 
   public Set<String> importedModulesFQN() {
@@ -128,6 +132,30 @@ public class SymbolTableBuilder extends BaseTreeVisitor {
       filePath.add("");
     }
     this.projectLevelSymbolTable = projectLevelSymbolTable;
+    this.controlFlowCache = new ControlFlowCache(pythonFile);
+  }
+
+  /**
+   * Control flow graphs built while inferring types, which can be reused by later analyses of the same file.
+   */
+  public ControlFlowCache controlFlowCache() {
+    return controlFlowCache;
+  }
+
+  /**
+   * Only build symbols: types of expressions stay unknown and members accessed on them are not resolved.
+   * Used when none of the consumers of the symbol table relies on inferred types.
+   */
+  public void disableTypeInference() {
+    typeInferenceEnabled = false;
+  }
+
+  /**
+   * Control flow graphs with more blocks than this threshold are not analyzed by data flow analyses, and types are inferred in
+   * flow-insensitive mode for them. Must be called before the file is visited.
+   */
+  public void setMaxBlocksForDataFlow(int maxBlocksForDataFlow) {
+    controlFlowCache = new ControlFlowCache(pythonFile, maxBlocksForDataFlow);
   }
 
   @Override
@@ -139,7 +167,9 @@ public class SymbolTableBuilder extends BaseTreeVisitor {
     createAmbiguousSymbols();
     addSymbolsToTree((FileInputImpl) fileInput);
     fileInput.accept(new ThirdPhaseVisitor());
-    TypeInference.inferTypes(fileInput, pythonFile);
+    if (typeInferenceEnabled) {
+      TypeInference.inferTypes(fileInput, controlFlowCache);
+    }
   }
 
   private static class SymbolToUpdate {
@@ -21,9 +21,6 @@ package org.sonar.python.tree;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.plugins.python.api.tree.AnnotatedAssignment;
@@ -84,8 +81,7 @@ public class AnnotatedAssignmentImpl extends SimpleStatement implements Annotate
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(Arrays.asList(variable, annotation, equalToken, assignedValue), separators.elements())
-      .flatMap(List::stream).filter(Objects::nonNull).collect(Collectors.toList());
+    return flattenNonNullChildren(Arrays.asList(variable, annotation, equalToken, assignedValue), separators.elements());
   }
 
   @Override
@@ -21,9 +21,6 @@ package org.sonar.python.tree;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import org.sonar.plugins.python.api.tree.AssertStatement;
 import org.sonar.plugins.python.api.tree.Expression;
@@ -79,6 +76,6 @@ public class AssertStatementImpl extends SimpleStatement implements AssertStatem
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(Arrays.asList(assertKeyword, condition, message), separators.elements()).flatMap(List::stream).filter(Objects::nonNull).collect(Collectors.toList());
+    return flattenNonNullChildren(Arrays.asList(assertKeyword, condition, message), separators.elements());
   }
 }
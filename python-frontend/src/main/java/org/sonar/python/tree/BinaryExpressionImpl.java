@@ -24,9 +24,6 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.sonar.plugins.python.api.tree.BinaryExpression;
 import org.sonar.plugins.python.api.tree.Expression;
 import org.sonar.plugins.python.api.tree.Token;
@@ -111,7 +108,7 @@ public class BinaryExpressionImpl extends PyTree implements BinaryExpression, Ha
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(leftOperand, operator, rightOperand).filter(Objects::nonNull).collect(Collectors.toList());
+    return nonNullChildren(leftOperand, operator, rightOperand);
   }
 
   @Override
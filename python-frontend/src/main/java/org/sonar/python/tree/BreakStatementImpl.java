@@ -21,9 +21,6 @@ package org.sonar.python.tree;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.CheckForNull;
 import org.sonar.plugins.python.api.tree.BreakStatement;
 import org.sonar.plugins.python.api.tree.Token;
@@ -62,6 +59,6 @@ public class BreakStatementImpl extends SimpleStatement implements BreakStatemen
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(Collections.singletonList(breakKeyword), separators.elements()).flatMap(List::stream).filter(Objects::nonNull).collect(Collectors.toList());
+    return flattenNonNullChildren(Collections.singletonList(breakKeyword), separators.elements());
   }
 }
@@ -22,11 +22,9 @@ package org.sonar.python.tree;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import org.sonar.plugins.python.api.symbols.AmbiguousSymbol;
 import org.sonar.plugins.python.api.symbols.ClassSymbol;
@@ -101,7 +99,7 @@ public class CallExpressionImpl extends PyTree implements CallExpression, HasTyp
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(callee, leftPar, argumentList, rightPar).filter(Objects::nonNull).collect(Collectors.toList());
+    return nonNullChildren(callee, leftPar, argumentList, rightPar);
   }
 
   @Override
@@ -20,9 +20,6 @@
 package org.sonar.python.tree;
 
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.plugins.python.api.tree.CaseBlock;
@@ -99,8 +96,6 @@ public class CaseBlockImpl extends PyTree implements CaseBlock {
 
   @Override
   List<Tree> computeChildren() {
-    return Stream.of(caseKeyword, pattern, guard, colon, newLine, indent, body, dedent)
-      .filter(Objects::nonNull)
-      .collect(Collectors.toList());
+    return nonNullChildren(caseKeyword, pattern, guard, colon, newLine, indent, body, dedent);
   }
 }
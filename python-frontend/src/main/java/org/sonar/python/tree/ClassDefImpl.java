@@ -22,10 +22,7 @@ package org.sonar.python.tree;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.plugins.python.api.tree.ArgList;
@@ -160,7 +157,6 @@ public class ClassDefImpl extends PyTree implements ClassDef {
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(decorators, Arrays.asList(classKeyword, name, typeParams, leftPar, args, rightPar, colon, newLine, indent, body, dedent))
-      .flatMap(List::stream).filter(Objects::nonNull).collect(Collectors.toList());
+    return flattenNonNullChildren(decorators, Arrays.asList(classKeyword, name, typeParams, leftPar, args, rightPar, colon, newLine, indent, body, dedent));
   }
 }
@@ -21,10 +21,7 @@ package org.sonar.python.tree;
 
 import java.util.HashSet;
 import java.util.List;
-import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import org.sonar.plugins.python.api.tree.ComprehensionExpression;
 import org.sonar.plugins.python.api.tree.ComprehensionFor;
@@ -76,7 +73,7 @@ public class ComprehensionExpressionImpl extends PyTree implements Comprehension
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(openingToken, resultExpression, comprehensionFor, closingToken).filter(Objects::nonNull).collect(Collectors.toList());
+    return nonNullChildren(openingToken, resultExpression, comprehensionFor, closingToken);
   }
 
   @Override
@@ -20,9 +20,6 @@
 package org.sonar.python.tree;
 
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.plugins.python.api.tree.ComprehensionClause;
@@ -89,7 +86,7 @@ public class ComprehensionForImpl extends PyTree implements ComprehensionFor {
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(asyncToken, forToken, loopExpression, inToken, iterable, nested).filter(Objects::nonNull).collect(Collectors.toList());
+    return nonNullChildren(asyncToken, forToken, loopExpression, inToken, iterable, nested);
   }
 
   @Override
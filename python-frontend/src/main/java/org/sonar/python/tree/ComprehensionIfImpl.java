@@ -20,9 +20,6 @@
 package org.sonar.python.tree;
 
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.plugins.python.api.tree.ComprehensionClause;
@@ -67,7 +64,7 @@ public class ComprehensionIfImpl extends PyTree implements ComprehensionIf {
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(ifToken, condition, nestedClause).filter(Objects::nonNull).collect(Collectors.toList());
+    return nonNullChildren(ifToken, condition, nestedClause);
   }
 
   @Override
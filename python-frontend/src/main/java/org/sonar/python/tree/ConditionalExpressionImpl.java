@@ -21,9 +21,6 @@ package org.sonar.python.tree;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.sonar.plugins.python.api.tree.ConditionalExpression;
 import org.sonar.plugins.python.api.tree.Expression;
 import org.sonar.plugins.python.api.tree.Token;
@@ -81,7 +78,7 @@ public class ConditionalExpressionImpl extends PyTree implements ConditionalExpr
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(trueExpression, ifToken, condition, elseToken, falseExpression).filter(Objects::nonNull).collect(Collectors.toList());
+    return nonNullChildren(trueExpression, ifToken, condition, elseToken, falseExpression);
   }
 
   @Override
@@ -21,9 +21,6 @@ package org.sonar.python.tree;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.CheckForNull;
 import org.sonar.plugins.python.api.tree.ContinueStatement;
 import org.sonar.plugins.python.api.tree.Token;
@@ -62,6 +59,6 @@ public class ContinueStatementImpl extends SimpleStatement implements ContinueSt
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(Collections.singletonList(continueKeyword), separators.elements()).flatMap(List::stream).filter(Objects::nonNull).collect(Collectors.toList());
+    return flattenNonNullChildren(Collections.singletonList(continueKeyword), separators.elements());
   }
 }
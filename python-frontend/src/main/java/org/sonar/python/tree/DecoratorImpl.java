@@ -20,9 +20,6 @@
 package org.sonar.python.tree;
 
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.plugins.python.api.tree.ArgList;
@@ -74,7 +71,7 @@ public class DecoratorImpl extends SimpleStatement implements Decorator {
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(atToken, expression, newLineToken).filter(Objects::nonNull).collect(Collectors.toList());
+    return nonNullChildren(atToken, expression, newLineToken);
   }
 
   @Override
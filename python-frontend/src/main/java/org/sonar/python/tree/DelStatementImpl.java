@@ -21,9 +21,6 @@ package org.sonar.python.tree;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import org.sonar.plugins.python.api.tree.DelStatement;
 import org.sonar.plugins.python.api.tree.Expression;
@@ -70,7 +67,6 @@ public class DelStatementImpl extends SimpleStatement implements DelStatement {
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(Collections.singletonList(delKeyword), expressionTrees, separators.elements())
-      .flatMap(List::stream).filter(Objects::nonNull).collect(Collectors.toList());
+    return flattenNonNullChildren(Collections.singletonList(delKeyword), expressionTrees, separators.elements());
   }
 }
@@ -21,10 +21,7 @@ package org.sonar.python.tree;
 
 import java.util.HashSet;
 import java.util.List;
-import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.sonar.plugins.python.api.tree.ComprehensionFor;
 import org.sonar.plugins.python.api.tree.DictCompExpression;
 import org.sonar.plugins.python.api.tree.Expression;
@@ -87,7 +84,7 @@ public class DictCompExpressionImpl extends PyTree implements DictCompExpression
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(openingBrace, keyExpression, colon, valueExpression, comprehensionFor, closingBrace).filter(Objects::nonNull).collect(Collectors.toList());
+    return nonNullChildren(openingBrace, keyExpression, colon, valueExpression, comprehensionFor, closingBrace);
   }
 
   @Override
@@ -20,9 +20,6 @@
 package org.sonar.python.tree;
 
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.plugins.python.api.tree.ExceptClause;
@@ -147,7 +144,6 @@ public class ExceptClauseImpl extends PyTree implements ExceptClause {
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(exceptKeyword, starToken, exception, asKeyword, commaToken, exceptionInstance, colon, newLine, indent, body, dedent)
-      .filter(Objects::nonNull).collect(Collectors.toList());
+    return nonNullChildren(exceptKeyword, starToken, exception, asKeyword, commaToken, exceptionInstance, colon, newLine, indent, body, dedent);
   }
 }
@@ -21,9 +21,6 @@ package org.sonar.python.tree;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import org.sonar.plugins.python.api.tree.ExecStatement;
 import org.sonar.plugins.python.api.tree.Expression;
@@ -99,7 +96,6 @@ public class ExecStatementImpl extends SimpleStatement implements ExecStatement
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(Arrays.asList(execKeyword, expression, in, globalsExpression, comma, localsExpression), separators.elements())
-      .flatMap(List::stream).filter(Objects::nonNull).collect(Collectors.toList());
+    return flattenNonNullChildren(Arrays.asList(execKeyword, expression, in, globalsExpression, comma, localsExpression), separators.elements());
   }
 }
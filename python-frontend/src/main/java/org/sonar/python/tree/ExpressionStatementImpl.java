@@ -20,9 +20,6 @@
 package org.sonar.python.tree;
 
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.sonar.plugins.python.api.tree.Expression;
 import org.sonar.plugins.python.api.tree.ExpressionStatement;
 import org.sonar.plugins.python.api.tree.Token;
@@ -55,7 +52,7 @@ public class ExpressionStatementImpl extends SimpleStatement implements Expressi
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(expressions, separators.elements()).flatMap(List::stream).filter(Objects::nonNull).collect(Collectors.toList());
+    return flattenNonNullChildren(expressions, separators.elements());
   }
 
   @Override
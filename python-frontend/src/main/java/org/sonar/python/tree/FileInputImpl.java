@@ -21,10 +21,7 @@ package org.sonar.python.tree;
 
 import java.util.HashSet;
 import java.util.List;
-import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.plugins.python.api.tree.FileInput;
@@ -41,6 +38,7 @@ public class FileInputImpl extends PyTree implements FileInput {
   private final Token endOfFile;
   private final StringLiteral docstring;
   private final Set<Symbol> globalVariables = new HashSet<>();
+  private FileTokens fileTokens;
 
   public FileInputImpl(@Nullable StatementList statements, Token endOfFile, @Nullable StringLiteral docstring) {
     this.statements = statements;
@@ -74,6 +72,16 @@ public class FileInputImpl extends PyTree implements FileInput {
     globalVariables.add(globalVariable);
   }
 
+  /**
+   * Tokens of the file, computed on first access.
+   */
+  public FileTokens fileTokens() {
+    if (fileTokens == null) {
+      fileTokens = FileTokens.compute(this);
+    }
+    return fileTokens;
+  }
+
   @Override
   public void accept(TreeVisitor visitor) {
     visitor.visitFileInput(this);
@@ -81,6 +89,6 @@ public class FileInputImpl extends PyTree implements FileInput {
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(statements, endOfFile).filter(Objects::nonNull).collect(Collectors.toList());
+    return nonNullChildren(statements, endOfFile);
   }
 }
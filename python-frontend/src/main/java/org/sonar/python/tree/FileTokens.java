@@ -0,0 +1,161 @@
+/*
+ * SonarQube Python Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.python.tree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.sonar.plugins.python.api.tree.Token;
+import org.sonar.plugins.python.api.tree.Tree;
+import org.sonar.plugins.python.api.tree.Trivia;
+
+/**
+ * Immutable, index-addressable array of the tokens of a tree, in order, with their start and end positions precomputed
+ * (same values as {@link org.sonar.python.TokenLocation}: "\r\n", "\n" and "\r" all end a line within a token).
+ * For a whole file, use {@link #of(Tree)} on the {@link org.sonar.plugins.python.api.tree.FileInput}: the array is computed once and shared.
+ */
+public class FileTokens {
+
+  private final Token[] tokens;
+  private final int[] startLines;
+  private final int[] startLineOffsets;
+  private final int[] endLines;
+  private final int[] endLineOffsets;
+  private List<Token> tokensWithComments;
+
+  private FileTokens(Token[] tokens) {
+    int size = tokens.length;
+    this.tokens = tokens;
+    this.startLines = new int[size];
+    this.startLineOffsets = new int[size];
+    this.endLines = new int[size];
+    this.endLineOffsets = new int[size];
+    for (int i = 0; i < size; i++) {
+      Token token = tokens[i];
+      int line = token.line();
+      int column = token.column();
+      String value = token.value();
+      startLines[i] = line;
+      startLineOffsets[i] = column;
+      int lastLineStart = 0;
+      int lineBreaks = 0;
+      int length = value.length();
+      for (int c = 0; c < length; c++) {
+        char ch = value.charAt(c);
+        if (ch == '\r' && c + 1 < length && value.charAt(c + 1) == '\n') {
+          c++;
+        }
+        if (ch == '\r' || ch == '\n') {
+          lineBreaks++;
+          lastLineStart = c + 1;
+        }
+      }
+      endLines[i] = line + lineBreaks;
+      endLineOffsets[i] = lineBreaks == 0 ? (column + length) : (length - lastLineStart);
+    }
+  }
+
+  public static FileTokens of(Tree tree) {
+    if (tree instanceof FileInputImpl) {
+      return ((FileInputImpl) tree).fileTokens();
+    }
+    return compute(tree);
+  }
+
+  static FileTokens compute(Tree tree) {
+    List<Token> tokens = new ArrayList<>();
+    List<Tree> stack = new ArrayList<>();
+    stack.add(tree);
+    while (!stack.isEmpty()) {
+      Tree current = stack.remove(stack.size() - 1);
+      if (current.is(Tree.Kind.TOKEN)) {
+        tokens.add((Token) current);
+        continue;
+      }
+      List<Tree> children = current.children();
+      for (int i = children.size() - 1; i >= 0; i--) {
+        Tree child = children.get(i);
+        if (child != null) {
+          stack.add(child);
+        }
+      }
+    }
+    return new FileTokens(tokens.toArray(new Token[0]));
+  }
+
+  public int size() {
+    return tokens.length;
+  }
+
+  public Token token(int index) {
+    return tokens[index];
+  }
+
+  public int startLine(int index) {
+    return startLines[index];
+  }
+
+  public int startLineOffset(int index) {
+    return startLineOffsets[index];
+  }
+
+  public int endLine(int index) {
+    return endLines[index];
+  }
+
+  public int endLineOffset(int index) {
+    return endLineOffsets[index];
+  }
+
+  public List<Token> asList() {
+    return Collections.unmodifiableList(Arrays.asList(tokens));
+  }
+
+  /**
+   * Comment index: tokens having at least one comment in their {@link Token#trivia()}, in order. Computed on first access.
+   */
+  public List<Token> tokensWithComments() {
+    List<Token> result = tokensWithComments;
+    if (result == null) {
+      List<Token> list = new ArrayList<>();
+      for (Token token : tokens) {
+        boolean hasTrivia = token instanceof TokenImpl ? ((TokenImpl) token).hasTrivia() : !token.trivia().isEmpty();
+        if (hasTrivia) {
+          list.add(token);
+        }
+      }
+      result = Collections.unmodifiableList(list);
+      tokensWithComments = result;
+    }
+    return result;
+  }
+
+  /**
+   * All comments of the tokens, in order.
+   */
+  public List<Trivia> comments() {
+    List<Trivia> comments = new ArrayList<>();
+    for (Token token : tokensWithComments()) {
+      comments.addAll(token.trivia());
+    }
+    return comments;
+  }
+}
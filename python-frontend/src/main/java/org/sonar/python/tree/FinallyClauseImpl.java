@@ -20,9 +20,6 @@
 package org.sonar.python.tree;
 
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import org.sonar.plugins.python.api.tree.FinallyClause;
 import org.sonar.plugins.python.api.tree.StatementList;
@@ -69,6 +66,6 @@ public class FinallyClauseImpl extends PyTree implements FinallyClause {
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(finallyKeyword, colon, newLine, indent, body, dedent).filter(Objects::nonNull).collect(Collectors.toList());
+    return nonNullChildren(finallyKeyword, colon, newLine, indent, body, dedent);
   }
 }
@@ -23,9 +23,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.plugins.python.api.tree.ElseClause;
@@ -133,9 +130,8 @@ public class ForStatementImpl extends PyTree implements ForStatement {
   public List<Tree> computeChildren() {
     List<Tree> expressionsWithCommas = addCommas(expressions, expressionsCommas);
     List<Tree> testExpressionsWithCommas = addCommas(testExpressions, testExpressionsCommas);
-    return Stream.of(Arrays.asList(asyncKeyword, forKeyword), expressionsWithCommas, Collections.singletonList(inKeyword), testExpressionsWithCommas,
-      Arrays.asList(colon, firstNewLine, firstIndent, body, firstDedent, elseClause))
-      .flatMap(List::stream).filter(Objects::nonNull).collect(Collectors.toList());
+    return flattenNonNullChildren(Arrays.asList(asyncKeyword, forKeyword), expressionsWithCommas, Collections.singletonList(inKeyword), testExpressionsWithCommas,
+      Arrays.asList(colon, firstNewLine, firstIndent, body, firstDedent, elseClause));
   }
 
   private static List<Tree> addCommas(List<Expression> expressions, List<Token> commas) {
@@ -20,9 +20,6 @@
 package org.sonar.python.tree;
 
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.Nullable;
 
 import org.sonar.plugins.python.api.tree.Expression;
@@ -73,8 +70,7 @@ public class FormattedExpressionImpl extends PyTree implements FormattedExpressi
 
   @Override
   List<Tree> computeChildren() {
-    return Stream.of(lCurlyBrace, expression, equalToken, fstringConversionToken, fstringConversionName, formatSpecifier, rCurlyBrace)
-      .filter(Objects::nonNull).collect(Collectors.toList());
+    return nonNullChildren(lCurlyBrace, expression, equalToken, fstringConversionToken, fstringConversionName, formatSpecifier, rCurlyBrace);
   }
 
   @Override
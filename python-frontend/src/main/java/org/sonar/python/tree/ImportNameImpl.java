@@ -21,9 +21,6 @@ package org.sonar.python.tree;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.CheckForNull;
 import org.sonar.plugins.python.api.tree.AliasedName;
 import org.sonar.plugins.python.api.tree.ImportName;
@@ -71,7 +68,6 @@ public class ImportNameImpl extends SimpleStatement implements ImportName {
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(Collections.singletonList(importKeyword), aliasedNames, separators.elements())
-      .flatMap(List::stream).filter(Objects::nonNull).collect(Collectors.toList());
+    return flattenNonNullChildren(Collections.singletonList(importKeyword), aliasedNames, separators.elements());
   }
 }
@@ -20,9 +20,6 @@
 package org.sonar.python.tree;
 
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.plugins.python.api.tree.Expression;
@@ -52,6 +49,6 @@ public class IsExpressionImpl extends BinaryExpressionImpl implements IsExpressi
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(leftOperand(), operator(), notToken, rightOperand()).filter(Objects::nonNull).collect(Collectors.toList());
+    return nonNullChildren(leftOperand(), operator(), notToken, rightOperand());
   }
 }
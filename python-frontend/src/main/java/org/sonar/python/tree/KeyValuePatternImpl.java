@@ -19,9 +19,8 @@
  */
 package org.sonar.python.tree;
 
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.sonar.plugins.python.api.tree.KeyValuePattern;
 import org.sonar.plugins.python.api.tree.Pattern;
 import org.sonar.plugins.python.api.tree.Token;
@@ -68,6 +67,6 @@ public class KeyValuePatternImpl extends PyTree implements KeyValuePattern {
 
   @Override
   List<Tree> computeChildren() {
-    return Stream.of(key, colon, value).collect(Collectors.toList());
+    return Arrays.asList(key, colon, value);
   }
 }
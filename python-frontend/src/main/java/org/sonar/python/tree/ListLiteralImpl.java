@@ -19,9 +19,8 @@
  */
 package org.sonar.python.tree;
 
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.sonar.plugins.python.api.tree.ExpressionList;
 import org.sonar.plugins.python.api.tree.ListLiteral;
 import org.sonar.plugins.python.api.tree.Token;
@@ -69,7 +68,7 @@ public class ListLiteralImpl extends PyTree implements ListLiteral {
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(leftBracket, elements, rightBracket).collect(Collectors.toList());
+    return Arrays.asList(leftBracket, elements, rightBracket);
   }
 
   @Override
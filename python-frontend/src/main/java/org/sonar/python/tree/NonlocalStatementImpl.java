@@ -21,9 +21,6 @@ package org.sonar.python.tree;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.CheckForNull;
 import org.sonar.plugins.python.api.tree.Name;
 import org.sonar.plugins.python.api.tree.NonlocalStatement;
@@ -70,7 +67,6 @@ public class NonlocalStatementImpl extends SimpleStatement implements NonlocalSt
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(Collections.singletonList(nonlocalKeyword), variables, separators.elements())
-      .flatMap(List::stream).filter(Objects::nonNull).collect(Collectors.toList());
+    return flattenNonNullChildren(Collections.singletonList(nonlocalKeyword), variables, separators.elements());
   }
 }
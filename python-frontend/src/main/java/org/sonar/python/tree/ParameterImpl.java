@@ -20,9 +20,6 @@
 package org.sonar.python.tree;
 
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.plugins.python.api.tree.Expression;
@@ -104,6 +101,6 @@ public class ParameterImpl extends PyTree implements Parameter {
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(starToken, name, annotation, equalToken, defaultValue).filter(Objects::nonNull).collect(Collectors.toList());
+    return nonNullChildren(starToken, name, annotation, equalToken, defaultValue);
   }
 }
@@ -19,10 +19,9 @@
  */
 package org.sonar.python.tree;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.sonar.plugins.python.api.tree.Expression;
 import org.sonar.plugins.python.api.tree.ParenthesizedExpression;
 import org.sonar.plugins.python.api.tree.Token;
@@ -65,7 +64,7 @@ public class ParenthesizedExpressionImpl extends PyTree implements Parenthesized
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(leftParenthesis, expression, rightParenthesis).collect(Collectors.toList());
+    return Arrays.asList(leftParenthesis, expression, rightParenthesis);
   }
 
   @Override
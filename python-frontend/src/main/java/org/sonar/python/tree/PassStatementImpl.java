@@ -21,9 +21,6 @@ package org.sonar.python.tree;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import org.sonar.plugins.python.api.tree.PassStatement;
 import org.sonar.plugins.python.api.tree.Token;
@@ -62,6 +59,6 @@ public class PassStatementImpl extends SimpleStatement implements PassStatement
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(Collections.singletonList(passKeyword), separators.elements()).flatMap(List::stream).filter(Objects::nonNull).collect(Collectors.toList());
+    return flattenNonNullChildren(Collections.singletonList(passKeyword), separators.elements());
   }
 }
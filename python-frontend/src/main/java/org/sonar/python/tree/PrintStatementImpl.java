@@ -21,9 +21,6 @@ package org.sonar.python.tree;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.sonar.plugins.python.api.tree.Expression;
 import org.sonar.plugins.python.api.tree.PrintStatement;
 import org.sonar.plugins.python.api.tree.Token;
@@ -63,7 +60,6 @@ public class PrintStatementImpl extends SimpleStatement implements PrintStatemen
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(Collections.singletonList(printKeyword), expressions, separators.elements())
-      .flatMap(List::stream).filter(Objects::nonNull).collect(Collectors.toList());
+    return flattenNonNullChildren(Collections.singletonList(printKeyword), expressions, separators.elements());
   }
 }
@@ -19,6 +19,7 @@
  */
 package org.sonar.python.tree;
 
+import java.util.ArrayList;
 import java.util.List;
 import org.sonar.plugins.python.api.tree.Token;
 import org.sonar.plugins.python.api.tree.Tree;
@@ -89,4 +90,47 @@ public abstract class PyTree implements Tree {
     }
     return childs;
   }
+
+  /**
+   * Children list of exact capacity made of the non-null given trees.
+   */
+  static List<Tree> nonNullChildren(Tree... trees) {
+    int size = 0;
+    for (Tree tree : trees) {
+      if (tree != null) {
+        size++;
+      }
+    }
+    List<Tree> children = new ArrayList<>(size);
+    for (Tree tree : trees) {
+      if (tree != null) {
+        children.add(tree);
+      }
+    }
+    return children;
+  }
+
+  /**
+   * Children list of exact capacity made of the non-null elements of the given lists, in order.
+   */
+  @SafeVarargs
+  static List<Tree> flattenNonNullChildren(List<? extends Tree>... lists) {
+    int size = 0;
+    for (List<? extends Tree> list : lists) {
+      for (Tree tree : list) {
+        if (tree != null) {
+          size++;
+        }
+      }
+    }
+    List<Tree> children = new ArrayList<>(size);
+    for (List<? extends Tree> list : lists) {
+      for (Tree tree : list) {
+        if (tree != null) {
+          children.add(tree);
+        }
+      }
+    }
+    return children;
+  }
 }
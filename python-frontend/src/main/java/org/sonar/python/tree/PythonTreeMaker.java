@@ -28,6 +28,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
@@ -115,7 +116,7 @@ import org.sonar.python.api.PythonTokenType;
 public class PythonTreeMaker {
 
   public FileInput fileInput(AstNode astNode) {
-    List<Statement> statements = getStatements(astNode).stream().map(this::statement).collect(Collectors.toList());
+    List<Statement> statements = mapToList(getStatements(astNode), this::statement);
     StatementListImpl statementList = statements.isEmpty() ? null : new StatementListImpl(statements);
     Token endOfFile = toPyToken(astNode.getFirstChild(GenericTokenType.EOF).getToken());
     FileInputImpl pyFileInputTree = new FileInputImpl(statementList, endOfFile, DocstringExtractor.extractDocstring(statementList));
@@ -136,7 +137,7 @@ public class PythonTreeMaker {
   }
 
   private static List<Token> toPyToken(List<com.sonar.sslr.api.Token> tokens) {
-    return tokens.stream().map(TokenImpl::new).collect(Collectors.toList());
+    return mapToList(tokens, TokenImpl::new);
   }
 
   public void setParents(Tree root) {
@@ -265,10 +266,9 @@ public class PythonTreeMaker {
       List<StatementWithSeparator> statements = getStatements(astNode);
       if (statements.isEmpty()) {
         List<StatementWithSeparator> statementsWithSeparators = getStatementsWithSeparators(astNode);
-        return statementsWithSeparators.stream().map(this::statement).collect(Collectors.toList());
+        return mapToList(statementsWithSeparators, this::statement);
       }
-      return statements.stream().map(this::statement)
-        .collect(Collectors.toList());
+      return mapToList(statements, this::statement);
     }
     return Collections.emptyList();
   }
@@ -404,9 +404,7 @@ public class PythonTreeMaker {
     } else {
       expressions = astNode.getChildren(PythonGrammar.TEST);
     }
-    List<Expression> expressionTrees = expressions.stream()
-      .map(this::expression)
-      .collect(Collectors.toList());
+    List<Expression> expressionTrees = mapToList(expressions, this::expression);
     return new RaiseStatementImpl(toPyToken(astNode.getFirstChild(PythonKeyword.RAISE).getToken()),
       expressionTrees, fromKeyword == null ? null : toPyToken(fromKeyword.getToken()), fromExpression == null ? null : expression(fromExpression), separators);
   }
@@ -435,11 +433,9 @@ public class PythonTreeMaker {
 
   private static ImportName importName(AstNode astNode, Separators separators) {
     Token importKeyword = toPyToken(astNode.getFirstChild(PythonKeyword.IMPORT).getToken());
-    List<AliasedName> aliasedNames = astNode
+    List<AliasedName> aliasedNames = mapToList(astNode
       .getFirstChild(PythonGrammar.DOTTED_AS_NAMES)
-      .getChildren(PythonGrammar.DOTTED_AS_NAME).stream()
-      .map(PythonTreeMaker::aliasedName)
-      .collect(Collectors.toList());
+      .getChildren(PythonGrammar.DOTTED_AS_NAME), PythonTreeMaker::aliasedName);
     return new ImportNameImpl(importKeyword, aliasedNames, separators);
   }
 
@@ -456,9 +452,7 @@ public class PythonTreeMaker {
     List<AliasedName> aliasedImportNames = null;
     boolean isWildcardImport = true;
     if (importAsnames != null) {
-      aliasedImportNames = importAsnames.getChildren(PythonGrammar.IMPORT_AS_NAME).stream()
-        .map(PythonTreeMaker::aliasedName)
-        .collect(Collectors.toList());
+      aliasedImportNames = mapToList(importAsnames.getChildren(PythonGrammar.IMPORT_AS_NAME), PythonTreeMaker::aliasedName);
       isWildcardImport = false;
     }
     Token wildcard = null;
@@ -485,10 +479,8 @@ public class PythonTreeMaker {
   }
 
   private static DottedName dottedName(AstNode astNode) {
-    List<Name> names = astNode
-      .getChildren(PythonGrammar.NAME).stream()
-      .map(PythonTreeMaker::name)
-      .collect(Collectors.toList());
+    List<Name> names = mapToList(astNode
+      .getChildren(PythonGrammar.NAME), PythonTreeMaker::name);
     return new DottedNameImpl(names);
   }
 
@@ -496,9 +488,7 @@ public class PythonTreeMaker {
     AstNode astNode = statementWithSeparator.statement();
     Separators separators = statementWithSeparator.separator();
     Token globalKeyword = toPyToken(astNode.getFirstChild(PythonKeyword.GLOBAL).getToken());
-    List<Name> variables = astNode.getChildren(PythonGrammar.NAME).stream()
-      .map(PythonTreeMaker::variable)
-      .collect(Collectors.toList());
+    List<Name> variables = mapToList(astNode.getChildren(PythonGrammar.NAME), PythonTreeMaker::variable);
     return new GlobalStatementImpl(globalKeyword, variables, separators);
   }
 
@@ -506,9 +496,7 @@ public class PythonTreeMaker {
     AstNode astNode = statementWithSeparator.statement();
     Separators separators = statementWithSeparator.separator();
     Token nonlocalKeyword = toPyToken(astNode.getFirstChild(PythonKeyword.NONLOCAL).getToken());
-    List<Name> variables = astNode.getChildren(PythonGrammar.NAME).stream()
-      .map(PythonTreeMaker::variable)
-      .collect(Collectors.toList());
+    List<Name> variables = mapToList(astNode.getChildren(PythonGrammar.NAME), PythonTreeMaker::variable);
     return new NonlocalStatementImpl(nonlocalKeyword, variables, separators);
   }
 
@@ -524,9 +512,7 @@ public class PythonTreeMaker {
     if (elseSuite.getPreviousSibling().getPreviousSibling().is(PythonKeyword.ELSE)) {
       elseClause = elseClause(elseSuite);
     }
-    List<IfStatement> elifBranches = astNode.getChildren(PythonKeyword.ELIF).stream()
-      .map(this::elifStatement)
-      .collect(Collectors.toList());
+    List<IfStatement> elifBranches = mapToList(astNode.getChildren(PythonKeyword.ELIF), this::elifStatement);
 
     return new IfStatementImpl(ifToken, expression(condition), colon, suiteNewLine(suite), suiteIndent(suite), body, suiteDedent(suite), elifBranches, elseClause);
   }
@@ -552,9 +538,7 @@ public class PythonTreeMaker {
     AstNode decoratorsNode = astNode.getFirstChild(PythonGrammar.DECORATORS);
     List<Decorator> decorators = Collections.emptyList();
     if (decoratorsNode != null) {
-      decorators = decoratorsNode.getChildren(PythonGrammar.DECORATOR).stream()
-        .map(this::decorator)
-        .collect(Collectors.toList());
+      decorators = mapToList(decoratorsNode.getChildren(PythonGrammar.DECORATOR), this::decorator);
     }
     Name name = name(astNode.getFirstChild(PythonGrammar.FUNCNAME).getFirstChild(PythonGrammar.NAME));
 
@@ -664,9 +648,7 @@ public class PythonTreeMaker {
     AstNode decoratorsNode = astNode.getFirstChild(PythonGrammar.DECORATORS);
     List<Decorator> decorators = Collections.emptyList();
     if (decoratorsNode != null) {
-      decorators = decoratorsNode.getChildren(PythonGrammar.DECORATOR).stream()
-        .map(this::decorator)
-        .collect(Collectors.toList());
+      decorators = mapToList(decoratorsNode.getChildren(PythonGrammar.DECORATOR), this::decorator);
     }
     Name name = name(astNode.getFirstChild(PythonGrammar.CLASSNAME).getFirstChild(PythonGrammar.NAME));
     var typeParams = typeParams(astNode);
@@ -708,10 +690,8 @@ public class PythonTreeMaker {
     List<Expression> expressions = expressionsFromExprList(exprList);
     List<Token> expressionsCommas = punctuators(exprList, PythonPunctuator.COMMA);
     AstNode starNamedExpressions = forStatementNode.getFirstChild(PythonGrammar.STAR_NAMED_EXPRESSIONS);
-    List<Expression> testExpressions = starNamedExpressions
-      .getChildren(PythonGrammar.STAR_NAMED_EXPRESSION).stream()
-      .map(this::expression)
-      .collect(Collectors.toList());
+    List<Expression> testExpressions = mapToList(starNamedExpressions
+      .getChildren(PythonGrammar.STAR_NAMED_EXPRESSION), this::expression);
     List<Token> testExpressionsCommas = punctuators(starNamedExpressions, PythonPunctuator.COMMA);
     AstNode firstSuite = forStatementNode.getFirstChild(PythonGrammar.SUITE);
     StatementList body = getStatementListFromSuite(firstSuite);
@@ -737,9 +717,7 @@ public class PythonTreeMaker {
     AstNode astNode = statementWithSeparator.statement();
     Separators separators = statementWithSeparator.separator();
 
-    List<Expression> expressions = astNode.getFirstChild(PythonGrammar.TESTLIST_STAR_EXPR).getChildren(PythonGrammar.TEST, PythonGrammar.STAR_EXPR).stream()
-      .map(this::expression)
-      .collect(Collectors.toList());
+    List<Expression> expressions = mapToList(astNode.getFirstChild(PythonGrammar.TESTLIST_STAR_EXPR).getChildren(PythonGrammar.TEST, PythonGrammar.STAR_EXPR), this::expression);
     return new ExpressionStatementImpl(expressions, separators);
   }
 
@@ -794,9 +772,7 @@ public class PythonTreeMaker {
 
   private ExpressionList expressionList(AstNode astNode) {
     if (astNode.is(PythonGrammar.TESTLIST_STAR_EXPR, PythonGrammar.TESTLIST_COMP)) {
-      List<Expression> expressions = astNode.getChildren(PythonGrammar.NAMED_EXPR_TEST, PythonGrammar.TEST, PythonGrammar.STAR_EXPR).stream()
-        .map(this::expression)
-        .collect(Collectors.toList());
+      List<Expression> expressions = mapToList(astNode.getChildren(PythonGrammar.NAMED_EXPR_TEST, PythonGrammar.TEST, PythonGrammar.STAR_EXPR), this::expression);
       List<Token> commas = punctuators(astNode, PythonPunctuator.COMMA);
       return new ExpressionListImpl(expressions, commas);
     }
@@ -808,12 +784,10 @@ public class PythonTreeMaker {
     Token colon = toPyToken(astNode.getFirstChild(PythonPunctuator.COLON).getToken());
     AstNode firstSuite = astNode.getFirstChild(PythonGrammar.SUITE);
     StatementList body = getStatementListFromSuite(firstSuite);
-    List<ExceptClause> exceptClauseTrees = astNode.getChildren(PythonGrammar.EXCEPT_CLAUSE).stream()
-      .map(except -> {
+    List<ExceptClause> exceptClauseTrees = mapToList(astNode.getChildren(PythonGrammar.EXCEPT_CLAUSE), except -> {
         AstNode suite = except.getNextSibling().getNextSibling();
         return exceptClause(except, getStatementListFromSuite(suite));
-      })
-      .collect(Collectors.toList());
+      });
     checkExceptClauses(exceptClauseTrees);
     FinallyClause finallyClause = null;
     AstNode finallyNode = astNode.getFirstChild(PythonKeyword.FINALLY);
@@ -870,7 +844,7 @@ public class PythonTreeMaker {
   }
 
   private List<WithItem> withItems(List<AstNode> withItems) {
-    return withItems.stream().map(this::withItem).collect(Collectors.toList());
+    return mapToList(withItems, this::withItem);
   }
 
   private WithItem withItem(AstNode withItem) {
@@ -915,7 +889,7 @@ public class PythonTreeMaker {
     Token colon = toPyToken(matchStmt.getFirstChild(PythonPunctuator.COLON).getToken());
     Token newLine = toPyToken(matchStmt.getFirstChild(PythonTokenType.NEWLINE).getToken());
     Token indent = toPyToken(matchStmt.getFirstChild(PythonTokenType.INDENT).getToken());
-    List<CaseBlock> caseBlocks = matchStmt.getChildren(PythonGrammar.CASE_BLOCK).stream().map(this::caseBlock).collect(Collectors.toList());
+    List<CaseBlock> caseBlocks = mapToList(matchStmt.getChildren(PythonGrammar.CASE_BLOCK), this::caseBlock);
     Token dedent = toPyToken(matchStmt.getFirstChild(PythonTokenType.DEDENT).getToken());
     return new MatchStatementImpl(matchKeyword, expression(subjectExpr), colon, newLine, indent, caseBlocks, dedent);
   }
@@ -953,9 +927,7 @@ public class PythonTreeMaker {
     if (separators.isEmpty()) {
       return closedPattern(pattern.getFirstChild(PythonGrammar.CLOSED_PATTERN));
     }
-    List<Pattern> patterns = pattern.getChildren(PythonGrammar.CLOSED_PATTERN).stream()
-      .map(PythonTreeMaker::closedPattern)
-      .collect(Collectors.toList());
+    List<Pattern> patterns = mapToList(pattern.getChildren(PythonGrammar.CLOSED_PATTERN), PythonTreeMaker::closedPattern);
     return new OrPatternImpl(patterns, separators);
   }
 
@@ -1022,7 +994,7 @@ public class PythonTreeMaker {
       return Collections.emptyList();
     }
     commas.addAll(punctuators(patternArgs, PythonPunctuator.COMMA));
-    return patternArgs.getChildren(PythonGrammar.PATTERN_ARG).stream().map(arg -> patternArg(arg.getFirstChild())).collect(Collectors.toList());
+    return mapToList(patternArgs.getChildren(PythonGrammar.PATTERN_ARG), arg -> patternArg(arg.getFirstChild()));
   }
 
   private static Pattern patternArg(AstNode patternArg) {
@@ -1088,7 +1060,7 @@ public class PythonTreeMaker {
     if (maybeSequencePattern == null) {
       return;
     }
-    patterns.addAll(maybeSequencePattern.getChildren(PythonGrammar.MAYBE_STAR_PATTERN).stream().map(PythonTreeMaker::maybeStarPattern).collect(Collectors.toList()));
+    patterns.addAll(mapToList(maybeSequencePattern.getChildren(PythonGrammar.MAYBE_STAR_PATTERN), PythonTreeMaker::maybeStarPattern));
     commas.addAll(punctuators(maybeSequencePattern, PythonPunctuator.COMMA));
   }
 
@@ -1163,38 +1135,32 @@ public class PythonTreeMaker {
     } else {
       literalKind = Tree.Kind.BOOLEAN_LITERAL_PATTERN;
     }
-    List<Token> tokens = literalPattern.getTokens().stream().map(PythonTreeMaker::toPyToken).collect(Collectors.toList());
+    List<Token> tokens = mapToList(literalPattern.getTokens(), PythonTreeMaker::toPyToken);
     return new LiteralPatternImpl(tokens, literalKind);
   }
 
   // expressions
 
   private List<Expression> expressionsFromTest(AstNode astNode) {
-    return astNode.getChildren(PythonGrammar.TEST).stream().map(this::expression).collect(Collectors.toList());
+    return mapToList(astNode.getChildren(PythonGrammar.TEST), this::expression);
   }
 
   private List<Expression> expressionsFromTestListStarExpr(AstNode astNode) {
-    return astNode
-      .getChildren(PythonGrammar.TEST, PythonGrammar.STAR_EXPR)
-      .stream().map(this::expression).collect(Collectors.toList());
+    return mapToList(astNode.getChildren(PythonGrammar.TEST, PythonGrammar.STAR_EXPR), this::expression);
   }
 
   private List<Expression> expressionsFromExprList(AstNode firstChild) {
-    return firstChild
-      .getChildren(PythonGrammar.EXPR, PythonGrammar.STAR_EXPR)
-      .stream().map(this::expression).collect(Collectors.toList());
+    return mapToList(firstChild.getChildren(PythonGrammar.EXPR, PythonGrammar.STAR_EXPR), this::expression);
   }
 
   private Expression exprListOrTestList(AstNode exprListOrTestList) {
-    List<Expression> expressions = exprListOrTestList
-      .getChildren(PythonGrammar.EXPR, PythonGrammar.STAR_EXPR, PythonGrammar.TEST).stream()
-      .map(this::expression)
-      .collect(Collectors.toList());
+    List<Expression> expressions = mapToList(exprListOrTestList
+      .getChildren(PythonGrammar.EXPR, PythonGrammar.STAR_EXPR, PythonGrammar.TEST), this::expression);
     List<AstNode> commas = exprListOrTestList.getChildren(PythonPunctuator.COMMA);
     if (commas.isEmpty()) {
       return expressions.get(0);
     }
-    List<Token> commaTokens = toPyToken(commas.stream().map(AstNode::getToken).collect(Collectors.toList()));
+    List<Token> commaTokens = toPyToken(mapToList(commas, AstNode::getToken));
     return new TupleImpl(null, expressions, commaTokens, null);
   }
 
@@ -1280,13 +1246,11 @@ public class PythonTreeMaker {
   }
 
   private Expression starNamedExpressions(AstNode astNode) {
-    List<Expression> expressions = astNode
-      .getChildren(PythonGrammar.STAR_NAMED_EXPRESSION).stream()
-      .map(this::expression)
-      .collect(Collectors.toList());
+    List<Expression> expressions = mapToList(astNode
+      .getChildren(PythonGrammar.STAR_NAMED_EXPRESSION), this::expression);
     List<AstNode> commas = astNode.getChildren(PythonPunctuator.COMMA);
     if (!commas.isEmpty()) {
-      List<Token> commaTokens = toPyToken(commas.stream().map(AstNode::getToken).collect(Collectors.toList()));
+      List<Token> commaTokens = toPyToken(mapToList(commas, AstNode::getToken));
       return new TupleImpl(null, expressions, commaTokens, null);
     }
     return expressions.get(0);
@@ -1309,14 +1273,14 @@ public class PythonTreeMaker {
   private Expression repr(AstNode astNode) {
     Token openingBacktick = toPyToken(astNode.getFirstChild(PythonPunctuator.BACKTICK).getToken());
     Token closingBacktick = toPyToken(astNode.getLastChild(PythonPunctuator.BACKTICK).getToken());
-    List<Expression> expressions = astNode.getChildren(PythonGrammar.TEST).stream().map(this::expression).collect(Collectors.toList());
+    List<Expression> expressions = mapToList(astNode.getChildren(PythonGrammar.TEST), this::expression);
     List<Token> commas = punctuators(astNode, PythonPunctuator.COMMA);
     ExpressionList expressionListTree = new ExpressionListImpl(expressions, commas);
     return new ReprExpressionImpl(openingBacktick, expressionListTree, closingBacktick);
   }
 
   private static List<Token> punctuators(AstNode astNode, PythonPunctuator punctuator) {
-    return toPyToken(astNode.getChildren(punctuator).stream().map(AstNode::getToken).collect(Collectors.toList()));
+    return toPyToken(mapToList(astNode.getChildren(punctuator), AstNode::getToken));
   }
 
   private Expression dictOrSetLiteral(AstNode astNode) {
@@ -1356,7 +1320,7 @@ public class PythonTreeMaker {
       }
       return new DictionaryLiteralImpl(lCurlyBrace, commas, dictionaryLiteralElements, rCurlyBrace);
     }
-    List<Expression> expressions = dictOrSetMaker.getChildren(PythonGrammar.TEST, PythonGrammar.STAR_EXPR).stream().map(this::expression).collect(Collectors.toList());
+    List<Expression> expressions = mapToList(dictOrSetMaker.getChildren(PythonGrammar.TEST, PythonGrammar.STAR_EXPR), this::expression);
     return new SetLiteralImpl(lCurlyBrace, expressions, commas, rCurlyBrace);
   }
 
@@ -1385,7 +1349,7 @@ public class PythonTreeMaker {
       return new ParenthesizedExpressionImpl(lPar, expression, rPar);
     }
 
-    List<Token> commaTokens = toPyToken(commas.stream().map(AstNode::getToken).collect(Collectors.toList()));
+    List<Token> commaTokens = toPyToken(mapToList(commas, AstNode::getToken));
     return new TupleImpl(lPar, expressionList.expressions(), commaTokens, rPar);
   }
 
@@ -1456,7 +1420,7 @@ public class PythonTreeMaker {
       return new SliceExpressionImpl(expr, leftBracket, sliceList, rightBracket);
 
     } else {
-      List<Expression> expressions = slices.stream().map(Expression.class::cast).collect(Collectors.toList());
+      List<Expression> expressions = mapToList(slices, Expression.class::cast);
       List<Token> commas = punctuators(subscriptList, PythonPunctuator.COMMA);
       ExpressionList subscripts = new ExpressionListImpl(expressions, commas);
       return new SubscriptionExpressionImpl(expr, leftBracket, subscripts, rightBracket);
@@ -1538,9 +1502,7 @@ public class PythonTreeMaker {
   @CheckForNull
   private ArgList argList(@Nullable AstNode argList) {
     if (argList != null) {
-      List<Argument> arguments = argList.getChildren(PythonGrammar.ARGUMENT).stream()
-        .map(this::argument)
-        .collect(Collectors.toList());
+      List<Argument> arguments = mapToList(argList.getChildren(PythonGrammar.ARGUMENT), this::argument);
       List<Token> commas = punctuators(argList, PythonPunctuator.COMMA);
       return new ArgListImpl(arguments, commas);
     }
@@ -1645,9 +1607,7 @@ public class PythonTreeMaker {
     AstNode paramList = parameter.getFirstChild(PythonGrammar.TFPLIST, PythonGrammar.FPLIST);
     // Python 2 only, PEP 3113: Tuple parameter unpacking removed
     if (paramList != null) {
-      List<AnyParameter> params = paramList.getChildren(PythonGrammar.TFPDEF, PythonGrammar.FPDEF).stream()
-        .map(this::parameter)
-        .collect(Collectors.toList());
+      List<AnyParameter> params = mapToList(paramList.getChildren(PythonGrammar.TFPDEF, PythonGrammar.FPDEF), this::parameter);
       List<Token> commas = punctuators(paramList, PythonPunctuator.COMMA);
       return new TupleParameterImpl(toPyToken(parameter.getFirstChild(PythonPunctuator.LPARENTHESIS).getToken()),
         params, commas,
@@ -1785,4 +1745,12 @@ public class PythonTreeMaker {
     return suite.getFirstChild(PythonTokenType.DEDENT) == null ? null : toPyToken(suite.getFirstChild(PythonTokenType.DEDENT).getToken());
   }
 
+
+  private static <T, R> List<R> mapToList(List<T> elements, Function<? super T, ? extends R> mapper) {
+    List<R> result = new ArrayList<>(elements.size());
+    for (T element : elements) {
+      result.add(mapper.apply(element));
+    }
+    return result;
+  }
 }
@@ -19,9 +19,8 @@
  */
 package org.sonar.python.tree;
 
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.sonar.plugins.python.api.symbols.Symbol;
 import org.sonar.plugins.python.api.tree.Expression;
 import org.sonar.plugins.python.api.tree.Name;
@@ -71,7 +70,7 @@ public class QualifiedExpressionImpl extends PyTree implements QualifiedExpressi
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(qualifier, dotToken, name).collect(Collectors.toList());
+    return Arrays.asList(qualifier, dotToken, name);
   }
 
   @Override
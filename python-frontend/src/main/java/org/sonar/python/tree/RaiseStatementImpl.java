@@ -22,9 +22,6 @@ package org.sonar.python.tree;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.plugins.python.api.tree.Expression;
@@ -89,7 +86,6 @@ public class RaiseStatementImpl extends SimpleStatement implements RaiseStatemen
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(Collections.singletonList(raiseKeyword), expressions, Arrays.asList(fromKeyword, fromExpression), separators.elements())
-      .flatMap(List::stream).filter(Objects::nonNull).collect(Collectors.toList());
+    return flattenNonNullChildren(Collections.singletonList(raiseKeyword), expressions, Arrays.asList(fromKeyword, fromExpression), separators.elements());
   }
 }
@@ -19,9 +19,8 @@
  */
 package org.sonar.python.tree;
 
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.sonar.plugins.python.api.tree.ExpressionList;
 import org.sonar.plugins.python.api.tree.ReprExpression;
 import org.sonar.plugins.python.api.tree.Token;
@@ -46,7 +45,7 @@ public class ReprExpressionImpl extends PyTree implements ReprExpression {
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(openingBacktick, expressionListTree, closingBacktick).collect(Collectors.toList());
+    return Arrays.asList(openingBacktick, expressionListTree, closingBacktick);
   }
 
   @Override
@@ -20,10 +20,9 @@
 package org.sonar.python.tree;
 
 import com.sonar.sslr.api.AstNode;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.plugins.python.api.tree.Token;
@@ -39,7 +38,11 @@ public class Separators {
   Separators(@Nullable AstNode separator, @Nullable AstNode newline){
     this.separator = separator == null ? null : new TokenImpl(separator.getToken());
     this.newline = newline == null ? null : new TokenImpl(newline.getToken());
-    this.elements = Stream.of(this.separator, this.newline).filter(Objects::nonNull).collect(Collectors.toList());
+    if (this.separator == null) {
+      this.elements = this.newline == null ? Collections.emptyList() : Collections.singletonList(this.newline);
+    } else {
+      this.elements = this.newline == null ? Collections.singletonList(this.separator) : Arrays.asList(this.separator, this.newline);
+    }
   }
 
   @CheckForNull
@@ -21,9 +21,6 @@ package org.sonar.python.tree;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.sonar.plugins.python.api.tree.Expression;
 import org.sonar.plugins.python.api.tree.SliceExpression;
 import org.sonar.plugins.python.api.tree.SliceList;
@@ -80,7 +77,7 @@ public class SliceExpressionImpl extends PyTree implements SliceExpression, HasT
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(object, leftBracket, sliceList, rightBracket).filter(Objects::nonNull).collect(Collectors.toList());
+    return nonNullChildren(object, leftBracket, sliceList, rightBracket);
   }
 
   @Override
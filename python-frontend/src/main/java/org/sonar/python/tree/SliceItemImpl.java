@@ -20,9 +20,6 @@
 package org.sonar.python.tree;
 
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.plugins.python.api.tree.Expression;
@@ -86,7 +83,7 @@ public class SliceItemImpl extends PyTree implements SliceItem {
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(lowerBound, boundSeparator, upperBound, strideSeparator, stride).filter(Objects::nonNull).collect(Collectors.toList());
+    return nonNullChildren(lowerBound, boundSeparator, upperBound, strideSeparator, stride);
   }
 
   @Override
@@ -20,6 +20,7 @@
 package org.sonar.python.tree;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -73,13 +74,16 @@ public class StringElementImpl extends PyTree implements StringElement {
     // Warning: in the case of f-strings, there's a kind of overlap between `token` and `formattedExpressions`: they
     // are different representations of the same analyzed code.
     // TreeUtils.tokens() doesn't contain the tokens of the formattedExpressions.
-    List<Tree> children = new ArrayList<>();
+    if (fStringMiddles.isEmpty() && fstringEnd == null) {
+      return Collections.singletonList(token);
+    }
+    List<Tree> children = new ArrayList<>(fStringMiddles.size() + 2);
     children.add(token);
     children.addAll(fStringMiddles);
-    children.add(fstringEnd);
-    return children.stream()
-      .filter(Objects::nonNull)
-      .collect(Collectors.toList());
+    if (fstringEnd != null) {
+      children.add(fstringEnd);
+    }
+    return children;
   }
 
   @Override
@@ -20,9 +20,9 @@
 package org.sonar.python.tree;
 
 import com.sonar.sslr.api.TokenType;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 import org.sonar.plugins.python.api.tree.Token;
 import org.sonar.plugins.python.api.tree.Tree;
 import org.sonar.plugins.python.api.tree.TreeVisitor;
@@ -31,11 +31,13 @@ import org.sonar.plugins.python.api.tree.Trivia;
 public class TokenImpl extends PyTree implements Token {
 
   private com.sonar.sslr.api.Token token;
+  /**
+   * Materialized on first access: most tokens have no trivia and most consumers never look at comments.
+   */
   private List<Trivia> trivia;
 
   public TokenImpl(com.sonar.sslr.api.Token token) {
     this.token = token;
-    this.trivia = token.getTrivia().stream().map(tr -> new TriviaImpl(new TokenImpl(tr.getToken()))).collect(Collectors.toList());
   }
 
   @Override
@@ -55,7 +57,27 @@ public class TokenImpl extends PyTree implements Token {
 
   @Override
   public List<Trivia> trivia() {
-    return trivia;
+    List<Trivia> result = trivia;
+    if (result == null) {
+      List<com.sonar.sslr.api.Trivia> sslrTrivia = token.getTrivia();
+      if (sslrTrivia.isEmpty()) {
+        result = Collections.emptyList();
+      } else {
+        result = new ArrayList<>(sslrTrivia.size());
+        for (com.sonar.sslr.api.Trivia tr : sslrTrivia) {
+          result.add(new TriviaImpl(new TokenImpl(tr.getToken())));
+        }
+      }
+      trivia = result;
+    }
+    return result;
+  }
+
+  /**
+   * Same as {@code !trivia().isEmpty()}, without materializing the trivia.
+   */
+  public boolean hasTrivia() {
+    return trivia != null ? !trivia.isEmpty() : token.hasTrivia();
   }
 
   public TokenType type() {
@@ -104,6 +104,9 @@ public class TreeUtils {
     if (tree.is(Kind.TOKEN)) {
       return Collections.singletonList((Token) tree);
     } 
+    if (tree instanceof FileInputImpl) {
+      return new ArrayList<>(((FileInputImpl) tree).fileTokens().asList());
+    }
     List<Token> tokens = new ArrayList<>();
     for (Tree child : tree.children()) {
       if (child.is(Kind.TOKEN)) {
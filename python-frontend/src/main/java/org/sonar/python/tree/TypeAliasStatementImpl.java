@@ -19,10 +19,8 @@
  */
 package org.sonar.python.tree;
 
+import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.plugins.python.api.tree.Expression;
@@ -89,14 +87,7 @@ public class TypeAliasStatementImpl extends SimpleStatement implements TypeAlias
 
   @Override
   List<Tree> computeChildren() {
-    var builder = Stream.<Tree>builder()
-      .add(typeKeyword())
-      .add(name())
-      .add(typeParams())
-      .add(equalToken()).add(expression());
-
-    separator.elements().forEach(builder::add);
-    return builder.build().filter(Objects::nonNull).collect(Collectors.toList());
+    return flattenNonNullChildren(Arrays.asList(typeKeyword, name, typeParams, equalToken, expression), separator.elements());
   }
 
   @Override
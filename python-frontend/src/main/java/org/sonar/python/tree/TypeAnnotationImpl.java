@@ -20,9 +20,6 @@
 package org.sonar.python.tree;
 
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.sonar.plugins.python.api.tree.Expression;
 import org.sonar.plugins.python.api.tree.Token;
 import org.sonar.plugins.python.api.tree.Tree;
@@ -65,7 +62,7 @@ public class TypeAnnotationImpl extends PyTree implements TypeAnnotation {
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(dash, gt, colonToken, expression).filter(Objects::nonNull).collect(Collectors.toList());
+    return nonNullChildren(dash, gt, colonToken, expression);
   }
 
   @Override
@@ -20,9 +20,6 @@
 package org.sonar.python.tree;
 
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.plugins.python.api.tree.Name;
@@ -73,6 +70,6 @@ public class TypeParamImpl extends PyTree implements TypeParam {
 
   @Override
   List<Tree> computeChildren() {
-    return Stream.of(starToken, name, annotation).filter(Objects::nonNull).collect(Collectors.toList());
+    return nonNullChildren(starToken, name, annotation);
   }
 }
@@ -19,11 +19,8 @@
  */
 package org.sonar.python.tree;
 
-import java.util.Comparator;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.sonar.plugins.python.api.tree.Token;
 import org.sonar.plugins.python.api.tree.Tree;
 import org.sonar.plugins.python.api.tree.TreeVisitor;
@@ -71,15 +68,17 @@ public class TypeParamsImpl extends PyTree implements TypeParams {
 
   @Override
   List<Tree> computeChildren() {
-    var builder = Stream.<Tree>builder();
-    builder.add(leftPar);
-    typeParamsList.forEach(builder::add);
-    commas.forEach(builder::add);
-    builder.add(rightPar);
-
-    return builder.build()
-      .filter(Objects::nonNull)
-      .sorted(Comparator.<Tree, Integer>comparing(t -> t.firstToken().line()).thenComparing(t -> t.firstToken().column()))
-      .collect(Collectors.toList());
+    List<Tree> children = new ArrayList<>(typeParamsList.size() + commas.size() + 2);
+    children.add(leftPar);
+    int i = 0;
+    for (TypeParam typeParam : typeParamsList) {
+      children.add(typeParam);
+      if (i < commas.size()) {
+        children.add(commas.get(i));
+      }
+      i++;
+    }
+    children.add(rightPar);
+    return children;
   }
 }
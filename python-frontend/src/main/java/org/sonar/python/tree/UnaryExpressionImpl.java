@@ -22,9 +22,6 @@ package org.sonar.python.tree;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.sonar.plugins.python.api.tree.Expression;
 import org.sonar.plugins.python.api.tree.Token;
 import org.sonar.plugins.python.api.tree.Tree;
@@ -73,7 +70,7 @@ public class UnaryExpressionImpl extends PyTree implements UnaryExpression {
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(operator, expression).filter(Objects::nonNull).collect(Collectors.toList());
+    return nonNullChildren(operator, expression);
   }
 
   @Override
@@ -20,9 +20,6 @@
 package org.sonar.python.tree;
 
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.sonar.plugins.python.api.tree.Expression;
 import org.sonar.plugins.python.api.tree.UnpackingExpression;
 import org.sonar.plugins.python.api.tree.Token;
@@ -56,7 +53,7 @@ public class UnpackingExpressionImpl extends PyTree implements UnpackingExpressi
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(starToken, expression).filter(Objects::nonNull).collect(Collectors.toList());
+    return nonNullChildren(starToken, expression);
   }
 
   @Override
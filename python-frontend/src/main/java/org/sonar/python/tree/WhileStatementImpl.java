@@ -20,9 +20,6 @@
 package org.sonar.python.tree;
 
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.plugins.python.api.tree.ElseClause;
@@ -94,8 +91,7 @@ public class WhileStatementImpl extends PyTree implements WhileStatement {
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(whileKeyword, condition, colon, firstNewline, firstIndent, body, firstDedent,
-      elseClause).filter(Objects::nonNull)
-      .collect(Collectors.toList());
+    return nonNullChildren(whileKeyword, condition, colon, firstNewline, firstIndent, body, firstDedent,
+      elseClause);
   }
 }
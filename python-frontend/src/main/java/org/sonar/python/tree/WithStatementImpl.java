@@ -22,9 +22,6 @@ package org.sonar.python.tree;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.plugins.python.api.tree.Expression;
@@ -109,9 +106,18 @@ public class WithStatementImpl extends PyTree implements WithStatement {
     visitor.visitWithStatement(this);
   }
 
+  private static void addIfNotNull(List<Tree> children, Tree... trees) {
+    for (Tree tree : trees) {
+      if (tree != null) {
+        children.add(tree);
+      }
+    }
+  }
+
   @Override
   public List<Tree> computeChildren() {
-    List<Tree> children = new ArrayList<>(Arrays.asList(asyncKeyword, withKeyword, openParens));
+    List<Tree> children = new ArrayList<>(withItems.size() + commas.size() + 9);
+    addIfNotNull(children, asyncKeyword, withKeyword, openParens);
     int i = 0;
     for (Tree item : withItems) {
       children.add(item);
@@ -120,8 +126,8 @@ public class WithStatementImpl extends PyTree implements WithStatement {
       }
       i++;
     }
-    children.addAll(Arrays.asList(closeParens, colon, newLine, indent, statements, dedent));
-    return children.stream().filter(Objects::nonNull).collect(Collectors.toList());
+    addIfNotNull(children, closeParens, colon, newLine, indent, statements, dedent);
+    return children;
   }
 
   public static class WithItemImpl extends PyTree implements WithItem {
@@ -165,7 +171,7 @@ public class WithStatementImpl extends PyTree implements WithStatement {
 
     @Override
     public List<Tree> computeChildren() {
-      return Stream.of(test, as, expr).filter(Objects::nonNull).collect(Collectors.toList());
+      return nonNullChildren(test, as, expr);
     }
   }
 }
@@ -21,9 +21,6 @@ package org.sonar.python.tree;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.plugins.python.api.tree.Expression;
@@ -71,7 +68,6 @@ public class YieldExpressionImpl extends PyTree implements YieldExpression {
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(Arrays.asList(yieldKeyword, fromKeyword), expressionTrees)
-      .flatMap(List::stream).filter(Objects::nonNull).collect(Collectors.toList());
+    return flattenNonNullChildren(Arrays.asList(yieldKeyword, fromKeyword), expressionTrees);
   }
 }
@@ -21,9 +21,6 @@ package org.sonar.python.tree;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.sonar.plugins.python.api.tree.Token;
 import org.sonar.plugins.python.api.tree.Tree;
 import org.sonar.plugins.python.api.tree.TreeVisitor;
@@ -61,6 +58,6 @@ public class YieldStatementImpl extends SimpleStatement implements YieldStatemen
 
   @Override
   public List<Tree> computeChildren() {
-    return Stream.of(Collections.singletonList(yieldExpression), separators.elements()).flatMap(List::stream).filter(Objects::nonNull).collect(Collectors.toList());
+    return flattenNonNullChildren(Collections.singletonList(yieldExpression), separators.elements());
   }
 }
@@ -29,6 +29,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -46,6 +47,7 @@ import org.sonar.plugins.python.api.tree.Tree.Kind;
 import org.sonar.plugins.python.api.tree.TypeAnnotation;
 import org.sonar.plugins.python.api.types.BuiltinTypes;
 import org.sonar.plugins.python.api.types.InferredType;
+import org.sonar.python.semantic.ClassSymbolImpl;
 import org.sonar.python.semantic.SymbolImpl;
 import org.sonar.python.tree.TreeUtils;
 import org.sonar.python.types.protobuf.SymbolsProtos;
@@ -128,6 +130,9 @@ public class InferredTypes {
 
   private static final SymbolImpl OPTIONAL_SYMBOL = new SymbolImpl("Optional", "typing.Optional");
 
+  // Builtin runtime types only depend on their fully qualified name: a single instance is shared for each of them
+  private static final Map<String, RuntimeType> BUILTIN_RUNTIME_TYPES = new ConcurrentHashMap<>();
+
   private InferredTypes() {
   }
 
@@ -136,7 +141,7 @@ public class InferredTypes {
   }
 
   static InferredType runtimeBuiltinType(String fullyQualifiedName) {
-    return new RuntimeType(fullyQualifiedName);
+    return BUILTIN_RUNTIME_TYPES.computeIfAbsent(fullyQualifiedName, RuntimeType::new);
   }
 
   private static InferredType declaredBuiltinType(String fullyQualifiedName) {
@@ -144,6 +149,9 @@ public class InferredTypes {
   }
 
   public static InferredType runtimeType(@Nullable Symbol typeClass) {
+    if (typeClass instanceof ClassSymbolImpl) {
+      return ((ClassSymbolImpl) typeClass).instancesType(RuntimeType::new);
+    }
     if (typeClass instanceof ClassSymbol) {
       return new RuntimeType((ClassSymbol) typeClass);
     }
@@ -35,6 +35,9 @@ class RuntimeType implements InferredType {
   private String builtinFullyQualifiedName;
   private Set<String> typeClassSuperClassesFQN = null;
   private Set<String> typeClassMembersFQN = null;
+  private int hashCode = 0;
+  // Type class from which the state above was computed: builtin type classes are replaced when typeshed builtins are reset
+  private ClassSymbol memoizedTypeClass = null;
 
   RuntimeType(ClassSymbol typeClass) {
     this.typeClass = typeClass;
@@ -113,6 +116,7 @@ class RuntimeType implements InferredType {
   }
 
   private Set<String> typeClassSuperClassesFQN() {
+    invalidateMemoizedStateIfTypeClassChanged();
     if (typeClassSuperClassesFQN == null) {
       typeClassSuperClassesFQN = getTypeClass().superClasses().stream().map(Symbol::fullyQualifiedName).collect(Collectors.toSet());
     }
@@ -120,19 +124,34 @@ class RuntimeType implements InferredType {
   }
 
   private Set<String> typeClassMembersFQN() {
+    invalidateMemoizedStateIfTypeClassChanged();
     if (typeClassMembersFQN == null) {
       typeClassMembersFQN = getTypeClass().declaredMembers().stream().map(Symbol::fullyQualifiedName).collect(Collectors.toSet());
     }
     return typeClassMembersFQN;
   }
 
+  private void invalidateMemoizedStateIfTypeClassChanged() {
+    ClassSymbol currentTypeClass = getTypeClass();
+    if (currentTypeClass != memoizedTypeClass) {
+      memoizedTypeClass = currentTypeClass;
+      typeClassSuperClassesFQN = null;
+      typeClassMembersFQN = null;
+      hashCode = 0;
+    }
+  }
+
   boolean hasUnresolvedHierarchy() {
     return ((ClassSymbolImpl) getTypeClass()).hasUnresolvedTypeHierarchy(false);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(getTypeClass().name(), getTypeClass().fullyQualifiedName(), typeClassSuperClassesFQN(), typeClassMembersFQN());
+    invalidateMemoizedStateIfTypeClassChanged();
+    if (hashCode == 0) {
+      hashCode = Objects.hash(getTypeClass().name(), getTypeClass().fullyQualifiedName(), typeClassSuperClassesFQN(), typeClassMembersFQN());
+    }
+    return hashCode;
   }
 
   @Override
@@ -53,6 +53,7 @@ import org.sonar.plugins.python.api.tree.StatementList;
 import org.sonar.plugins.python.api.tree.Tree;
 import org.sonar.plugins.python.api.tree.TryStatement;
 import org.sonar.plugins.python.api.types.InferredType;
+import org.sonar.python.cfg.ControlFlowCache;
 import org.sonar.python.semantic.SymbolImpl;
 import org.sonar.python.tree.FunctionDefImpl;
 import org.sonar.python.tree.NameImpl;
@@ -71,11 +72,18 @@ public class TypeInference extends BaseTreeVisitor {
   private Map<String, InferredType> parameterTypesByName = new HashMap<>();
 
   public static void inferTypes(FileInput fileInput, PythonFile pythonFile) {
+    inferTypes(fileInput, new ControlFlowCache(pythonFile));
+  }
+
+  public static void inferTypes(FileInput fileInput, ControlFlowCache controlFlowCache) {
+    // Functions are processed sequentially, innermost first: the inference of an enclosing function reads the types
+    // already set on names of its nested functions, and types are written to the tree while the fixpoint is computed.
+    // Typeshed symbols are also loaded lazily into shared static state, so scopes must not be processed concurrently.
     fileInput.accept(new BaseTreeVisitor() {
       @Override
       public void visitFunctionDef(FunctionDef funcDef) {
         super.visitFunctionDef(funcDef);
-        inferTypesAndMemberAccessSymbols(funcDef, pythonFile);
+        inferTypesAndMemberAccessSymbols(funcDef, controlFlowCache);
       }
     });
     fileInput.accept(new BaseTreeVisitor() {
@@ -94,24 +102,26 @@ public class TypeInference extends BaseTreeVisitor {
         }
       }
     });
-    inferTypesAndMemberAccessSymbols(fileInput, pythonFile);
+    inferTypesAndMemberAccessSymbols(fileInput, controlFlowCache);
   }
 
   private static Set<Symbol> getTrackedVars(Set<Symbol> localVariables, Set<Name> assignedNames) {
     Set<Symbol> trackedVars = new HashSet<>();
     for (Symbol variable : localVariables) {
+      if (variable.hasUsageOfKind(Usage.Kind.GLOBAL_DECLARATION)) {
+        continue;
+      }
       boolean hasMissingBindingUsage = variable.usages().stream()
         .filter(Usage::isBindingUsage)
         .anyMatch(u -> !assignedNames.contains(u.tree()));
-      boolean isGlobal = variable.usages().stream().anyMatch(v -> v.kind().equals(Usage.Kind.GLOBAL_DECLARATION));
-      if (!hasMissingBindingUsage && !isGlobal) {
+      if (!hasMissingBindingUsage) {
         trackedVars.add(variable);
       }
     }
     return trackedVars;
   }
 
-  private static void inferTypesAndMemberAccessSymbols(FileInput fileInput, PythonFile pythonFile) {
+  private static void inferTypesAndMemberAccessSymbols(FileInput fileInput, ControlFlowCache controlFlowCache) {
     StatementList statements = fileInput.statements();
     if (statements == null) {
       return;
@@ -121,11 +131,12 @@ public class TypeInference extends BaseTreeVisitor {
       statements,
       fileInput.globalVariables(),
       Collections.emptySet(),
-      () -> ControlFlowGraph.build(fileInput, pythonFile)
+      controlFlowCache,
+      () -> controlFlowCache.cfg(fileInput)
     );
   }
 
-  private static void inferTypesAndMemberAccessSymbols(FunctionDef functionDef, PythonFile pythonFile) {
+  private static void inferTypesAndMemberAccessSymbols(FunctionDef functionDef, ControlFlowCache controlFlowCache) {
     Set<Name> annotatedParamNames = TreeUtils.nonTupleParameters(functionDef).stream()
       .filter(parameter -> parameter.typeAnnotation() != null)
       .map(Parameter::name)
@@ -135,7 +146,8 @@ public class TypeInference extends BaseTreeVisitor {
       functionDef.body(),
       functionDef.localVariables(),
       annotatedParamNames,
-      () -> ControlFlowGraph.build(functionDef, pythonFile)
+      controlFlowCache,
+      () -> controlFlowCache.cfg(functionDef)
     );
   }
 
@@ -143,6 +155,7 @@ public class TypeInference extends BaseTreeVisitor {
     StatementList statements,
     Set<Symbol> declaredVariables,
     Set<Name> annotatedParameterNames,
+    ControlFlowCache controlFlowCache,
     Supplier<ControlFlowGraph> controlFlowGraphSupplier
   ) {
     TypeInference visitor = new TypeInference();
@@ -156,16 +169,25 @@ public class TypeInference extends BaseTreeVisitor {
     statements.accept(tryStatementVisitor);
     if (tryStatementVisitor.hasTryStatement) {
       // CFG doesn't model precisely try-except statements. Hence we fallback to AST based type inference
-      visitor.processPropagations(getTrackedVars(declaredVariables, assignedNames));
-      statements.accept(new NameVisitor());
-    } else {
-      ControlFlowGraph cfg = controlFlowGraphSupplier.get();
-      if (cfg == null) {
-        return;
-      }
-      assignedNames.addAll(annotatedParameterNames);
-      visitor.flowSensitiveTypeInference(cfg, getTrackedVars(declaredVariables, assignedNames), scopeTree);
+      visitor.flowInsensitiveTypeInference(statements, getTrackedVars(declaredVariables, assignedNames));
+      return;
     }
+    ControlFlowGraph cfg = controlFlowGraphSupplier.get();
+    if (cfg == null) {
+      return;
+    }
+    if (controlFlowCache.isTooLargeForDataFlow(cfg)) {
+      // Fixpoint computation on huge CFGs (e.g. generated code) is too costly. Hence we fallback to AST based type inference
+      visitor.flowInsensitiveTypeInference(statements, getTrackedVars(declaredVariables, assignedNames));
+      return;
+    }
+    assignedNames.addAll(annotatedParameterNames);
+    visitor.flowSensitiveTypeInference(cfg, getTrackedVars(declaredVariables, assignedNames), scopeTree);
+  }
+
+  private void flowInsensitiveTypeInference(StatementList statements, Set<Symbol> trackedVars) {
+    processPropagations(trackedVars);
+    statements.accept(new NameVisitor());
   }
 
   private static class NameVisitor extends BaseTreeVisitor {
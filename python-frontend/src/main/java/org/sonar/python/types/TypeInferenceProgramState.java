@@ -31,15 +31,47 @@ import org.sonar.plugins.python.api.symbols.Symbol;
 import org.sonar.plugins.python.api.types.InferredType;
 import org.sonar.python.cfg.fixpoint.ProgramState;
 
+/**
+ * Types of the tracked variables at a given program point.
+ * <p>
+ * States are cheap to copy: a copy shares the map of its origin, which is only duplicated by the first write performed on either
+ * of them. Sets of types are never modified once they are stored in a state, so they are shared as well.
+ */
 public class TypeInferenceProgramState implements ProgramState {
+
+  /**
+   * Joins producing more types than this for a variable are widened to {@link #WIDENED}, so that fixpoints on huge functions
+   * converge quickly.
+   */
+  static final int MAX_TYPES_PER_VARIABLE = 32;
+
+  /**
+   * Top of the lattice: absorbs any other set of types. Compared by identity.
+   */
+  static final Set<InferredType> WIDENED = Collections.singleton(InferredTypes.anyType());
+
   // Using Set of types instead of "Union type" in order to represent BOTTOM as an empty set
-  private final Map<Symbol, Set<InferredType>> inferredTypesBySymbol;
+  private Map<Symbol, Set<InferredType>> inferredTypesBySymbol;
+  private boolean shared;
 
   TypeInferenceProgramState() {
-    this.inferredTypesBySymbol = new HashMap<>();
+    this(new HashMap<>(), false);
+  }
+
+  private TypeInferenceProgramState(Map<Symbol, Set<InferredType>> inferredTypesBySymbol, boolean shared) {
+    this.inferredTypesBySymbol = inferredTypesBySymbol;
+    this.shared = shared;
   }
 
   void setTypes(Symbol symbol, Set<InferredType> types) {
+    Set<InferredType> currentTypes = inferredTypesBySymbol.get(symbol);
+    if (currentTypes != null && currentTypes.equals(types)) {
+      return;
+    }
+    if (shared) {
+      inferredTypesBySymbol = new HashMap<>(inferredTypesBySymbol);
+      shared = false;
+    }
     inferredTypesBySymbol.put(symbol, types);
   }
 
@@ -56,7 +88,7 @@ public class TypeInferenceProgramState implements ProgramState {
       return false;
     }
     TypeInferenceProgramState that = (TypeInferenceProgramState) o;
-    return Objects.equals(inferredTypesBySymbol, that.inferredTypesBySymbol);
+    return inferredTypesBySymbol == that.inferredTypesBySymbol || Objects.equals(inferredTypesBySymbol, that.inferredTypesBySymbol);
   }
 
   @Override
@@ -78,24 +110,48 @@ public class TypeInferenceProgramState implements ProgramState {
     return result.toString();
   }
 
+  /**
+   * Returns this state itself when the other state doesn't bring any new type, so that callers can detect that nothing has changed
+   * without comparing states.
+   */
   @Override
   public ProgramState join(ProgramState otherState) {
-    TypeInferenceProgramState result = new TypeInferenceProgramState();
-    ((TypeInferenceProgramState) otherState).inferredTypesBySymbol.forEach(((symbol, types) -> {
-      HashSet<InferredType> union = new HashSet<>(types);
-      union.addAll(inferredTypesBySymbol.getOrDefault(symbol, Collections.emptySet()));
-      result.setTypes(symbol, union);
-    }));
-    inferredTypesBySymbol.forEach(((symbol, types) -> {
-      if (!result.inferredTypesBySymbol.containsKey(symbol)) {
-        result.setTypes(symbol, types);
+    Map<Symbol, Set<InferredType>> result = null;
+    for (Map.Entry<Symbol, Set<InferredType>> entry : ((TypeInferenceProgramState) otherState).inferredTypesBySymbol.entrySet()) {
+      Symbol symbol = entry.getKey();
+      Set<InferredType> currentTypes = inferredTypesBySymbol.get(symbol);
+      Set<InferredType> joinedTypes = join(currentTypes, entry.getValue());
+      if (joinedTypes != currentTypes) {
+        if (result == null) {
+          result = new HashMap<>(inferredTypesBySymbol);
+        }
+        result.put(symbol, joinedTypes);
       }
-    }));
-    return result;
+    }
+    return result == null ? this : new TypeInferenceProgramState(result, false);
+  }
+
+  /**
+   * Returns {@code currentTypes} itself if it already contains all the other types.
+   */
+  private static Set<InferredType> join(@Nullable Set<InferredType> currentTypes, Set<InferredType> otherTypes) {
+    if (currentTypes == null) {
+      return otherTypes;
+    }
+    if (currentTypes == WIDENED || currentTypes.containsAll(otherTypes)) {
+      return currentTypes;
+    }
+    if (otherTypes == WIDENED) {
+      return WIDENED;
+    }
+    Set<InferredType> union = new HashSet<>(currentTypes);
+    union.addAll(otherTypes);
+    return union.size() > MAX_TYPES_PER_VARIABLE ? WIDENED : union;
   }
 
   @Override
   public ProgramState copy() {
-    return join(new TypeInferenceProgramState());
+    shared = true;
+    return new TypeInferenceProgramState(inferredTypesBySymbol, true);
   }
 }
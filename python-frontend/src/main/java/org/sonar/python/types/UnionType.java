@@ -33,9 +33,10 @@ import static org.sonar.python.types.InferredTypes.anyType;
 class UnionType implements InferredType {
 
   private final Set<InferredType> types;
+  private int hashCode = 0;
 
   private UnionType(Set<InferredType> types) {
-    this.types = types;
+    this.types = Collections.unmodifiableSet(types);
   }
 
   public static InferredType or(InferredType type1, InferredType type2) {
@@ -45,12 +46,30 @@ class UnionType implements InferredType {
     if (type1.equals(type2)) {
       return type1;
     }
+    // joining a type which is already part of a union is frequent in fixpoint iterations: reuse the existing union
+    if (contains(type1, type2)) {
+      return type1;
+    }
+    if (contains(type2, type1)) {
+      return type2;
+    }
     Set<InferredType> types = new HashSet<>();
     addTypes(type1, types);
     addTypes(type2, types);
     return new UnionType(types);
   }
 
+  private static boolean contains(InferredType union, InferredType type) {
+    if (!(union instanceof UnionType)) {
+      return false;
+    }
+    Set<InferredType> unionTypes = ((UnionType) union).types;
+    if (type instanceof UnionType) {
+      return unionTypes.containsAll(((UnionType) type).types);
+    }
+    return unionTypes.contains(type);
+  }
+
   private static void addTypes(InferredType type, Set<InferredType> types) {
     if (type instanceof UnionType) {
       types.addAll(((UnionType) type).types);
@@ -143,7 +162,10 @@ class UnionType implements InferredType {
 
   @Override
   public int hashCode() {
-    return Objects.hash(types);
+    if (hashCode == 0) {
+      hashCode = Objects.hash(types);
+    }
+    return hashCode;
   }
 
   @Override
@@ -152,6 +174,6 @@ class UnionType implements InferredType {
   }
 
   Set<InferredType> types() {
-    return Collections.unmodifiableSet(types);
+    return types;
   }
 }
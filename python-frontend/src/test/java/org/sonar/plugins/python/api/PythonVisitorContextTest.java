@@ -30,12 +30,16 @@ import org.mockito.Mockito;
 import org.sonar.plugins.python.api.symbols.Symbol;
 import org.sonar.plugins.python.api.tree.FileInput;
 import org.sonar.plugins.python.api.tree.FunctionDef;
+import org.sonar.plugins.python.api.tree.Name;
 import org.sonar.plugins.python.api.tree.Tree;
 import org.sonar.python.PythonTestUtils;
+import org.sonar.python.cfg.ControlFlowCache;
 import org.sonar.python.parser.PythonParser;
 import org.sonar.python.semantic.ProjectLevelSymbolTable;
+import org.sonar.python.semantic.SemanticModelOptions;
 import org.sonar.python.semantic.SymbolImpl;
 import org.sonar.python.tree.PythonTreeMaker;
+import org.sonar.python.types.InferredTypes;
 
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 import static org.sonar.python.PythonTestUtils.pythonFile;
@@ -85,4 +89,20 @@ class PythonVisitorContextTest {
     new PythonVisitorContext(fileInput, pythonFile, null, "my_package", ProjectLevelSymbolTable.from(globalSymbols), null);
     assertThat(fileInput.globalVariables()).extracting(Symbol::name).containsExactlyInAnyOrder("a", "b");
   }
+
+  @Test
+  void without_type_inference() {
+    PythonFile pythonFile = pythonFile("my_module.py");
+    FileInput fileInput = PythonTestUtils.parseWithoutSymbols("x = 42", "x");
+    new PythonVisitorContext(fileInput, pythonFile, null, "my_package", ProjectLevelSymbolTable.empty(), null,
+      new SemanticModelOptions(false, ControlFlowCache.DEFAULT_MAX_BLOCKS_FOR_DATA_FLOW));
+    Name x = PythonTestUtils.getLastDescendant(fileInput, t -> t.is(Tree.Kind.NAME));
+    assertThat(x.symbol()).isNotNull();
+    assertThat(x.type()).isEqualTo(InferredTypes.anyType());
+
+    fileInput = PythonTestUtils.parseWithoutSymbols("x = 42", "x");
+    new PythonVisitorContext(fileInput, pythonFile, null, "my_package", ProjectLevelSymbolTable.empty(), null, SemanticModelOptions.DEFAULT);
+    x = PythonTestUtils.getLastDescendant(fileInput, t -> t.is(Tree.Kind.NAME));
+    assertThat(x.type()).isEqualTo(InferredTypes.INT);
+  }
 }
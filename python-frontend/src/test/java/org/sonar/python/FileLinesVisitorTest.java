@@ -19,9 +19,18 @@
  */
 package org.sonar.python;
 
+import com.sonar.sslr.api.GenericTokenType;
 import java.io.File;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.Test;
+import org.sonar.plugins.python.api.PythonVisitorContext;
+import org.sonar.plugins.python.api.tree.FileInput;
+import org.sonar.plugins.python.api.tree.Token;
 import org.sonar.python.metrics.FileLinesVisitor;
+import org.sonar.python.tree.FileTokens;
+import org.sonar.python.tree.TreeUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -43,6 +52,20 @@ class FileLinesVisitorTest {
     assertThat(visitor.getLinesWithNoSonar()).containsOnly(15, 29, 30, 31, 34, 37, 38, 39, 40, 41, 45);
   }
 
+  @Test
+  void lines_as_bitsets() {
+    FileLinesVisitor visitor = new FileLinesVisitor();
+
+    TestPythonVisitorRunner.scanFile(new File(BASE_DIR, "file_lines.py"), visitor);
+
+    assertThat(visitor.linesOfCode().stream().boxed()).containsExactlyElementsOf(new TreeSet<>(visitor.getLinesOfCode()));
+    assertThat(visitor.linesWithNoSonar().stream().boxed()).containsExactlyElementsOf(new TreeSet<>(visitor.getLinesWithNoSonar()));
+    assertThat(visitor.executableLines().stream().boxed()).containsExactlyElementsOf(new TreeSet<>(visitor.getExecutableLines()));
+
+    visitor.linesOfCode().clear();
+    assertThat(visitor.getLinesOfCode()).hasSize(24);
+  }
+
   @Test
   void test_ignoreHeaderComments() {
     FileLinesVisitor visitor = new FileLinesVisitor();
@@ -60,6 +83,25 @@ class FileLinesVisitorTest {
     assertThat(visitor.getExecutableLines()).containsOnly(1, 2, 4, 7, 11, 13, 14, 15, 16, 18, 20, 21, 22, 23, 25, 27, 28, 29);
   }
 
+  @Test
+  void lines_of_code_only_consider_line_feeds_within_tokens() {
+    FileInput fileInput = PythonTestUtils.parse("x = '''a\rb\r\nc'''", "y = 1");
+    FileLinesVisitor visitor = new FileLinesVisitor();
+    visitor.scanFile(new PythonVisitorContext(fileInput, PythonTestUtils.pythonFile("file"), null, null));
+
+    Set<Integer> expected = TreeUtils.tokens(fileInput).stream()
+      .filter(token -> !token.type().equals(GenericTokenType.EOF))
+      .flatMap(token -> FileLinesVisitor.tokenLineNumbers(token).stream())
+      .collect(Collectors.toSet());
+    assertThat(visitor.getLinesOfCode()).isEqualTo(expected);
+
+    // Both "\r" and "\r\n" end a line in the position of the string token, but lines of code only count "\n"
+    FileTokens tokens = FileTokens.of(fileInput);
+    Token string = tokens.asList().stream().filter(t -> t.value().startsWith("'''")).findFirst().get();
+    assertThat(tokens.endLine(tokens.asList().indexOf(string))).isEqualTo(3);
+    assertThat(visitor.getLinesOfCode()).contains(1, 2).doesNotContain(3);
+  }
+
   @Test
   void empty_file() {
     FileLinesVisitor visitor = new FileLinesVisitor();
@@ -19,7 +19,9 @@
  */
 package org.sonar.python;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.regex.Pattern;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -28,11 +30,13 @@ import org.sonar.plugins.python.api.PythonFile;
 import org.sonar.plugins.python.api.PythonSubscriptionCheck;
 import org.sonar.plugins.python.api.PythonVisitorContext;
 import org.sonar.plugins.python.api.caching.CacheContext;
+import org.sonar.plugins.python.api.tree.AssignmentStatement;
 import org.sonar.plugins.python.api.tree.FileInput;
 import org.sonar.plugins.python.api.tree.StringElement;
 import org.sonar.plugins.python.api.tree.Tree;
 import org.sonar.python.regex.RegexContext;
 import org.sonar.python.semantic.ProjectLevelSymbolTable;
+import org.sonar.python.tree.TreeUtils;
 import org.sonarsource.analyzer.commons.regex.RegexParseResult;
 import org.sonarsource.analyzer.commons.regex.ast.FlagSet;
 
@@ -84,4 +88,68 @@ class SubscriptionVisitorTest {
     };
     SubscriptionVisitor.analyze(Collections.singleton(check), context);
   }
+
+  @Test
+  void visit_order_with_and_without_token_subscriptions() {
+    String code = "x = [" + String.join(", ", Collections.nCopies(200, "a")) + "]\npass\nfoo(1, None)";
+    FileInput fileInput = PythonTestUtils.parse(code);
+    PythonVisitorContext context = new PythonVisitorContext(fileInput, PythonTestUtils.pythonFile("file"), null, null);
+
+    List<Tree> names = new ArrayList<>();
+    PythonSubscriptionCheck nameCheck = new PythonSubscriptionCheck() {
+      @Override
+      public void initialize(Context context) {
+        context.registerSyntaxNodeConsumer(Tree.Kind.NAME, ctx -> names.add(ctx.syntaxNode()));
+      }
+    };
+    SubscriptionVisitor.analyze(Collections.singleton(nameCheck), context);
+    assertThat(names).hasSize(202);
+    assertThat(names.get(0)).isSameAs(((AssignmentStatement) fileInput.statements().statements().get(0)).lhsExpressions().get(0).expressions().get(0));
+
+    List<Tree> tokens = new ArrayList<>();
+    names.clear();
+    PythonSubscriptionCheck tokenCheck = new PythonSubscriptionCheck() {
+      @Override
+      public void initialize(Context context) {
+        context.registerSyntaxNodeConsumer(Tree.Kind.TOKEN, ctx -> tokens.add(ctx.syntaxNode()));
+      }
+    };
+    SubscriptionVisitor.analyze(List.of(nameCheck, tokenCheck), context);
+    assertThat(names).hasSize(202);
+    assertThat(tokens).containsExactlyElementsOf(TreeUtils.tokens(fileInput));
+  }
+
+  @Test
+  void subtrees_are_skipped_only_when_they_cannot_contain_subscribed_kinds() {
+    FileInput fileInput = PythonTestUtils.parse(
+      "@decorator(lambda: 1)",
+      "def foo(p: (lambda: int)() = lambda: 2) -> (lambda: str)():",
+      "  class A:",
+      "    def meth(self): return [lambda: 3 for _ in range(2)]",
+      "  match p:",
+      "    case [x] if (lambda: x)():",
+      "      return f'{(lambda: 4)()}'",
+      "  return (lambda: 5)()");
+    PythonVisitorContext context = new PythonVisitorContext(fileInput, PythonTestUtils.pythonFile("file"), null, null);
+
+    assertThat(visitedNodes(context, Tree.Kind.FUNCDEF, Tree.Kind.RETURN_STMT))
+      .containsExactlyElementsOf(PythonTestUtils.getAllDescendant(fileInput, t -> t.is(Tree.Kind.FUNCDEF, Tree.Kind.RETURN_STMT)));
+    assertThat(visitedNodes(context, Tree.Kind.LAMBDA))
+      .hasSize(8)
+      .containsExactlyElementsOf(PythonTestUtils.getAllDescendant(fileInput, t -> t.is(Tree.Kind.LAMBDA)));
+  }
+
+  private static List<Tree> visitedNodes(PythonVisitorContext context, Tree.Kind... kinds) {
+    List<Tree> visited = new ArrayList<>();
+    PythonSubscriptionCheck check = new PythonSubscriptionCheck() {
+      @Override
+      public void initialize(Context context) {
+        for (Tree.Kind kind : kinds) {
+          context.registerSyntaxNodeConsumer(kind, ctx -> visited.add(ctx.syntaxNode()));
+        }
+      }
+    };
+    SubscriptionVisitor.analyze(Collections.singleton(check), context);
+    return visited;
+  }
 }
@@ -22,9 +22,13 @@ package org.sonar.python.caching;
 import java.io.IOException;
 import java.net.URI;
 import java.util.List;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.Test;
+import org.sonar.plugins.python.api.tree.FileInput;
 import org.sonar.plugins.python.api.tree.Token;
+import org.sonar.python.PythonTestUtils;
 import org.sonar.python.api.PythonKeyword;
+import org.sonar.python.tree.FileTokens;
 import org.sonar.python.tree.TokenImpl;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -43,9 +47,9 @@ class CpdSerializerTest {
       .build();
 
     List<Token> tokens = List.of(new TokenImpl(sslrToken));
-    CpdSerializer.SerializationResult result = CpdSerializer.serialize(tokens);
+    byte[] data = CpdSerializer.serialize(tokens);
 
-    List<CpdSerializer.TokenInfo> tokenInfos = CpdSerializer.deserialize(result.data, result.stringTable);
+    List<CpdSerializer.TokenInfo> tokenInfos = CpdSerializer.deserialize(data);
 
     assertThat(tokenInfos)
       .hasSize(1);
@@ -53,24 +57,56 @@ class CpdSerializerTest {
       .usingRecursiveComparison().isEqualTo(new CpdSerializer.TokenInfo(1, 0, 1, 4, "pass"));
   }
 
+  @Test
+  void delta_encoded_positions() throws IOException {
+    FileInput fileInput = PythonTestUtils.parse(
+      "def foo(x):",
+      "  s = '''multi",
+      "line''' + x",
+      "  return s + \"multi\" + \"multi\"");
+    FileTokens fileTokens = FileTokens.of(fileInput);
+    int[] indexes = IntStream.range(0, fileTokens.size()).toArray();
+
+    byte[] data = CpdSerializer.serialize(fileTokens, indexes);
+
+    List<CpdSerializer.TokenInfo> tokenInfos = CpdSerializer.deserialize(data);
+    assertThat(tokenInfos).hasSize(fileTokens.size());
+    for (int i = 0; i < fileTokens.size(); i++) {
+      assertThat(tokenInfos.get(i))
+        .usingRecursiveComparison()
+        .isEqualTo(new CpdSerializer.TokenInfo(fileTokens.startLine(i), fileTokens.startLineOffset(i), fileTokens.endLine(i), fileTokens.endLineOffset(i),
+          fileTokens.token(i).value()));
+    }
+  }
+
   @Test
   void corrupted_string_table_format() {
-    // A string table with zero elements and an invalid terminator
-    byte[] stringTable = new byte[] {0, 1, 2, 3};
-    byte[] data = new byte[] {0};
+    // A string table announcing more elements than the data can hold
+    byte[] data = new byte[] {10, 1, 2, 3};
 
-    assertThatCode(() -> CpdSerializer.deserialize(data, stringTable))
+    assertThatCode(() -> CpdSerializer.deserialize(data))
       .isInstanceOf(IOException.class)
       .hasMessageStartingWith("Can't read data from cache, format corrupted");
   }
 
   @Test
   void corrupted_data_format() {
-    // A string table with zero elements and a valid terminator string
-    byte[] stringTable = new byte[] {0, 3, 'E', 'N', 'D'};
-    byte[] data = new byte[] {0, 1, 2, 3};
+    // An empty string table, no token, and an invalid terminator
+    byte[] data = new byte[] {0, 0, 1, 2, 3};
+
+    assertThatCode(() -> CpdSerializer.deserialize(data))
+      .isInstanceOf(IOException.class)
+      .hasMessageStartingWith("Can't read data from cache, format corrupted");
+  }
+
+  @Test
+  void corrupted_value_index() {
+    // An empty string table and one token referencing a missing string
+    byte[] data = new byte[] {0, 1, 1, 0, 0, 4, 0, 3, 'E', 'N', 'D'};
 
-    assertThatCode(() -> CpdSerializer.deserialize(data, stringTable))
+    assertThatCode(() -> CpdSerializer.deserialize(data, (startLine, startLineOffset, endLine, endLineOffset, value) -> {
+      throw new IllegalStateException("Should not be called");
+    }))
       .isInstanceOf(IOException.class)
       .hasMessageStartingWith("Can't read data from cache, format corrupted");
   }
@@ -0,0 +1,144 @@
+/*
+ * SonarQube Python Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.python.cfg;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.sonar.plugins.python.api.PythonFile;
+import org.sonar.plugins.python.api.PythonSubscriptionCheck;
+import org.sonar.plugins.python.api.PythonVisitorContext;
+import org.sonar.plugins.python.api.SubscriptionContext;
+import org.sonar.plugins.python.api.cfg.ControlFlowGraph;
+import org.sonar.plugins.python.api.tree.FileInput;
+import org.sonar.plugins.python.api.tree.FunctionDef;
+import org.sonar.plugins.python.api.tree.Name;
+import org.sonar.plugins.python.api.tree.Tree;
+import org.sonar.python.PythonTestUtils;
+import org.sonar.python.SubscriptionVisitor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ControlFlowCacheTest {
+
+  private final PythonFile file = PythonTestUtils.pythonFile("file1.py");
+
+  @Test
+  void cfg_is_built_once() {
+    FileInput fileInput = PythonTestUtils.parseWithoutSymbols(
+      "def f(x):",
+      "  try:",
+      "    y = x",
+      "  except:",
+      "    pass",
+      "x = 42"
+    );
+    ControlFlowCache cache = new ControlFlowCache(file);
+    FunctionDef functionDef = PythonTestUtils.getFirstDescendant(fileInput, t -> t.is(Tree.Kind.FUNCDEF));
+
+    ControlFlowGraph cfg = cache.cfg(functionDef);
+    assertThat(cfg).isNotNull();
+    assertThat(cache.cfg(functionDef)).isSameAs(cfg);
+    assertThat(cache.cfg(fileInput)).isNotNull().isNotSameAs(cfg);
+    assertThat(cache.buildCount()).isEqualTo(2);
+    assertThat(cache.hitCount()).isEqualTo(1);
+  }
+
+  @Test
+  void analyses_are_memoized() {
+    FileInput fileInput = PythonTestUtils.parse(
+      "def f(x):",
+      "  y = x",
+      "  return y"
+    );
+    ControlFlowCache cache = new ControlFlowCache(file);
+    FunctionDef functionDef = PythonTestUtils.getFirstDescendant(fileInput, t -> t.is(Tree.Kind.FUNCDEF));
+
+    assertThat(cache.liveVariables(functionDef)).isNotNull().isSameAs(cache.liveVariables(functionDef));
+    assertThat(cache.definedVariables(functionDef)).isNotNull().isSameAs(cache.definedVariables(functionDef));
+    assertThat(cache.reachingDefinitions()).isSameAs(cache.reachingDefinitions());
+    assertThat(cache.buildCount()).isEqualTo(1);
+  }
+
+  @Test
+  void cfg_shared_between_type_inference_and_checks() {
+    FileInput fileInput = PythonTestUtils.parseWithoutSymbols(
+      "def f(x):",
+      "  y = x",
+      "  return y"
+    );
+    PythonVisitorContext visitorContext = new PythonVisitorContext(fileInput, file, null, "");
+    ControlFlowCache cache = visitorContext.controlFlowCache();
+    int builtByTypeInference = cache.buildCount();
+    assertThat(builtByTypeInference).isPositive();
+
+    List<ControlFlowGraph> cfgs = new ArrayList<>();
+    PythonSubscriptionCheck check = new PythonSubscriptionCheck() {
+      @Override
+      public void initialize(Context context) {
+        context.registerSyntaxNodeConsumer(Tree.Kind.FUNCDEF, ctx -> {
+          assertThat(ControlFlowCache.of(ctx)).isSameAs(cache);
+          cfgs.add(ControlFlowCache.of(ctx).cfg((FunctionDef) ctx.syntaxNode()));
+        });
+      }
+    };
+    SubscriptionVisitor.analyze(List.of(check, check), visitorContext);
+
+    assertThat(cfgs).hasSize(2).doesNotContainNull();
+    assertThat(cfgs.get(0)).isSameAs(cfgs.get(1));
+    assertThat(cache.buildCount()).isEqualTo(builtByTypeInference);
+  }
+
+  @Test
+  void data_flow_skipped_on_large_cfg() {
+    FileInput fileInput = PythonTestUtils.parse(
+      "def f(x):",
+      "  if x:",
+      "    y = x",
+      "  return y"
+    );
+    FunctionDef functionDef = PythonTestUtils.getFirstDescendant(fileInput, t -> t.is(Tree.Kind.FUNCDEF));
+    ControlFlowCache smallCache = new ControlFlowCache(file, 2);
+    assertThat(smallCache.maxBlocksForDataFlow()).isEqualTo(2);
+    assertThat(smallCache.cfg(functionDef)).isNotNull();
+    assertThat(smallCache.cfgForDataFlow(functionDef)).isNull();
+    assertThat(smallCache.liveVariables(functionDef)).isNull();
+    assertThat(smallCache.definedVariables(functionDef)).isNull();
+    Name y = PythonTestUtils.getLastDescendant(fileInput, t -> t.is(Tree.Kind.NAME) && "y".equals(((Name) t).name()));
+    assertThat(smallCache.reachingDefinitions().valuesAtLocation(y)).isEmpty();
+    assertThat(smallCache.tooLargeForDataFlowCount()).isEqualTo(1);
+
+    ControlFlowCache cache = new ControlFlowCache(file);
+    assertThat(cache.maxBlocksForDataFlow()).isEqualTo(ControlFlowCache.DEFAULT_MAX_BLOCKS_FOR_DATA_FLOW);
+    assertThat(cache.cfgForDataFlow(functionDef)).isSameAs(cache.cfg(functionDef));
+    assertThat(cache.liveVariables(functionDef)).isNotNull();
+    assertThat(cache.tooLargeForDataFlowCount()).isZero();
+  }
+
+  @Test
+  void uncached_context() {
+    SubscriptionContext ctx = Mockito.mock(SubscriptionContext.class);
+    Mockito.when(ctx.pythonFile()).thenReturn(file);
+    ControlFlowCache cache = ControlFlowCache.of(ctx);
+    assertThat(cache).isNotSameAs(ControlFlowCache.of(ctx));
+    assertThat(cache.buildCount()).isZero();
+  }
+}
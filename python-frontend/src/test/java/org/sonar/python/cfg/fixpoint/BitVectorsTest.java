@@ -0,0 +1,69 @@
+/*
+ * SonarQube Python Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.python.cfg.fixpoint;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BitVectorsTest {
+
+  @Test
+  void set_and_iterate() {
+    long[] bits = BitVectors.create(130);
+    assertThat(bits).hasSize(3);
+    assertThat(BitVectors.nextSetBit(bits, 0)).isEqualTo(-1);
+    BitVectors.set(bits, 3);
+    BitVectors.set(bits, 64);
+    BitVectors.set(bits, 129);
+    assertThat(BitVectors.get(bits, 64)).isTrue();
+    assertThat(BitVectors.get(bits, 65)).isFalse();
+    assertThat(BitVectors.nextSetBit(bits, 0)).isEqualTo(3);
+    assertThat(BitVectors.nextSetBit(bits, 4)).isEqualTo(64);
+    assertThat(BitVectors.nextSetBit(bits, 65)).isEqualTo(129);
+    assertThat(BitVectors.nextSetBit(bits, 130)).isEqualTo(-1);
+    assertThat(BitVectors.nextSetBit(bits, 500)).isEqualTo(-1);
+  }
+
+  @Test
+  void transfer() {
+    long[] gen = BitVectors.create(70);
+    long[] source = BitVectors.create(70);
+    long[] kill = BitVectors.create(70);
+    long[] target = BitVectors.create(70);
+    BitVectors.set(gen, 1);
+    BitVectors.set(source, 2);
+    BitVectors.set(source, 68);
+    BitVectors.set(kill, 68);
+
+    assertThat(BitVectors.transfer(target, gen, source, kill)).isTrue();
+    assertThat(BitVectors.get(target, 1)).isTrue();
+    assertThat(BitVectors.get(target, 2)).isTrue();
+    assertThat(BitVectors.get(target, 68)).isFalse();
+    assertThat(BitVectors.transfer(target, gen, source, kill)).isFalse();
+
+    long[] copy = BitVectors.create(70);
+    BitVectors.copy(target, copy);
+    BitVectors.or(copy, kill);
+    assertThat(BitVectors.get(copy, 68)).isTrue();
+    BitVectors.clear(copy);
+    assertThat(BitVectors.nextSetBit(copy, 0)).isEqualTo(-1);
+  }
+}
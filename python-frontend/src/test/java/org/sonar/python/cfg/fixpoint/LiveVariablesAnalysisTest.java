@@ -19,10 +19,12 @@
  */
 package org.sonar.python.cfg.fixpoint;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.sonar.plugins.python.api.cfg.CfgValidator;
@@ -212,6 +214,22 @@ class LiveVariablesAnalysisTest {
     fun.localVariables().forEach(symbol -> assertThat(analysis.getLiveVariables(cfg.start()).isSymbolUsedInBlock(symbol)).isTrue());
   }
 
+  @Test
+  void more_variables_than_bits_in_a_word() {
+    List<String> lines = new ArrayList<>();
+    List<String> names = IntStream.range(0, 100).mapToObj(i -> "v" + i).collect(Collectors.toList());
+    names.forEach(name -> lines.add(name + " = 42"));
+    lines.add("while cond():");
+    lines.add("  print(" + String.join(", ", names) + ")");
+    FileInput fileInput = PythonTestUtils.parse("def wrapper():", lines.stream().map(s -> "  " + s).collect(Collectors.joining("\n")));
+    FunctionDef fun = (FunctionDef) fileInput.statements().statements().get(0);
+    ControlFlowGraph cfg = ControlFlowGraph.build(fun, file);
+    LiveVariablesAnalysis analysis = LiveVariablesAnalysis.analyze(cfg);
+    LiveVariablesAnalysis.LiveVariables assignments = analysis.getLiveVariables(cfg.start());
+    assertThat(assignments.getKill()).hasSize(100);
+    assertThat(assignments.getOut()).extracting(Symbol::name).containsAll(names);
+    assertThat(assignments.getIn()).extracting(Symbol::name).doesNotContainAnyElementsOf(names);
+  }
 
   private void verifyLiveVariableAnalysis(String... lines) {
     verifyLiveVariableAnalysisWithArgs("", lines);
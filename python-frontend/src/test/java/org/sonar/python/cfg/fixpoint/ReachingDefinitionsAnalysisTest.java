@@ -27,6 +27,7 @@ import static org.sonar.python.PythonTestUtils.lastExpression;
 import static org.sonar.python.PythonTestUtils.lastExpressionInFunction;
 import static org.sonar.python.PythonTestUtils.parse;
 
+import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.sonar.plugins.python.api.PythonFile;
@@ -35,6 +36,8 @@ import org.sonar.plugins.python.api.tree.ExpressionStatement;
 import org.sonar.plugins.python.api.tree.FileInput;
 import org.sonar.plugins.python.api.tree.Name;
 import org.sonar.plugins.python.api.tree.NumericLiteral;
+import org.sonar.python.PythonTestUtils;
+import org.sonar.python.cfg.ControlFlowCache;
 
 class ReachingDefinitionsAnalysisTest {
   private final PythonFile file = Mockito.mock(PythonFile.class, "file1.py");
@@ -174,6 +177,25 @@ class ReachingDefinitionsAnalysisTest {
     assertThat(analysis.valuesAtLocation(x)).isEmpty();
   }
   
+  @Test
+  void function_analyzed_once() {
+    FileInput fileInput = parse(
+      "def f(p):",
+      "  x = 1",
+      "  foo(x)",
+      "  x = 2",
+      "  bar(p, x)"
+    );
+    List<Name> xs = PythonTestUtils.getAllDescendant(fileInput, tree -> tree instanceof Name && "x".equals(((Name) tree).name()));
+    ControlFlowCache cache = new ControlFlowCache(file);
+    ReachingDefinitionsAnalysis sharedAnalysis = new ReachingDefinitionsAnalysis(cache);
+    assertThat(sharedAnalysis.valuesAtLocation(xs.get(1))).extracting(ReachingDefinitionsAnalysisTest::getValueAsString).containsExactly("1");
+    assertThat(sharedAnalysis.valuesAtLocation(xs.get(3))).extracting(ReachingDefinitionsAnalysisTest::getValueAsString).containsExactly("2");
+    assertThat(sharedAnalysis.valuesAtLocation(xs.get(3))).extracting(ReachingDefinitionsAnalysisTest::getValueAsString).containsExactly("2");
+    assertThat(cache.buildCount()).isEqualTo(1);
+    assertThat(cache.hitCount()).isZero();
+  }
+
   private static String getValueAsString(Expression expression) {
     return ((NumericLiteral) expression).valueAsString();
   }
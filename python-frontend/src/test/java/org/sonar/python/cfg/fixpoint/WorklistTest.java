@@ -0,0 +1,100 @@
+/*
+ * SonarQube Python Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.python.cfg.fixpoint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.sonar.plugins.python.api.PythonFile;
+import org.sonar.plugins.python.api.cfg.CfgBlock;
+import org.sonar.plugins.python.api.cfg.ControlFlowGraph;
+import org.sonar.plugins.python.api.tree.FileInput;
+import org.sonar.plugins.python.api.tree.FunctionDef;
+import org.sonar.python.PythonTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorklistTest {
+
+  private final PythonFile file = Mockito.mock(PythonFile.class, "file1.py");
+
+  @Test
+  void forward_order() {
+    ControlFlowGraph cfg = cfg(
+      "if cond():",
+      "  x = 1",
+      "else:",
+      "  x = 2",
+      "print(x)");
+    Worklist worklist = Worklist.forward(cfg);
+    List<CfgBlock> order = worklist.blocks();
+    assertThat(order).hasSameSizeAs(cfg.blocks()).containsExactlyInAnyOrderElementsOf(cfg.blocks());
+    assertThat(order.get(0)).isSameAs(cfg.start());
+    assertThat(order.get(order.size() - 1)).isSameAs(cfg.end());
+    for (CfgBlock block : order) {
+      // no back edges in this CFG: every block comes after its predecessors
+      block.predecessors().forEach(predecessor -> assertThat(worklist.position(predecessor)).isLessThan(worklist.position(block)));
+    }
+  }
+
+  @Test
+  void backward_order() {
+    ControlFlowGraph cfg = cfg(
+      "x = 1",
+      "while cond():",
+      "  x += 1",
+      "print(x)");
+    Worklist worklist = Worklist.backward(cfg);
+    List<CfgBlock> order = worklist.blocks();
+    assertThat(order).containsExactlyInAnyOrderElementsOf(cfg.blocks());
+    assertThat(order.get(order.size() - 1)).isSameAs(cfg.start());
+    assertThat(worklist.position(cfg.end())).isLessThan(worklist.position(cfg.start().successors().iterator().next()));
+  }
+
+  @Test
+  void blocks_are_queued_once() {
+    ControlFlowGraph cfg = cfg(
+      "if cond():",
+      "  x = 1",
+      "print(x)");
+    Worklist worklist = Worklist.forward(cfg);
+    List<CfgBlock> popped = new ArrayList<>();
+    while (!worklist.isEmpty()) {
+      CfgBlock block = worklist.pop();
+      popped.add(block);
+      // pushing an already pending block is a no-op
+      block.successors().forEach(worklist::push);
+      block.successors().forEach(worklist::push);
+      if (popped.size() > 2 * cfg.blocks().size()) {
+        break;
+      }
+    }
+    assertThat(popped).containsExactlyElementsOf(worklist.blocks());
+  }
+
+  private ControlFlowGraph cfg(String... lines) {
+    FileInput fileInput = PythonTestUtils.parse("def wrapper():", Arrays.stream(lines).map(s -> "  " + s).collect(Collectors.joining("\n")));
+    FunctionDef fun = (FunctionDef) fileInput.statements().statements().get(0);
+    return ControlFlowGraph.build(fun, file);
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * SonarQube Python Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.python.index;
+
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonar.python.index.ClassDescriptorTest.lastClassDescriptor;
+import static org.sonar.python.index.DescriptorEquivalence.areEquivalent;
+import static org.sonar.python.index.DescriptorEquivalence.hash;
+import static org.sonar.python.index.DescriptorsToProtobuf.fromProtobuf;
+import static org.sonar.python.index.DescriptorsToProtobuf.toProtobufModuleDescriptor;
+import static org.sonar.python.index.FunctionDescriptorTest.lastFunctionDescriptor;
+
+class DescriptorEquivalenceTest {
+
+  @Test
+  void serialized_descriptors_are_equivalent() {
+    FunctionDescriptor functionDescriptor = lastFunctionDescriptor("def foo(a, *, b: int = 42) -> str: ...");
+    ClassDescriptor classDescriptor = lastClassDescriptor(
+      "class Base: ...",
+      "class A(Base):",
+      "  x = 42",
+      "  def meth(self): ...",
+      "  def meth(self, p): ...");
+    Set<Descriptor> descriptors = Set.of(functionDescriptor, classDescriptor, new VariableDescriptor("v", "mod.v", null));
+
+    assertThat(areEquivalent(descriptors, fromProtobuf(toProtobufModuleDescriptor(descriptors)))).isTrue();
+    assertThat(areEquivalent(descriptors, descriptors)).isTrue();
+  }
+
+  @Test
+  void function_body_change_keeps_equivalence() {
+    FunctionDescriptor first = lastFunctionDescriptor("def foo(a, b): return a + b");
+    FunctionDescriptor second = lastFunctionDescriptor("def foo(a, b): return a - b");
+    assertThat(areEquivalent(first, second)).isTrue();
+  }
+
+  @Test
+  void signature_change_breaks_equivalence() {
+    FunctionDescriptor foo = lastFunctionDescriptor("def foo(a, b): ...");
+    assertThat(areEquivalent(foo, lastFunctionDescriptor("def foo(a, b, c): ..."))).isFalse();
+    assertThat(areEquivalent(foo, lastFunctionDescriptor("def foo(a, b=None): ..."))).isFalse();
+    assertThat(areEquivalent(foo, lastFunctionDescriptor("def foo(a, b) -> int: ..."))).isFalse();
+    assertThat(areEquivalent(foo, lastFunctionDescriptor("async def foo(a, b): ..."))).isFalse();
+    assertThat(areEquivalent(foo, lastFunctionDescriptor("def bar(a, b): ..."))).isFalse();
+    // Shifted definition location
+    assertThat(areEquivalent(foo, lastFunctionDescriptor("", "def foo(a, b): ..."))).isFalse();
+  }
+
+  @Test
+  void class_change_breaks_equivalence() {
+    ClassDescriptor classDescriptor = lastClassDescriptor("class A:", "  def meth(self): ...");
+    assertThat(areEquivalent(classDescriptor, lastClassDescriptor("class A:", "  def meth(self): return 42"))).isTrue();
+    assertThat(areEquivalent(classDescriptor, lastClassDescriptor("class A:", "  def meth(self, p): ..."))).isFalse();
+    assertThat(areEquivalent(classDescriptor, lastClassDescriptor("class A:", "  def other(self): ..."))).isFalse();
+    assertThat(areEquivalent(classDescriptor, lastClassDescriptor("class B: ...", "class A(B):", "  def meth(self): ..."))).isFalse();
+  }
+
+  @Test
+  void variable_and_collections() {
+    VariableDescriptor x = new VariableDescriptor("x", "mod.x", null);
+    VariableDescriptor annotatedX = new VariableDescriptor("x", "mod.x", "int");
+    VariableDescriptor y = new VariableDescriptor("y", "mod.y", null);
+
+    assertThat(areEquivalent(x, new VariableDescriptor("x", "mod.x", null))).isTrue();
+    assertThat(areEquivalent(x, annotatedX)).isFalse();
+    assertThat(areEquivalent(x, lastFunctionDescriptor("def x(): ..."))).isFalse();
+
+    assertThat(areEquivalent(Set.of(x, y), Set.of(y, new VariableDescriptor("x", "mod.x", null)))).isTrue();
+    assertThat(areEquivalent(Set.of(x, y), Set.of(x))).isFalse();
+    assertThat(areEquivalent(Set.of(x, y), Set.of(annotatedX, y))).isFalse();
+    assertThat(areEquivalent(Set.of(x), null)).isFalse();
+    assertThat(areEquivalent((Set<Descriptor>) null, null)).isTrue();
+
+    AmbiguousDescriptor ambiguous = AmbiguousDescriptor.create(x, lastFunctionDescriptor("def x(): ..."));
+    assertThat(areEquivalent(ambiguous, AmbiguousDescriptor.create(x, lastFunctionDescriptor("def x(): ...")))).isTrue();
+    assertThat(areEquivalent(ambiguous, AmbiguousDescriptor.create(x, lastFunctionDescriptor("def x(p): ...")))).isFalse();
+  }
+
+  @Test
+  void equivalent_descriptors_have_same_hash() {
+    FunctionDescriptor functionDescriptor = lastFunctionDescriptor("def foo(a, *, b: int = 42) -> str: ...");
+    ClassDescriptor classDescriptor = lastClassDescriptor("class A:", "  x = 42", "  def meth(self): ...");
+    VariableDescriptor x = new VariableDescriptor("x", "mod.x", null);
+    Set<Descriptor> descriptors = Set.of(functionDescriptor, classDescriptor, x, AmbiguousDescriptor.create(x, lastFunctionDescriptor("def x(): ...")));
+
+    assertThat(hash(fromProtobuf(toProtobufModuleDescriptor(descriptors)))).isEqualTo(hash(descriptors));
+    assertThat(hash(lastFunctionDescriptor("def foo(a, b): return a + b"))).isEqualTo(hash(lastFunctionDescriptor("def foo(a, b): return a - b")));
+    assertThat(hash(lastFunctionDescriptor("def foo(a, b): ..."))).isNotEqualTo(hash(lastFunctionDescriptor("def foo(a, b=None): ...")));
+    assertThat(hash(classDescriptor)).isNotEqualTo(hash(lastClassDescriptor("class A:", "  x = 42", "  def meth(self, p): ...")));
+    assertThat(hash(Set.of(x))).isNotEqualTo(hash(Set.of(new VariableDescriptor("x", "mod.x", "int"))));
+    assertThat(hash((Set<Descriptor>) null)).isNotEqualTo(hash(Set.of()));
+  }
+}
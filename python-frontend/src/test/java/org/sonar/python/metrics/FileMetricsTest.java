@@ -20,7 +20,12 @@
 package org.sonar.python.metrics;
 
 import java.io.File;
+import java.util.List;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.Test;
+import org.sonar.plugins.python.api.PythonVisitorContext;
+import org.sonar.plugins.python.api.tree.Tree;
+import org.sonar.python.PythonTestUtils;
 import org.sonar.python.TestPythonVisitorRunner;
 
 import static org.fest.assertions.Assertions.assertThat;
@@ -58,6 +63,18 @@ class FileMetricsTest {
     assertThat(metrics("function-complexities.py").functionComplexities()).containsExactly(3, 1);
   }
 
+  @Test
+  void complexities_match_complexity_visitor() {
+    File file = new File("src/test/resources/metrics/cognitive-complexities.py");
+    PythonVisitorContext context = TestPythonVisitorRunner.createContext(file);
+    FileMetrics metrics = new FileMetrics(context);
+    assertThat(metrics.complexity()).isEqualTo(ComplexityVisitor.complexity(context.rootTree()));
+    List<Integer> expectedFunctionComplexities = PythonTestUtils.getAllDescendant(context.rootTree(), t -> t.is(Tree.Kind.FUNCDEF)).stream()
+      .map(ComplexityVisitor::complexity)
+      .collect(Collectors.toList());
+    assertThat(metrics.functionComplexities()).isEqualTo(expectedFunctionComplexities);
+  }
+
   private static FileMetrics metrics(String fileName) {
     File baseDir = new File("src/test/resources/metrics/");
     File file = new File(baseDir, fileName);
@@ -148,6 +148,45 @@ class FunctionSymbolTest {
     assertThat(functionSymbol.hasDecorators()).isTrue();
   }
 
+  @Test
+  void summary() {
+    FunctionSymbolImpl functionSymbol = (FunctionSymbolImpl) PythonTestUtils.functionSymbol("def fn(p1, /, p2, p3=1, *, p4, p5=2): pass");
+    FunctionSummary summary = functionSymbol.summary();
+    assertThat(functionSymbol.summary()).isSameAs(summary);
+    assertThat(summary.positionalParametersWithoutDefault()).containsOnlyKeys("p1", "p2");
+    assertThat(summary.positionalParametersWithDefaultCount()).isEqualTo(1);
+    assertThat(summary.mandatoryKeywordOnlyParameterNames()).containsExactly("p4");
+    assertThat(summary.parameter("p5")).isSameAs(functionSymbol.parameters().get(4));
+    assertThat(summary.parameter("unknown")).isNull();
+
+    functionSymbol = (FunctionSymbolImpl) PythonTestUtils.functionSymbol("def fn((a, b), c): pass");
+    assertThat(functionSymbol.summary().positionalParametersWithoutDefault()).containsOnlyKeys("!unnamed0", "c");
+  }
+
+  @Test
+  void summary_is_reset_when_parameters_change() {
+    FileInput tree = parse(
+      "def fn(p1): pass",
+      "def other(q1, q2=1): pass"
+    );
+    FunctionDef fnDef = (FunctionDef) tree.statements().statements().get(0);
+    FunctionDef otherDef = (FunctionDef) tree.statements().statements().get(1);
+    FunctionSymbolImpl fn = (FunctionSymbolImpl) fnDef.name().symbol();
+    FunctionSymbolImpl other = (FunctionSymbolImpl) otherDef.name().symbol();
+    assertThat(fn.summary().parameter("p1")).isNotNull();
+
+    fn.setParametersWithType(otherDef.parameters());
+    assertThat(fn.summary().parameter("p1")).isNull();
+    assertThat(fn.summary().positionalParametersWithoutDefault()).containsOnlyKeys("q1");
+
+    fn = (FunctionSymbolImpl) PythonTestUtils.functionSymbol("def fn(p1): pass");
+    FunctionSummary summary = fn.summary();
+    fn.addParameter((FunctionSymbolImpl.ParameterImpl) other.parameters().get(1));
+    assertThat(fn.summary()).isNotSameAs(summary);
+    assertThat(fn.summary().parameter("q2")).isSameAs(other.parameters().get(1));
+    assertThat(fn.summary().positionalParametersWithDefaultCount()).isEqualTo(1);
+  }
+
   @Test
   void reassigned_symbol() {
     FileInput tree = parse(
@@ -24,6 +24,7 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.junit.jupiter.api.Test;
 import org.sonar.plugins.python.api.symbols.Symbol;
+import org.sonar.plugins.python.api.symbols.Usage;
 import org.sonar.plugins.python.api.tree.FileInput;
 import org.sonar.plugins.python.api.tree.HasSymbol;
 import org.sonar.plugins.python.api.tree.QualifiedExpression;
@@ -67,6 +68,25 @@ class SymbolImplTest {
     assertThat(qualifiedExpr.symbol().usages()).isEmpty();
   }
 
+  @Test
+  void usages_by_kind() {
+    Symbol x = symbols(
+      "x = 42",
+      "def f():",
+      "  global x",
+      "  x = 43",
+      "print(x)").get("x");
+    assertThat(x.hasUsageOfKind(Usage.Kind.GLOBAL_DECLARATION)).isTrue();
+    assertThat(x.hasUsageOfKind(Usage.Kind.IMPORT)).isFalse();
+    assertThat(x.bindingUsagesCount()).isEqualTo(2);
+    assertThat(x.readUsagesCount()).isEqualTo(1);
+
+    ((SymbolImpl) x).removeUsages();
+    assertThat(x.hasUsageOfKind(Usage.Kind.GLOBAL_DECLARATION)).isFalse();
+    assertThat(x.bindingUsagesCount()).isZero();
+    assertThat(x.readUsagesCount()).isZero();
+  }
+
   @Test
   void inferred_type_after_copy() {
     SymbolImpl symbol = (SymbolImpl) ((HasSymbol) lastExpressionInFunction(
@@ -0,0 +1,83 @@
+/*
+ * SonarQube Python Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.python.tree;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.sonar.plugins.python.api.tree.FileInput;
+import org.sonar.plugins.python.api.tree.Token;
+import org.sonar.plugins.python.api.tree.Trivia;
+import org.sonar.python.PythonTestUtils;
+import org.sonar.python.TokenLocation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileTokensTest {
+
+  @Test
+  void positions_match_token_locations() {
+    FileInput fileInput = PythonTestUtils.parse(
+      "def foo(x):",
+      "  '''multi\r\nline\rdocstring",
+      "  '''",
+      "  return x + 1 # comment",
+      "s = f'{foo(1)}'"
+    );
+    FileTokens tokens = FileTokens.of(fileInput);
+
+    List<Token> statementTokens = TreeUtils.tokens(fileInput.statements());
+    assertThat(tokens.asList()).hasSize(statementTokens.size() + 1).startsWith(statementTokens.toArray(new Token[0]));
+    assertThat(tokens.size()).isEqualTo(tokens.asList().size());
+    for (int i = 0; i < tokens.size(); i++) {
+      Token token = tokens.token(i);
+      TokenLocation location = new TokenLocation(token);
+      assertThat(tokens.startLine(i)).isEqualTo(location.startLine());
+      assertThat(tokens.startLineOffset(i)).isEqualTo(location.startLineOffset());
+      assertThat(tokens.endLine(i)).isEqualTo(location.endLine());
+      assertThat(tokens.endLineOffset(i)).isEqualTo(location.endLineOffset());
+    }
+  }
+
+  @Test
+  void computed_once_per_file() {
+    FileInput fileInput = PythonTestUtils.parse("x = 1");
+    assertThat(FileTokens.of(fileInput)).isSameAs(FileTokens.of(fileInput));
+    assertThat(FileTokens.of(fileInput.statements())).isNotSameAs(FileTokens.of(fileInput.statements()));
+    assertThat(TreeUtils.tokens(fileInput)).containsExactlyElementsOf(FileTokens.of(fileInput).asList());
+  }
+
+  @Test
+  void comment_index() {
+    FileInput fileInput = PythonTestUtils.parse(
+      "# first",
+      "x = 1 # second",
+      "y = 2",
+      "# third");
+    FileTokens tokens = FileTokens.of(fileInput);
+
+    assertThat(tokens.tokensWithComments()).hasSize(3).allMatch(t -> !t.trivia().isEmpty());
+    assertThat(tokens.tokensWithComments()).isSameAs(tokens.tokensWithComments());
+    assertThat(tokens.comments()).extracting(Trivia::value).containsExactly("# first", "# second", "# third");
+
+    Token y = tokens.asList().stream().filter(t -> t.value().equals("y")).findFirst().get();
+    assertThat(((TokenImpl) y).hasTrivia()).isFalse();
+    assertThat(y.trivia()).isEmpty();
+  }
+}
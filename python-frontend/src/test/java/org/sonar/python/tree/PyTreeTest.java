@@ -0,0 +1,57 @@
+/*
+ * SonarQube Python Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.python.tree;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.sonar.plugins.python.api.tree.FileInput;
+import org.sonar.plugins.python.api.tree.Token;
+import org.sonar.plugins.python.api.tree.Tree;
+import org.sonar.python.PythonTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PyTreeTest {
+
+  @Test
+  void non_null_children() {
+    List<Token> tokens = TreeUtils.tokens(PythonTestUtils.parse("x = y"));
+    Token x = tokens.get(0);
+    Token assign = tokens.get(1);
+    Token y = tokens.get(2);
+
+    assertThat(PyTree.nonNullChildren()).isEmpty();
+    assertThat(PyTree.nonNullChildren(x, null, y)).containsExactly(x, y);
+    assertThat(PyTree.flattenNonNullChildren(Arrays.asList(x, null), Collections.emptyList(), Collections.singletonList(assign), Arrays.asList(null, y)))
+      .containsExactly(x, assign, y);
+  }
+
+  @Test
+  void children_without_separators() {
+    FileInput fileInput = PythonTestUtils.parse("pass", "type A[T, U,] = int; x = 1");
+    Tree passStatement = fileInput.statements().statements().get(0);
+    assertThat(passStatement.children()).extracting(c -> ((Token) c).value()).containsExactly("pass", "\n");
+
+    Tree typeAlias = fileInput.statements().statements().get(1);
+    assertThat(TreeUtils.tokens(typeAlias)).extracting(Token::value).containsExactly("type", "A", "[", "T", ",", "U", ",", "]", "=", "int", ";");
+  }
+}
@@ -207,6 +207,14 @@ class RuntimeTypeTest {
     assertThat(x.hashCode()).isNotEqualTo(y.hashCode());
   }
 
+  @Test
+  void runtime_types_are_shared() {
+    assertThat(InferredTypes.runtimeType(a)).isSameAs(InferredTypes.runtimeType(a));
+    assertThat(InferredTypes.runtimeType(a)).isNotSameAs(InferredTypes.runtimeType(b));
+    assertThat(runtimeBuiltinType("str")).isSameAs(runtimeBuiltinType("str"));
+    assertThat(runtimeBuiltinType("str")).isNotSameAs(runtimeBuiltinType("int"));
+  }
+
   @Test
   void test_toString() {
     assertThat(new RuntimeType(a).toString()).isEqualTo("RuntimeType(a)");
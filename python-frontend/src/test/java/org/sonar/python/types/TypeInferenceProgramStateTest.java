@@ -81,6 +81,61 @@ class TypeInferenceProgramStateTest {
     assertThat(typeInferenceProgramState.hashCode()).isNotEqualTo(new TypeInferenceProgramState().hashCode());
   }
 
+  @Test
+  void test_copy() {
+    TypeInferenceProgramState state = new TypeInferenceProgramState();
+    state.setTypes(a, Collections.singleton(InferredTypes.INT));
+    TypeInferenceProgramState copy = (TypeInferenceProgramState) state.copy();
+    assertThat(copy).isEqualTo(state).isNotSameAs(state);
+
+    copy.setTypes(a, Collections.singleton(InferredTypes.STR));
+    copy.setTypes(b, Collections.singleton(InferredTypes.BOOL));
+    assertThat(state.getTypes(a)).containsExactly(InferredTypes.INT);
+    assertThat(state.getTypes(b)).isEmpty();
+    assertThat(copy.getTypes(a)).containsExactly(InferredTypes.STR);
+
+    state.setTypes(b, Collections.singleton(InferredTypes.INT));
+    assertThat(copy.getTypes(b)).containsExactly(InferredTypes.BOOL);
+  }
+
+  @Test
+  void test_join() {
+    TypeInferenceProgramState state = new TypeInferenceProgramState();
+    state.setTypes(a, new HashSet<>(Arrays.asList(InferredTypes.INT, InferredTypes.STR)));
+    TypeInferenceProgramState other = new TypeInferenceProgramState();
+    other.setTypes(a, Collections.singleton(InferredTypes.INT));
+
+    assertThat(state.join(other)).isSameAs(state);
+    assertThat(state.join(new TypeInferenceProgramState())).isSameAs(state);
+
+    other.setTypes(b, Collections.singleton(InferredTypes.BOOL));
+    TypeInferenceProgramState joined = (TypeInferenceProgramState) state.join(other);
+    assertThat(joined).isNotSameAs(state);
+    assertThat(joined.getTypes(a)).containsExactlyInAnyOrder(InferredTypes.INT, InferredTypes.STR);
+    assertThat(joined.getTypes(b)).containsExactly(InferredTypes.BOOL);
+    assertThat(state.getTypes(b)).isEmpty();
+
+    TypeInferenceProgramState joinedOther = (TypeInferenceProgramState) other.join(state);
+    assertThat(joinedOther).isEqualTo(joined);
+  }
+
+  @Test
+  void test_widening() {
+    TypeInferenceProgramState state = new TypeInferenceProgramState();
+    state.setTypes(a, Collections.emptySet());
+    for (int i = 0; i <= TypeInferenceProgramState.MAX_TYPES_PER_VARIABLE; i++) {
+      TypeInferenceProgramState other = new TypeInferenceProgramState();
+      other.setTypes(a, Collections.singleton(InferredTypes.runtimeBuiltinType("type" + i)));
+      state = (TypeInferenceProgramState) state.join(other);
+    }
+    assertThat(state.getTypes(a)).isSameAs(TypeInferenceProgramState.WIDENED);
+
+    TypeInferenceProgramState other = new TypeInferenceProgramState();
+    other.setTypes(a, Collections.singleton(InferredTypes.INT));
+    assertThat(state.join(other)).isSameAs(state);
+    assertThat(((TypeInferenceProgramState) other.join(state)).getTypes(a)).isSameAs(TypeInferenceProgramState.WIDENED);
+  }
+
   @Test
   void test_toString() {
     TypeInferenceProgramState typeInferenceProgramState = new TypeInferenceProgramState();
@@ -515,6 +515,26 @@ class TypeInferenceTest {
     assertThat(thirdX.expression().type()).isEqualTo(or(INT, STR));
   }
 
+  @Test
+  void flow_insensitive_when_cfg_is_too_large() {
+    SymbolTableBuilder symbolTableBuilder = new SymbolTableBuilder("", pythonFile("mod"));
+    symbolTableBuilder.setMaxBlocksForDataFlow(3);
+    FileInput fileInput = parse(symbolTableBuilder,
+      "def f(p):",
+      "  if p:",
+      "    x = 42",
+      "    type(x)",
+      "  else:",
+      "    x = 'foo'",
+      "    type(x)"
+    );
+    List<CallExpression> calls = PythonTestUtils.getAllDescendant(fileInput, tree -> tree.is(Tree.Kind.CALL_EXPR));
+    RegularArgument firstX = (RegularArgument) calls.get(0).arguments().get(0);
+    RegularArgument secondX = (RegularArgument) calls.get(1).arguments().get(0);
+    assertThat(firstX.expression().type()).isEqualTo(or(INT, STR));
+    assertThat(secondX.expression().type()).isEqualTo(or(INT, STR));
+  }
+
   @Test
   void nested_try_except() {
     FileInput fileInput = parse(
@@ -38,6 +38,7 @@ import org.sonar.plugins.python.api.symbols.ClassSymbol;
 import org.sonar.plugins.python.api.symbols.FunctionSymbol;
 import org.sonar.plugins.python.api.symbols.Symbol;
 import org.sonar.plugins.python.api.symbols.Symbol.Kind;
+import org.sonar.plugins.python.api.types.InferredType;
 import org.sonar.python.semantic.AmbiguousSymbolImpl;
 import org.sonar.python.semantic.FunctionSymbolImpl;
 import org.sonar.python.semantic.SymbolImpl;
@@ -92,6 +93,24 @@ class TypeShedTest {
     setPythonVersions(PythonVersionUtils.allVersions());
   }
 
+  @Test
+  void builtin_runtime_types_follow_python_version() {
+    setPythonVersions(PythonVersionUtils.fromString("3.8"));
+    InferredType str = InferredTypes.runtimeBuiltinType("str");
+    assertThat(str.resolveMember("removeprefix")).isEmpty();
+    assertThat(str).isEqualTo(new RuntimeType(TypeShed.typeShedClass("str")));
+    int hashCodeFor38 = str.hashCode();
+
+    setPythonVersions(PythonVersionUtils.fromString("3.10"));
+    RuntimeType freshStr = new RuntimeType(TypeShed.typeShedClass("str"));
+    assertThat(InferredTypes.runtimeBuiltinType("str")).isSameAs(str);
+    assertThat(str.resolveMember("removeprefix")).isPresent();
+    assertThat(str).isEqualTo(freshStr);
+    assertThat(str.hashCode()).isEqualTo(freshStr.hashCode()).isNotEqualTo(hashCodeFor38);
+
+    setPythonVersions(PythonVersionUtils.allVersions());
+  }
+
   @Test
   void not_a_class() {
     assertThatThrownBy(() -> TypeShed.typeShedClass("repr")).isInstanceOf(IllegalArgumentException.class);
@@ -118,6 +118,17 @@ class UnionTypeTest {
     assertThat(or(a, b).hashCode()).isNotEqualTo(or(a, c).hashCode());
   }
 
+  @Test
+  void existing_union_is_reused() {
+    InferredType aOrB = or(a, b);
+    assertThat(or(aOrB, a)).isSameAs(aOrB);
+    assertThat(or(b, aOrB)).isSameAs(aOrB);
+    assertThat(or(aOrB, or(b, a))).isSameAs(aOrB);
+    InferredType aOrBOrC = or(aOrB, c);
+    assertThat(or(aOrB, aOrBOrC)).isSameAs(aOrBOrC);
+    assertThat(or(aOrB, or(a, c))).isNotSameAs(aOrB).isEqualTo(aOrBOrC);
+  }
+
   @Test
   void test_toString() {
     assertThat(or(a, b).toString()).isIn("UnionType[RuntimeType(a), RuntimeType(b)]", "UnionType[RuntimeType(b), RuntimeType(a)]");
@@ -29,10 +29,12 @@ import org.sonar.api.batch.sensor.highlighting.NewHighlighting;
 import org.sonar.api.batch.sensor.highlighting.TypeOfText;
 import org.sonar.plugins.python.api.PythonSubscriptionCheck;
 import org.sonar.plugins.python.api.PythonVisitorContext;
+import org.sonar.plugins.python.caching.FileAnalysisResults;
 import org.sonar.python.SubscriptionVisitor;
 import org.sonar.python.TokenLocation;
 import org.sonar.python.api.PythonKeyword;
 import org.sonar.python.api.PythonTokenType;
+import org.sonar.python.tree.FileTokens;
 import org.sonar.plugins.python.api.tree.ClassDef;
 import org.sonar.plugins.python.api.tree.FileInput;
 import org.sonar.plugins.python.api.tree.FunctionDef;
@@ -93,7 +95,20 @@ public class PythonHighlighter extends PythonSubscriptionCheck {
 
   private Set<Token> docStringTokens;
 
+  private FileInput fileInput;
+
+  @Nullable
+  private final FileAnalysisResults analysisResults;
+
   public PythonHighlighter(SensorContext context, InputFile inputFile) {
+    this(context, inputFile, null);
+  }
+
+  /**
+   * @param analysisResults if not null, highlighted ranges are also recorded there so that they can be replayed from the cache
+   */
+  public PythonHighlighter(SensorContext context, InputFile inputFile, @Nullable FileAnalysisResults analysisResults) {
+    this.analysisResults = analysisResults;
     docStringTokens = new HashSet<>();
     newHighlighting = context.newHighlighting();
     newHighlighting.onFile(inputFile);
@@ -106,10 +121,12 @@ public class PythonHighlighter extends PythonSubscriptionCheck {
 
   @Override
   public void initialize(Context context) {
-    context.registerSyntaxNodeConsumer(Tree.Kind.FILE_INPUT, ctx -> checkFirstStatement(((FileInput) ctx.syntaxNode()).docstring()));
+    context.registerSyntaxNodeConsumer(Tree.Kind.FILE_INPUT, ctx -> {
+      fileInput = (FileInput) ctx.syntaxNode();
+      checkFirstStatement(fileInput.docstring());
+    });
     context.registerSyntaxNodeConsumer(Tree.Kind.FUNCDEF, ctx -> checkFirstStatement(((FunctionDef) ctx.syntaxNode()).docstring()));
     context.registerSyntaxNodeConsumer(Tree.Kind.CLASSDEF, ctx -> checkFirstStatement(((ClassDef) ctx.syntaxNode()).docstring()));
-    context.registerSyntaxNodeConsumer(Tree.Kind.TOKEN, ctx -> visitToken(((Token) ctx.syntaxNode())));
   }
 
   private void checkFirstStatement(@Nullable StringLiteral docString) {
@@ -122,23 +139,32 @@ public class PythonHighlighter extends PythonSubscriptionCheck {
     }
   }
 
-  private void visitToken(Token token) {
-    if (token.type().equals(PythonTokenType.NUMBER)) {
-      highlight(token, TypeOfText.CONSTANT);
-
-    } else if (token.type() instanceof PythonKeyword) {
-      highlight(token, TypeOfText.KEYWORD);
-
-    } else if (token.type().equals(PythonTokenType.STRING) && !docStringTokens.contains(token)) {
-      highlight(token, TypeOfText.STRING);
-
-    } else if (token.type().equals(IDENTIFIER) && isPython3Keyword(token.value())) {
-      // async and await are keywords starting python 3.5, however, for compatibility with previous versions, we cannot consider them as real keywords
-      highlight(token, TypeOfText.KEYWORD);
-
+  /**
+   * Tokens are highlighted once docstrings are known, using the positions precomputed in {@link FileTokens}.
+   */
+  private void visitTokens(FileTokens tokens) {
+    for (int i = 0; i < tokens.size(); i++) {
+      Token token = tokens.token(i);
+      TypeOfText typeOfText = null;
+      if (token.type().equals(PythonTokenType.NUMBER)) {
+        typeOfText = TypeOfText.CONSTANT;
+
+      } else if (token.type() instanceof PythonKeyword) {
+        typeOfText = TypeOfText.KEYWORD;
+
+      } else if (token.type().equals(PythonTokenType.STRING) && !docStringTokens.contains(token)) {
+        typeOfText = TypeOfText.STRING;
+
+      } else if (token.type().equals(IDENTIFIER) && isPython3Keyword(token.value())) {
+        // async and await are keywords starting python 3.5, however, for compatibility with previous versions, we cannot consider them as real keywords
+        typeOfText = TypeOfText.KEYWORD;
+
+      }
+      if (typeOfText != null) {
+        highlight(tokens.startLine(i), tokens.startLineOffset(i), tokens.endLine(i), tokens.endLineOffset(i), typeOfText);
+      }
     }
-
-    for (Trivia trivia : token.trivia()) {
+    for (Trivia trivia : tokens.comments()) {
       highlight(trivia.token(), TypeOfText.COMMENT);
     }
   }
@@ -149,12 +175,22 @@ public class PythonHighlighter extends PythonSubscriptionCheck {
 
   @Override
   public void leaveFile() {
+    if (fileInput != null) {
+      visitTokens(FileTokens.of(fileInput));
+    }
     newHighlighting.save();
   }
 
   private void highlight(Token token, TypeOfText typeOfText) {
     TokenLocation tokenLocation = new TokenLocation(token);
-    newHighlighting.highlight(tokenLocation.startLine(), tokenLocation.startLineOffset(), tokenLocation.endLine(), tokenLocation.endLineOffset(), typeOfText);
+    highlight(tokenLocation.startLine(), tokenLocation.startLineOffset(), tokenLocation.endLine(), tokenLocation.endLineOffset(), typeOfText);
+  }
+
+  private void highlight(int startLine, int startLineOffset, int endLine, int endLineOffset, TypeOfText typeOfText) {
+    newHighlighting.highlight(startLine, startLineOffset, endLine, endLineOffset, typeOfText);
+    if (analysisResults != null) {
+      analysisResults.addHighlight(startLine, startLineOffset, endLine, endLineOffset, typeOfText);
+    }
   }
 
 }
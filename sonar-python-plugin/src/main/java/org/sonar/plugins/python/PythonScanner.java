@@ -22,23 +22,36 @@ package org.sonar.plugins.python;
 import com.sonar.sslr.api.AstNode;
 import com.sonar.sslr.api.RecognitionException;
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.SonarProduct;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.fs.TextRange;
 import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.highlighting.NewHighlighting;
 import org.sonar.api.batch.sensor.issue.NewIssue;
 import org.sonar.api.batch.sensor.issue.NewIssueLocation;
 import org.sonar.api.issue.NoSonarFilter;
@@ -58,26 +71,59 @@ import org.sonar.plugins.python.api.internal.EndOfAnalysis;
 import org.sonar.plugins.python.api.quickfix.PythonQuickFix;
 import org.sonar.plugins.python.api.quickfix.PythonTextEdit;
 import org.sonar.plugins.python.api.tree.FileInput;
+import org.sonar.plugins.python.caching.FileAnalysisResults;
 import org.sonar.plugins.python.cpd.PythonCpdAnalyzer;
 import org.sonar.plugins.python.indexer.PythonIndexer;
 import org.sonar.python.SubscriptionVisitor;
+import org.sonar.python.cfg.ControlFlowCache;
+import org.sonar.python.metrics.FileComplexityVisitor;
 import org.sonar.python.metrics.FileLinesVisitor;
 import org.sonar.python.metrics.FileMetrics;
 import org.sonar.python.parser.PythonParser;
+import org.sonar.python.semantic.SemanticModelOptions;
 import org.sonar.python.tree.IPythonTreeMaker;
 import org.sonar.python.tree.PythonTreeMaker;
+import org.sonarsource.performance.measure.PerformanceMeasure;
+
+import static org.sonar.plugins.python.caching.Caching.ANALYSIS_RESULTS_CACHE_KEY_PREFIX;
 
 public class PythonScanner extends Scanner {
 
+  /**
+   * When enabled, issues of built-in rules, measures and highlighting of each file are stored in the cache,
+   * and replayed without parsing for files which are unchanged and whose dependencies are unchanged.
+   */
+  public static final String SONAR_PYTHON_CACHE_ANALYSIS_RESULTS_KEY = "sonar.python.cache.analysisResults";
+
+  /**
+   * Functions whose control flow graph has more blocks than this threshold are not analyzed by data flow based rules,
+   * and their types are inferred in flow-insensitive mode.
+   */
+  public static final String SONAR_PYTHON_DATA_FLOW_MAX_BLOCKS_KEY = "sonar.python.analysis.dataFlowMaxBlocks";
+
   private static final Logger LOG = LoggerFactory.getLogger(PythonScanner.class);
 
+  private static final Map<String, Metric<Integer>> FILE_METRICS = Stream.of(CoreMetrics.NCLOC, CoreMetrics.STATEMENTS, CoreMetrics.FUNCTIONS,
+    CoreMetrics.CLASSES, CoreMetrics.COMPLEXITY, CoreMetrics.COGNITIVE_COMPLEXITY, CoreMetrics.COMMENT_LINES)
+    .collect(Collectors.toMap(Metric::getKey, Function.identity()));
+
   private final PythonParser parser;
+  private final PythonTreeMaker pythonTreeMaker = new PythonTreeMaker();
+  private final PythonTreeMaker ipythonTreeMaker = new IPythonTreeMaker();
   private final PythonChecks checks;
   private final FileLinesContextFactory fileLinesContextFactory;
   private final NoSonarFilter noSonarFilter;
   private final PythonCpdAnalyzer cpdAnalyzer;
   private final PythonIndexer indexer;
   private final Map<InputFile, Set<PythonCheck>> checksExecutedWithoutParsingByFiles = new HashMap<>();
+  private final Map<String, InputFile> componentsByFileId = new HashMap<>();
+  private int controlFlowGraphsBuilt = 0;
+  private int controlFlowGraphsReused = 0;
+  private int controlFlowGraphsTooLarge = 0;
+  private int filesWithoutTypeInference = 0;
+  @Nullable
+  private final String rulesFingerprint;
+  private final int maxBlocksForDataFlow;
 
   public PythonScanner(
     SensorContext context, PythonChecks checks,
@@ -90,6 +136,11 @@ public class PythonScanner extends Scanner {
     this.parser = parser;
     this.indexer = indexer;
     this.indexer.buildOnce(context);
+    boolean cacheAnalysisResults = context.config().getBoolean(SONAR_PYTHON_CACHE_ANALYSIS_RESULTS_KEY).orElse(false)
+      && indexer.cacheContext().isCacheEnabled()
+      && !isInSonarLint(context);
+    this.rulesFingerprint = cacheAnalysisResults ? rulesFingerprint(context) : null;
+    this.maxBlocksForDataFlow = context.config().getInt(SONAR_PYTHON_DATA_FLOW_MAX_BLOCKS_KEY).orElse(ControlFlowCache.DEFAULT_MAX_BLOCKS_FOR_DATA_FLOW);
   }
 
   @Override
@@ -102,15 +153,21 @@ public class PythonScanner extends Scanner {
     PythonFile pythonFile = SonarQubePythonFile.create(inputFile);
     PythonVisitorContext visitorContext;
     InputFile.Type fileType = inputFile.type();
+    FileAnalysisResults analysisResults = newAnalysisResults(inputFile);
     try {
       AstNode astNode = parser.parse(pythonFile.content());
       PythonTreeMaker treeMaker = getTreeMaker(inputFile);
       FileInput parse = treeMaker.fileInput(astNode);
-      visitorContext = new PythonVisitorContext(
-        parse, pythonFile, getWorkingDirectory(context), indexer.packageName(inputFile), indexer.projectLevelSymbolTable(), indexer.cacheContext());
-      if (fileType == InputFile.Type.MAIN) {
-        saveMeasures(inputFile, visitorContext);
+      boolean inferTypes = requiresTypeInference(inputFile);
+      if (!inferTypes) {
+        filesWithoutTypeInference++;
       }
+      // Comparing both measures in the performance report gives the time saved by skipping type inference
+      PerformanceMeasure.Duration duration = PerformanceMeasure.start(inferTypes ? "SemanticModel" : "SemanticModelWithoutTypeInference");
+      visitorContext = new PythonVisitorContext(
+        parse, pythonFile, getWorkingDirectory(context), indexer.packageName(inputFile), indexer.projectLevelSymbolTable(), indexer.cacheContext(),
+        new SemanticModelOptions(inferTypes, maxBlocksForDataFlow));
+      duration.stop();
     } catch (RecognitionException e) {
       visitorContext = new PythonVisitorContext(pythonFile, e);
       LOG.error("Unable to parse file: " + inputFile);
@@ -121,37 +178,115 @@ public class PythonScanner extends Scanner {
         .message(e.getMessage())
         .save();
     }
-    List<PythonSubscriptionCheck> checksBasedOnTree = new ArrayList<>();
-    for (PythonCheck check : checks.all()) {
-      if (!isCheckApplicable(check, fileType)
-        || checksExecutedWithoutParsingByFiles.getOrDefault(inputFile, Collections.emptySet()).contains(check)) {
-        continue;
+    BuiltInConsumers builtInConsumers = null;
+    try {
+      List<PythonSubscriptionCheck> checksBasedOnTree = new ArrayList<>();
+      for (PythonCheck check : checks.all()) {
+        if (!isCheckApplicable(check, fileType)
+          || checksExecutedWithoutParsingByFiles.getOrDefault(inputFile, Collections.emptySet()).contains(check)) {
+          continue;
+        }
+        if (check instanceof PythonSubscriptionCheck) {
+          checksBasedOnTree.add((PythonSubscriptionCheck) check);
+        } else {
+          check.scanFile(visitorContext);
+        }
       }
-      if (check instanceof PythonSubscriptionCheck) {
-        checksBasedOnTree.add((PythonSubscriptionCheck) check);
-      } else {
-        check.scanFile(visitorContext);
+
+      // Metrics, CPD tokens, symbols and highlighting are computed during the same tree traversal as the checks
+      if (visitorContext.rootTree() != null) {
+        builtInConsumers = new BuiltInConsumers(inputFile, analysisResults);
+        checksBasedOnTree.addAll(builtInConsumers.consumers);
       }
+      SubscriptionVisitor.analyze(checksBasedOnTree, visitorContext);
+    } catch (RuntimeException e) {
+      saveBuiltInResultsAfterFailure(inputFile, visitorContext, e);
+      throw e;
     }
-    SubscriptionVisitor.analyze(checksBasedOnTree, visitorContext);
-    saveIssues(inputFile, visitorContext.getIssues());
+    controlFlowGraphsBuilt += visitorContext.controlFlowCache().buildCount();
+    controlFlowGraphsReused += visitorContext.controlFlowCache().hitCount();
+    controlFlowGraphsTooLarge += visitorContext.controlFlowCache().tooLargeForDataFlowCount();
+    if (builtInConsumers != null) {
+      builtInConsumers.saveMeasures(inputFile, visitorContext, analysisResults);
+    }
+    saveIssues(inputFile, visitorContext.getIssues(), analysisResults);
 
-    if (visitorContext.rootTree() != null && !isInSonarLint(context)) {
-      new SymbolVisitor(context.newSymbolTable().onFile(inputFile)).visitFileInput(visitorContext.rootTree());
-      new PythonHighlighter(context, inputFile).scanFile(visitorContext);
+    if (analysisResults != null) {
+      saveAnalysisResultsToCache(inputFile, analysisResults);
     }
   }
 
-  private static PythonTreeMaker getTreeMaker(InputFile inputFile) {
-    return Python.KEY.equals(inputFile.language()) ? new PythonTreeMaker() : new IPythonTreeMaker();
+  /**
+   * A failing check must not prevent metrics, CPD tokens, symbols and highlighting of the file from being saved:
+   * they are computed again by a traversal without the checks, before the failure is reported.
+   */
+  private void saveBuiltInResultsAfterFailure(InputFile inputFile, PythonVisitorContext visitorContext, RuntimeException failure) {
+    if (visitorContext.rootTree() == null) {
+      return;
+    }
+    try {
+      BuiltInConsumers builtInConsumers = new BuiltInConsumers(inputFile, null);
+      SubscriptionVisitor.analyze(builtInConsumers.consumers, visitorContext);
+      builtInConsumers.saveMeasures(inputFile, visitorContext, null);
+    } catch (RuntimeException e) {
+      failure.addSuppressed(e);
+    }
+  }
+
+  /**
+   * Consumers computing metrics, CPD tokens, symbols and highlighting of a file, which are executed in the same traversal as the checks.
+   */
+  private class BuiltInConsumers {
+    private final List<PythonSubscriptionCheck> consumers = new ArrayList<>();
+    private FileLinesVisitor fileLinesVisitor = null;
+    private FileComplexityVisitor complexityVisitor = null;
+
+    BuiltInConsumers(InputFile inputFile, @Nullable FileAnalysisResults analysisResults) {
+      if (inputFile.type() == InputFile.Type.MAIN) {
+        fileLinesVisitor = new FileLinesVisitor();
+        complexityVisitor = new FileComplexityVisitor();
+        consumers.add(fileLinesVisitor);
+        consumers.add(complexityVisitor);
+      }
+      if (!isInSonarLint(context)) {
+        consumers.add(new SymbolVisitor(context.newSymbolTable().onFile(inputFile)));
+        consumers.add(new PythonHighlighter(context, inputFile, analysisResults));
+      }
+    }
+
+    void saveMeasures(InputFile inputFile, PythonVisitorContext visitorContext, @Nullable FileAnalysisResults analysisResults) {
+      if (fileLinesVisitor != null) {
+        PythonScanner.this.saveMeasures(inputFile, visitorContext, new FileMetrics(visitorContext, fileLinesVisitor, complexityVisitor), analysisResults);
+      }
+    }
+  }
+
+  private boolean requiresTypeInference(InputFile inputFile) {
+    Set<PythonCheck> checksExecutedWithoutParsing = checksExecutedWithoutParsingByFiles.getOrDefault(inputFile, Collections.emptySet());
+    return checks.all().stream()
+      .filter(check -> isCheckApplicable(check, inputFile.type()) && !checksExecutedWithoutParsing.contains(check))
+      .anyMatch(PythonCheck::requiresTypeInference);
+  }
+
+  private PythonTreeMaker getTreeMaker(InputFile inputFile) {
+    return Python.KEY.equals(inputFile.language()) ? pythonTreeMaker : ipythonTreeMaker;
   }
 
   @Override
   public boolean scanFileWithoutParsing(InputFile inputFile) {
+    FileAnalysisResults cachedResults = null;
+    if (rulesFingerprint != null) {
+      cachedResults = readAnalysisResultsFromCache(inputFile);
+      if (cachedResults == null) {
+        // Results of built-in checks can only be recorded if all of them are executed on the parsed file
+        return false;
+      }
+    }
     InputFile.Type fileType = inputFile.type();
     boolean result = true;
     for (PythonCheck check : checks.all()) {
-      if (!isCheckApplicable(check, fileType)) {
+      if (!isCheckApplicable(check, fileType) || (cachedResults != null && isRegularCheck(check))) {
+        // Issues of built-in checks are replayed from the cached results
         continue;
       }
       if (checkRequiresParsingOfImpactedFile(inputFile, check)) {
@@ -175,15 +310,28 @@ public class PythonScanner extends Scanner {
       // We must avoid pushing measures twice due to the risk of duplicate cache key error.
       return false;
     }
-    return restoreAndPushMeasuresIfApplicable(inputFile);
+    if (!restoreAndPushMeasuresIfApplicable(inputFile)) {
+      return false;
+    }
+    if (cachedResults != null) {
+      replayAnalysisResults(inputFile, cachedResults);
+    }
+    return true;
   }
 
   private boolean checkRequiresParsingOfImpactedFile(InputFile inputFile, PythonCheck check) {
-    return !indexer.canBeFullyScannedWithoutParsing(inputFile) && !check.getClass().getPackageName().startsWith("org.sonar.python.checks");
+    return !indexer.canBeFullyScannedWithoutParsing(inputFile) && !isRegularCheck(check);
+  }
+
+  private static boolean isRegularCheck(PythonCheck check) {
+    return check.getClass().getPackageName().startsWith("org.sonar.python.checks");
   }
 
   @Override
   public void endOfAnalysis() {
+    LOG.debug("Control flow graphs: {} built, {} reused, {} too large for data flow analyses (more than {} blocks)",
+      controlFlowGraphsBuilt, controlFlowGraphsReused, controlFlowGraphsTooLarge, maxBlocksForDataFlow);
+    LOG.debug("Type inference skipped for {} files", filesWithoutTypeInference);
     checks.all().stream()
       .filter(EndOfAnalysis.class::isInstance)
       .map(EndOfAnalysis.class::cast)
@@ -221,81 +369,101 @@ public class PythonScanner extends Scanner {
   protected void reportStatistics(int numSkippedFiles, int numTotalFiles) {
     LOG.info("The Python analyzer was able to leverage cached data from previous analyses for {} out of {} files. These files were not parsed.",
       numSkippedFiles, numTotalFiles);
+    int cpdSkippedFiles = cpdAnalyzer.skippedFilesCount();
+    if (cpdSkippedFiles > 0) {
+      LOG.info("CPD tokens were not computed for {} out of {} files, which are excluded from duplication detection or too small to contain duplicated blocks.",
+        cpdSkippedFiles, numTotalFiles);
+    }
   }
 
-  private void saveIssues(InputFile inputFile, List<PreciseIssue> issues) {
+  private void saveIssues(InputFile inputFile, List<PreciseIssue> issues, @Nullable FileAnalysisResults analysisResults) {
     for (PreciseIssue preciseIssue : issues) {
       RuleKey ruleKey = checks.ruleKey(preciseIssue.check());
-      NewIssue newIssue = context
-        .newIssue()
-        .forRule(ruleKey);
-
-      Integer cost = preciseIssue.cost();
-      if (cost != null) {
-        newIssue.gap(cost.doubleValue());
+      FileAnalysisResults.Issue issue = new FileAnalysisResults.Issue(
+        ruleKey.toString(),
+        preciseIssue.cost(),
+        FileAnalysisResults.Location.from(preciseIssue.primaryLocation()),
+        preciseIssue.secondaryLocations().stream().map(FileAnalysisResults.Location::from).collect(Collectors.toList()));
+      saveIssue(inputFile, ruleKey, issue, preciseIssue.quickFixes());
+      if (analysisResults != null && isRegularCheck(preciseIssue.check())) {
+        analysisResults.addIssue(issue);
       }
+    }
+  }
 
-      NewIssueLocation primaryLocation = newLocation(inputFile, newIssue, preciseIssue.primaryLocation());
-      newIssue.at(primaryLocation);
+  private void saveIssue(InputFile inputFile, RuleKey ruleKey, FileAnalysisResults.Issue issue, List<PythonQuickFix> quickFixes) {
+    NewIssue newIssue = context
+      .newIssue()
+      .forRule(ruleKey);
 
-      Deque<NewIssueLocation> secondaryLocationsFlow = new ArrayDeque<>();
+    Integer cost = issue.cost;
+    if (cost != null) {
+      newIssue.gap(cost.doubleValue());
+    }
 
-      for (IssueLocation secondaryLocation : preciseIssue.secondaryLocations()) {
-        String fileId = secondaryLocation.fileId();
-        if (fileId != null) {
-          InputFile issueLocationFile = component(fileId, context);
-          if (issueLocationFile != null) {
-            secondaryLocationsFlow.addFirst(newLocation(issueLocationFile, newIssue, secondaryLocation));
-          }
-        } else {
-          newIssue.addLocation(newLocation(inputFile, newIssue, secondaryLocation));
+    NewIssueLocation primaryLocation = newLocation(inputFile, newIssue, issue.primaryLocation);
+    newIssue.at(primaryLocation);
+
+    Deque<NewIssueLocation> secondaryLocationsFlow = new ArrayDeque<>();
+
+    for (FileAnalysisResults.Location secondaryLocation : issue.secondaryLocations) {
+      String fileId = secondaryLocation.fileId;
+      if (fileId != null) {
+        InputFile issueLocationFile = component(fileId, context);
+        if (issueLocationFile != null) {
+          secondaryLocationsFlow.addFirst(newLocation(issueLocationFile, newIssue, secondaryLocation));
         }
+      } else {
+        newIssue.addLocation(newLocation(inputFile, newIssue, secondaryLocation));
       }
+    }
 
-      // secondary locations on multiple files are only supported using flows
-      if (!secondaryLocationsFlow.isEmpty()) {
-        secondaryLocationsFlow.addFirst(primaryLocation);
-        newIssue.addFlow(secondaryLocationsFlow);
-      }
+    // secondary locations on multiple files are only supported using flows
+    if (!secondaryLocationsFlow.isEmpty()) {
+      secondaryLocationsFlow.addFirst(primaryLocation);
+      newIssue.addFlow(secondaryLocationsFlow);
+    }
 
-      handleQuickFixes(inputFile, ruleKey, newIssue, preciseIssue);
+    handleQuickFixes(inputFile, ruleKey, newIssue, quickFixes);
 
-      newIssue.save();
-    }
+    newIssue.save();
   }
 
   @CheckForNull
   private InputFile component(String fileId, SensorContext sensorContext) {
+    if (componentsByFileId.containsKey(fileId)) {
+      return componentsByFileId.get(fileId);
+    }
     InputFile inputFile = Optional.ofNullable(sensorContext.fileSystem().inputFile(sensorContext.fileSystem().predicates().is(new File(fileId))))
       .orElseGet(() -> indexer.getFileWithId(fileId));
     if (inputFile == null) {
       LOG.debug("Failed to find InputFile for {}", fileId);
     }
+    componentsByFileId.put(fileId, inputFile);
     return inputFile;
   }
 
-  private static NewIssueLocation newLocation(InputFile inputFile, NewIssue issue, IssueLocation location) {
+  private static NewIssueLocation newLocation(InputFile inputFile, NewIssue issue, FileAnalysisResults.Location location) {
     NewIssueLocation newLocation = issue.newLocation()
       .on(inputFile);
-    if (location.startLine() != IssueLocation.UNDEFINED_LINE) {
+    if (location.startLine != IssueLocation.UNDEFINED_LINE) {
       TextRange range;
-      if (location.startLineOffset() == IssueLocation.UNDEFINED_OFFSET) {
-        range = inputFile.selectLine(location.startLine());
+      if (location.startLineOffset == IssueLocation.UNDEFINED_OFFSET) {
+        range = inputFile.selectLine(location.startLine);
       } else {
-        range = inputFile.newRange(location.startLine(), location.startLineOffset(), location.endLine(), location.endLineOffset());
+        range = inputFile.newRange(location.startLine, location.startLineOffset, location.endLine, location.endLineOffset);
       }
       newLocation.at(range);
     }
 
-    String message = location.message();
+    String message = location.message;
     if (message != null) {
       newLocation.message(message);
     }
     return newLocation;
   }
 
-  private void saveMeasures(InputFile inputFile, PythonVisitorContext visitorContext) {
-    FileMetrics fileMetrics = new FileMetrics(visitorContext);
+  private void saveMeasures(InputFile inputFile, PythonVisitorContext visitorContext, FileMetrics fileMetrics, @Nullable FileAnalysisResults analysisResults) {
     FileLinesVisitor fileLinesVisitor = fileMetrics.fileLinesVisitor();
 
     noSonarFilter.noSonarInFile(inputFile, fileLinesVisitor.getLinesWithNoSonar());
@@ -303,23 +471,39 @@ public class PythonScanner extends Scanner {
     if (!isInSonarLint(context)) {
       cpdAnalyzer.pushCpdTokens(inputFile, visitorContext);
 
-      Set<Integer> linesOfCode = fileLinesVisitor.getLinesOfCode();
-      saveMetricOnFile(inputFile, CoreMetrics.NCLOC, linesOfCode.size());
-      saveMetricOnFile(inputFile, CoreMetrics.STATEMENTS, fileMetrics.numberOfStatements());
-      saveMetricOnFile(inputFile, CoreMetrics.FUNCTIONS, fileMetrics.numberOfFunctions());
-      saveMetricOnFile(inputFile, CoreMetrics.CLASSES, fileMetrics.numberOfClasses());
-      saveMetricOnFile(inputFile, CoreMetrics.COMPLEXITY, fileMetrics.complexity());
-      saveMetricOnFile(inputFile, CoreMetrics.COGNITIVE_COMPLEXITY, fileMetrics.cognitiveComplexity());
-      saveMetricOnFile(inputFile, CoreMetrics.COMMENT_LINES, fileLinesVisitor.getCommentLineCount());
-
-      FileLinesContext fileLinesContext = fileLinesContextFactory.createFor(inputFile);
-      for (int line : linesOfCode) {
-        fileLinesContext.setIntValue(CoreMetrics.NCLOC_DATA_KEY, line, 1);
-      }
-      for (int line : fileLinesVisitor.getExecutableLines()) {
-        fileLinesContext.setIntValue(CoreMetrics.EXECUTABLE_LINES_DATA_KEY, line, 1);
+      BitSet linesOfCode = fileLinesVisitor.linesOfCode();
+      BitSet executableLines = fileLinesVisitor.executableLines();
+      Map<Metric<Integer>, Integer> measures = new LinkedHashMap<>();
+      measures.put(CoreMetrics.NCLOC, linesOfCode.cardinality());
+      measures.put(CoreMetrics.STATEMENTS, fileMetrics.numberOfStatements());
+      measures.put(CoreMetrics.FUNCTIONS, fileMetrics.numberOfFunctions());
+      measures.put(CoreMetrics.CLASSES, fileMetrics.numberOfClasses());
+      measures.put(CoreMetrics.COMPLEXITY, fileMetrics.complexity());
+      measures.put(CoreMetrics.COGNITIVE_COMPLEXITY, fileMetrics.cognitiveComplexity());
+      measures.put(CoreMetrics.COMMENT_LINES, fileLinesVisitor.getCommentLineCount());
+      saveMeasures(inputFile, measures, linesOfCode, executableLines);
+
+      if (analysisResults != null) {
+        measures.forEach((metric, value) -> analysisResults.addMeasure(metric.getKey(), value));
+        analysisResults.addLinesOfCode(linesOfCode);
+        analysisResults.addExecutableLines(executableLines);
+        analysisResults.addNoSonarLines(fileLinesVisitor.linesWithNoSonar());
       }
-      fileLinesContext.save();
+    }
+  }
+
+  private void saveMeasures(InputFile inputFile, Map<Metric<Integer>, Integer> measures, BitSet linesOfCode, BitSet executableLines) {
+    measures.forEach((metric, value) -> saveMetricOnFile(inputFile, metric, value));
+
+    FileLinesContext fileLinesContext = fileLinesContextFactory.createFor(inputFile);
+    setLines(fileLinesContext, CoreMetrics.NCLOC_DATA_KEY, linesOfCode);
+    setLines(fileLinesContext, CoreMetrics.EXECUTABLE_LINES_DATA_KEY, executableLines);
+    fileLinesContext.save();
+  }
+
+  private static void setLines(FileLinesContext fileLinesContext, String metricKey, BitSet lines) {
+    for (int line = lines.nextSetBit(0); line >= 0; line = lines.nextSetBit(line + 1)) {
+      fileLinesContext.setIntValue(metricKey, line, 1);
     }
   }
 
@@ -339,13 +523,97 @@ public class PythonScanner extends Scanner {
       .save();
   }
 
-  private void handleQuickFixes(InputFile inputFile, RuleKey ruleKey, NewIssue newIssue, PreciseIssue preciseIssue) {
+  private void handleQuickFixes(InputFile inputFile, RuleKey ruleKey, NewIssue newIssue, List<PythonQuickFix> quickFixes) {
     if (isInSonarLint(context)) {
-      List<PythonQuickFix> quickFixes = preciseIssue.quickFixes();
       addQuickFixes(inputFile, ruleKey, quickFixes, newIssue);
     }
   }
 
+  @CheckForNull
+  private FileAnalysisResults newAnalysisResults(InputFile inputFile) {
+    if (rulesFingerprint == null) {
+      return null;
+    }
+    String inputsFingerprint = indexer.inputsFingerprint(inputFile);
+    return inputsFingerprint != null ? new FileAnalysisResults(rulesFingerprint, inputsFingerprint) : null;
+  }
+
+  @CheckForNull
+  private FileAnalysisResults readAnalysisResultsFromCache(InputFile inputFile) {
+    // Results depend on the active rules, on the content of the file and on the descriptors of its dependencies:
+    // all of them are part of the fingerprints recorded with the results, which must match the current ones.
+    if (!indexer.canBeFullyScannedWithoutParsing(inputFile)) {
+      return null;
+    }
+    byte[] bytes = indexer.cacheContext().getReadCache().readBytes(analysisResultsCacheKey(inputFile.key()));
+    if (bytes == null) {
+      return null;
+    }
+    try {
+      FileAnalysisResults results = FileAnalysisResults.deserialize(bytes);
+      if (!results.rulesFingerprint().equals(rulesFingerprint)) {
+        LOG.debug("Cached analysis results of {} were computed with a different set of active rules", inputFile);
+        return null;
+      }
+      if (!results.inputsFingerprint().equals(indexer.inputsFingerprint(inputFile))) {
+        LOG.debug("Cached analysis results of {} were computed with a different content or different dependencies", inputFile);
+        return null;
+      }
+      return results;
+    } catch (IOException e) {
+      LOG.debug("Failed to deserialize analysis results of {} ({}: {})", inputFile, e.getClass().getSimpleName(), e.getMessage());
+      return null;
+    }
+  }
+
+  private void saveAnalysisResultsToCache(InputFile inputFile, FileAnalysisResults analysisResults) {
+    try {
+      indexer.cacheContext().getWriteCache().write(analysisResultsCacheKey(inputFile.key()), analysisResults.serialize());
+    } catch (Exception e) {
+      LOG.warn("Could not write analysis results to cache ({}: {})", e.getClass().getSimpleName(), e.getMessage());
+    }
+  }
+
+  private void replayAnalysisResults(InputFile inputFile, FileAnalysisResults results) {
+    for (FileAnalysisResults.Issue issue : results.issues()) {
+      saveIssue(inputFile, RuleKey.parse(issue.ruleKey), issue, Collections.emptyList());
+    }
+    if (inputFile.type() == InputFile.Type.MAIN && !results.measures().isEmpty()) {
+      noSonarFilter.noSonarInFile(inputFile, results.noSonarLines().stream().boxed().collect(Collectors.toSet()));
+      Map<Metric<Integer>, Integer> measures = new LinkedHashMap<>();
+      results.measures().forEach((metricKey, value) -> {
+        Metric<Integer> metric = FILE_METRICS.get(metricKey);
+        if (metric != null) {
+          measures.put(metric, value);
+        }
+      });
+      saveMeasures(inputFile, measures, results.linesOfCode(), results.executableLines());
+    }
+    if (!results.highlights().isEmpty()) {
+      NewHighlighting newHighlighting = context.newHighlighting().onFile(inputFile);
+      results.highlights().forEach(h -> newHighlighting.highlight(h.startLine, h.startLineOffset, h.endLine, h.endLineOffset, h.typeOfText));
+      newHighlighting.save();
+    }
+    indexer.cacheContext().getWriteCache().copyFromPrevious(analysisResultsCacheKey(inputFile.key()));
+  }
+
+  private static String analysisResultsCacheKey(String fileKey) {
+    return ANALYSIS_RESULTS_CACHE_KEY_PREFIX + fileKey.replace('\\', '/');
+  }
+
+  private static String rulesFingerprint(SensorContext context) {
+    String activeRules = context.activeRules().findAll().stream()
+      .map(rule -> rule.ruleKey() + new TreeMap<>(rule.params()).toString())
+      .sorted()
+      .collect(Collectors.joining(";"));
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return Base64.getEncoder().encodeToString(digest.digest(activeRules.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      return activeRules;
+    }
+  }
+
   private static void addQuickFixes(InputFile inputFile, RuleKey ruleKey, Iterable<PythonQuickFix> quickFixes, NewIssue sonarLintIssue) {
     try {
       for (PythonQuickFix quickFix : quickFixes) {
@@ -20,22 +20,35 @@
 package org.sonar.plugins.python.caching;
 
 import com.google.protobuf.InvalidProtocolBufferException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import javax.annotation.CheckForNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.plugins.python.api.caching.CacheContext;
+import org.sonar.python.caching.VarLengthInputStream;
+import org.sonar.python.caching.VarLengthOutputStream;
 import org.sonar.python.index.Descriptor;
 import org.sonar.python.types.protobuf.DescriptorsProtos;
 
 import static org.sonar.python.index.DescriptorsToProtobuf.fromProtobuf;
 import static org.sonar.python.index.DescriptorsToProtobuf.toProtobufModuleDescriptor;
 
+/**
+ * Per-file entries (imports, descriptors and content hashes) are either stored under one cache key each,
+ * or, when the batched layout is enabled, packed into a small number of shards listed in an index entry.
+ * In the batched layout, all shards are prefetched on the first read and written at once by {@link #flush()}.
+ */
 public class Caching {
 
   private final CacheContext cacheContext;
@@ -46,27 +59,42 @@ public class Caching {
   public static final String CONTENT_HASHES_KEY = "python:content_hashes:";
   public static final String TYPESHED_MODULES_KEY = "python:typeshed_modules";
   public static final String CACHE_VERSION_KEY = "python:cache_version";
-  public static final String CPD_TOKENS_CACHE_KEY_PREFIX = "python:cpd:data:";
-  public static final String CPD_TOKENS_STRING_TABLE_KEY_PREFIX = "python:cpd:stringTable:";
+  public static final String CPD_TOKENS_CACHE_KEY_PREFIX = "python:cpd:tokens:";
+  public static final String CPD_SMALL_FILE_CACHE_KEY_PREFIX = "python:cpd:small:";
+  public static final String ANALYSIS_RESULTS_CACHE_KEY_PREFIX = "python:results:";
+  public static final String BATCHED_INDEX_KEY = "python:batched:index";
+  public static final String BATCHED_SHARD_KEY_PREFIX = "python:batched:shard:";
+
+  private static final int ENTRIES_PER_SHARD = 1024;
+  private static final String END_MARKER = "END";
 
   private static final Logger LOG = LoggerFactory.getLogger(Caching.class);
 
   public final String cacheVersion;
 
+  private final boolean useBatchedLayout;
+  private Map<String, byte[]> prefetchedEntries = null;
+  private final Map<String, byte[]> pendingEntries = new TreeMap<>();
+
   public Caching(CacheContext cacheContext, String cacheVersion) {
+    this(cacheContext, cacheVersion, false);
+  }
+
+  public Caching(CacheContext cacheContext, String cacheVersion, boolean useBatchedLayout) {
     this.cacheContext = cacheContext;
     this.cacheVersion = cacheVersion;
+    this.useBatchedLayout = useBatchedLayout;
   }
 
   public void writeImportsMapEntry(String fileKey, Set<String> imports) {
     byte[] importData = String.join(";", imports).getBytes(StandardCharsets.UTF_8);
     String cacheKey = importsMapCacheKey(fileKey);
-    cacheContext.getWriteCache().write(cacheKey, importData);
+    writeEntry(cacheKey, importData);
   }
 
   public void writeFileContentHash(String fileKey, byte[] hash) {
     String cacheKey = fileContentHashCacheKey(fileKey);
-    cacheContext.getWriteCache().write(cacheKey, hash);
+    writeEntry(cacheKey, hash);
   }
 
   public void writeFilesList(List<String> mainFiles) {
@@ -85,26 +113,24 @@ public class Caching {
 
   public void writeProjectLevelSymbolTableEntry(String fileKey, Set<Descriptor> descriptors) {
     String cacheKey = projectSymbolTableCacheKey(fileKey);
-    cacheContext.getWriteCache().write(cacheKey, toProtobufModuleDescriptor(descriptors).toByteArray());
+    writeEntry(cacheKey, toProtobufModuleDescriptor(descriptors).toByteArray());
   }
 
   public void copyFromPrevious(String fileKey) {
-    cacheContext.getWriteCache().copyFromPrevious(importsMapCacheKey(fileKey));
-    cacheContext.getWriteCache().copyFromPrevious(projectSymbolTableCacheKey(fileKey));
-    cacheContext.getWriteCache().copyFromPrevious(fileContentHashCacheKey(fileKey));
+    copyEntryFromPrevious(importsMapCacheKey(fileKey));
+    copyEntryFromPrevious(projectSymbolTableCacheKey(fileKey));
+    copyEntryFromPrevious(fileContentHashCacheKey(fileKey));
   }
 
   @CheckForNull
   public Set<Descriptor> readProjectLevelSymbolTableEntry(String fileKey) {
     String key = projectSymbolTableCacheKey(fileKey);
-    if (cacheContext.getReadCache().contains(key)) {
-      byte[] bytes = cacheContext.getReadCache().readBytes(key);
-      if (bytes != null) {
-        try {
-          return fromProtobuf(DescriptorsProtos.ModuleDescriptor.parseFrom(bytes));
-        } catch (InvalidProtocolBufferException e) {
-          LOG.debug("Failed to deserialize project level symbol table entry for module: \"{}\"", fileKey);
-        }
+    byte[] bytes = readEntry(key);
+    if (bytes != null) {
+      try {
+        return fromProtobuf(DescriptorsProtos.ModuleDescriptor.parseFrom(bytes));
+      } catch (InvalidProtocolBufferException e) {
+        LOG.debug("Failed to deserialize project level symbol table entry for module: \"{}\"", fileKey);
       }
     }
     return null;
@@ -113,16 +139,17 @@ public class Caching {
   @CheckForNull
   public Set<String> readImportMapEntry(String fileKey) {
     String cacheKey = importsMapCacheKey(fileKey);
-    byte[] bytes = cacheContext.getReadCache().readBytes(cacheKey);
+    byte[] bytes = readEntry(cacheKey);
     if (bytes != null) {
       return new HashSet<>(Arrays.asList(new String(bytes, StandardCharsets.UTF_8).split(";")));
     }
     return null;
   }
 
+  @CheckForNull
   public byte[] readFileContentHash(String fileKey) {
     String cacheKey = fileContentHashCacheKey(fileKey);
-    return cacheContext.getReadCache().readBytes(cacheKey);
+    return readEntry(cacheKey);
   }
 
   public Set<String> readFilesList() {
@@ -141,6 +168,133 @@ public class Caching {
     return Collections.emptySet();
   }
 
+  @CheckForNull
+  private byte[] readEntry(String cacheKey) {
+    if (!useBatchedLayout) {
+      return cacheContext.getReadCache().readBytes(cacheKey);
+    }
+    return prefetch().get(cacheKey);
+  }
+
+  private void writeEntry(String cacheKey, byte[] data) {
+    if (!useBatchedLayout) {
+      cacheContext.getWriteCache().write(cacheKey, data);
+      return;
+    }
+    if (pendingEntries.putIfAbsent(cacheKey, data) != null) {
+      throw new IllegalArgumentException(String.format("Same key cannot be written to multiple times (%s)", cacheKey));
+    }
+  }
+
+  private void copyEntryFromPrevious(String cacheKey) {
+    if (!useBatchedLayout) {
+      cacheContext.getWriteCache().copyFromPrevious(cacheKey);
+      return;
+    }
+    byte[] data = prefetch().get(cacheKey);
+    if (data == null) {
+      throw new IllegalArgumentException(String.format("Previous cache doesn't contain key (%s)", cacheKey));
+    }
+    writeEntry(cacheKey, data);
+  }
+
+  /**
+   * Reads all shards of the batched layout in one go. Subsequent reads of per-file entries are served from memory.
+   * Has no effect if the batched layout is not used or if the shards have already been read.
+   */
+  public Map<String, byte[]> prefetch() {
+    if (!useBatchedLayout) {
+      return Collections.emptyMap();
+    }
+    if (prefetchedEntries == null) {
+      prefetchedEntries = new HashMap<>();
+      byte[] indexBytes = cacheContext.getReadCache().readBytes(BATCHED_INDEX_KEY);
+      if (indexBytes != null) {
+        readShards(indexBytes);
+      }
+    }
+    return prefetchedEntries;
+  }
+
+  private void readShards(byte[] indexBytes) {
+    int shardCount;
+    try (VarLengthInputStream in = new VarLengthInputStream(indexBytes)) {
+      shardCount = in.readInt();
+    } catch (IOException e) {
+      LOG.debug("Failed to read batched cache index");
+      return;
+    }
+    for (int i = 0; i < shardCount; i++) {
+      byte[] shardBytes = cacheContext.getReadCache().readBytes(batchedShardKey(i));
+      if (shardBytes == null) {
+        continue;
+      }
+      try {
+        readShard(shardBytes, prefetchedEntries);
+      } catch (IOException e) {
+        LOG.debug("Failed to read batched cache shard {}", i);
+      }
+    }
+    LOG.debug("Prefetched {} cache entries from {} shards.", prefetchedEntries.size(), shardCount);
+  }
+
+  private static void readShard(byte[] shardBytes, Map<String, byte[]> entries) throws IOException {
+    Map<String, byte[]> shardEntries = new HashMap<>();
+    try (VarLengthInputStream in = new VarLengthInputStream(shardBytes)) {
+      int entryCount = in.readInt();
+      for (int i = 0; i < entryCount; i++) {
+        String key = in.readUTF();
+        shardEntries.put(key, in.readBytes());
+      }
+      if (!END_MARKER.equals(in.readUTF())) {
+        throw new IOException("Can't read data from cache, format corrupted");
+      }
+    }
+    // Entries of a corrupted shard are discarded altogether
+    entries.putAll(shardEntries);
+  }
+
+  /**
+   * Writes the per-file entries accumulated in the batched layout. Entries are sorted by key so that files of the same directory
+   * end up in the same shard. Must be called once, after all per-file entries have been written or copied.
+   */
+  public void flush() {
+    if (!useBatchedLayout) {
+      return;
+    }
+    List<Map.Entry<String, byte[]>> entries = new ArrayList<>(pendingEntries.entrySet());
+    int shardCount = 0;
+    try {
+      for (int start = 0; start < entries.size(); start += ENTRIES_PER_SHARD) {
+        List<Map.Entry<String, byte[]>> shard = entries.subList(start, Math.min(start + ENTRIES_PER_SHARD, entries.size()));
+        cacheContext.getWriteCache().write(batchedShardKey(shardCount), writeShard(shard));
+        shardCount++;
+      }
+      ByteArrayOutputStream indexStream = new ByteArrayOutputStream();
+      try (VarLengthOutputStream out = new VarLengthOutputStream(indexStream)) {
+        out.writeInt(shardCount);
+      }
+      cacheContext.getWriteCache().write(BATCHED_INDEX_KEY, indexStream.toByteArray());
+    } catch (IOException e) {
+      LOG.warn("Failed to write batched cache entries ({}: {})", e.getClass().getSimpleName(), e.getMessage());
+    }
+    LOG.debug("Wrote {} cache entries into {} shards.", entries.size(), shardCount);
+    pendingEntries.clear();
+  }
+
+  private static byte[] writeShard(List<Map.Entry<String, byte[]>> shard) throws IOException {
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    try (VarLengthOutputStream out = new VarLengthOutputStream(stream)) {
+      out.writeInt(shard.size());
+      for (Map.Entry<String, byte[]> entry : shard) {
+        out.writeUTF(entry.getKey());
+        out.writeBytes(entry.getValue());
+      }
+      out.writeUTF(END_MARKER);
+    }
+    return stream.toByteArray();
+  }
+
   public boolean isCacheVersionUpToDate() {
     byte[] bytes = cacheContext.getReadCache().readBytes(CACHE_VERSION_KEY);
     if (bytes != null) {
@@ -163,6 +317,14 @@ public class Caching {
     return cacheContext;
   }
 
+  public boolean isUsingBatchedLayout() {
+    return useBatchedLayout;
+  }
+
+  public static String batchedShardKey(int shardIndex) {
+    return BATCHED_SHARD_KEY_PREFIX + shardIndex;
+  }
+
   public static String importsMapCacheKey(String key) {
     return IMPORTS_MAP_CACHE_KEY_PREFIX + key.replace('\\', '/');
   }
@@ -0,0 +1,346 @@
+/*
+ * SonarQube Python Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.python.caching;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.api.batch.sensor.highlighting.TypeOfText;
+import org.sonar.plugins.python.api.IssueLocation;
+import org.sonar.python.caching.StringTable;
+import org.sonar.python.caching.VarLengthInputStream;
+import org.sonar.python.caching.VarLengthOutputStream;
+
+/**
+ * Results of the analysis of a single file (issues of built-in rules, measures and highlighting),
+ * recorded so that they can be replayed on the next analysis without parsing the file.
+ * <p>
+ * Results are keyed by the fingerprint of the active rules and by the fingerprint of the inputs of the analysis (content of the file
+ * and descriptors of the modules it imports): they may only be replayed when both are unchanged.
+ * Quick fixes are not recorded: they are only reported in SonarLint, where analysis results are never cached.
+ */
+public class FileAnalysisResults {
+
+  private static final String END_MARKER = "END";
+  private static final TypeOfText[] TYPES_OF_TEXT = TypeOfText.values();
+
+  private final String rulesFingerprint;
+  private final String inputsFingerprint;
+  private final List<Issue> issues = new ArrayList<>();
+  private final Map<String, Integer> measures = new LinkedHashMap<>();
+  private final BitSet linesOfCode = new BitSet();
+  private final BitSet executableLines = new BitSet();
+  private final BitSet noSonarLines = new BitSet();
+  private final List<Highlight> highlights = new ArrayList<>();
+
+  public FileAnalysisResults(String rulesFingerprint, String inputsFingerprint) {
+    this.rulesFingerprint = rulesFingerprint;
+    this.inputsFingerprint = inputsFingerprint;
+  }
+
+  public String rulesFingerprint() {
+    return rulesFingerprint;
+  }
+
+  public String inputsFingerprint() {
+    return inputsFingerprint;
+  }
+
+  public List<Issue> issues() {
+    return Collections.unmodifiableList(issues);
+  }
+
+  public Map<String, Integer> measures() {
+    return Collections.unmodifiableMap(measures);
+  }
+
+  public BitSet linesOfCode() {
+    return (BitSet) linesOfCode.clone();
+  }
+
+  public BitSet executableLines() {
+    return (BitSet) executableLines.clone();
+  }
+
+  public BitSet noSonarLines() {
+    return (BitSet) noSonarLines.clone();
+  }
+
+  public List<Highlight> highlights() {
+    return Collections.unmodifiableList(highlights);
+  }
+
+  public void addIssue(Issue issue) {
+    issues.add(issue);
+  }
+
+  public void addMeasure(String metricKey, int value) {
+    measures.put(metricKey, value);
+  }
+
+  public void addLinesOfCode(BitSet lines) {
+    linesOfCode.or(lines);
+  }
+
+  public void addExecutableLines(BitSet lines) {
+    executableLines.or(lines);
+  }
+
+  public void addNoSonarLines(BitSet lines) {
+    noSonarLines.or(lines);
+  }
+
+  public void addHighlight(int startLine, int startLineOffset, int endLine, int endLineOffset, TypeOfText typeOfText) {
+    highlights.add(new Highlight(startLine, startLineOffset, endLine, endLineOffset, typeOfText));
+  }
+
+  public static class Issue {
+    public final String ruleKey;
+    @Nullable
+    public final Integer cost;
+    public final Location primaryLocation;
+    public final List<Location> secondaryLocations;
+
+    public Issue(String ruleKey, @Nullable Integer cost, Location primaryLocation, List<Location> secondaryLocations) {
+      this.ruleKey = ruleKey;
+      this.cost = cost;
+      this.primaryLocation = primaryLocation;
+      this.secondaryLocations = secondaryLocations;
+    }
+  }
+
+  /**
+   * Flat copy of an {@link IssueLocation}, which cannot be re-instantiated with arbitrary values.
+   */
+  public static class Location {
+    @Nullable
+    public final String fileId;
+    public final int startLine;
+    public final int startLineOffset;
+    public final int endLine;
+    public final int endLineOffset;
+    @Nullable
+    public final String message;
+
+    public Location(@Nullable String fileId, int startLine, int startLineOffset, int endLine, int endLineOffset, @Nullable String message) {
+      this.fileId = fileId;
+      this.startLine = startLine;
+      this.startLineOffset = startLineOffset;
+      this.endLine = endLine;
+      this.endLineOffset = endLineOffset;
+      this.message = message;
+    }
+
+    public static Location from(IssueLocation location) {
+      return new Location(location.fileId(), location.startLine(), location.startLineOffset(), location.endLine(), location.endLineOffset(), location.message());
+    }
+  }
+
+  public static class Highlight {
+    public final int startLine;
+    public final int startLineOffset;
+    public final int endLine;
+    public final int endLineOffset;
+    public final TypeOfText typeOfText;
+
+    public Highlight(int startLine, int startLineOffset, int endLine, int endLineOffset, TypeOfText typeOfText) {
+      this.startLine = startLine;
+      this.startLineOffset = startLineOffset;
+      this.endLine = endLine;
+      this.endLineOffset = endLineOffset;
+      this.typeOfText = typeOfText;
+    }
+  }
+
+  public byte[] serialize() throws IOException {
+    StringTable stringTable = new StringTable();
+    ByteArrayOutputStream dataStream = new ByteArrayOutputStream();
+    try (VarLengthOutputStream out = new VarLengthOutputStream(dataStream)) {
+      writeNullableString(out, stringTable, rulesFingerprint);
+      writeNullableString(out, stringTable, inputsFingerprint);
+      out.writeInt(issues.size());
+      for (Issue issue : issues) {
+        writeNullableString(out, stringTable, issue.ruleKey);
+        out.writeInt(issue.cost == null ? 0 : (issue.cost + 1));
+        writeLocation(out, stringTable, issue.primaryLocation);
+        out.writeInt(issue.secondaryLocations.size());
+        for (Location location : issue.secondaryLocations) {
+          writeLocation(out, stringTable, location);
+        }
+      }
+      out.writeInt(measures.size());
+      for (Map.Entry<String, Integer> measure : measures.entrySet()) {
+        writeNullableString(out, stringTable, measure.getKey());
+        out.writeInt(measure.getValue());
+      }
+      writeLines(out, linesOfCode);
+      writeLines(out, executableLines);
+      writeLines(out, noSonarLines);
+      out.writeInt(highlights.size());
+      for (Highlight highlight : highlights) {
+        out.writeInt(highlight.startLine);
+        out.writeInt(highlight.startLineOffset);
+        out.writeInt(highlight.endLine);
+        out.writeInt(highlight.endLineOffset);
+        out.writeInt(highlight.typeOfText.ordinal());
+      }
+      out.writeUTF(END_MARKER);
+    }
+
+    ByteArrayOutputStream result = new ByteArrayOutputStream();
+    try (VarLengthOutputStream out = new VarLengthOutputStream(result)) {
+      List<String> strings = stringTable.getStringList();
+      out.writeInt(strings.size());
+      for (String string : strings) {
+        out.writeUTF(string);
+      }
+      out.writeBytes(dataStream.toByteArray());
+    }
+    return result.toByteArray();
+  }
+
+  public static FileAnalysisResults deserialize(byte[] bytes) throws IOException {
+    byte[] data;
+    StringTable stringTable;
+    try (VarLengthInputStream in = new VarLengthInputStream(bytes)) {
+      int size = in.readInt();
+      List<String> strings = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        strings.add(in.readUTF());
+      }
+      stringTable = new StringTable(strings);
+      data = in.readBytes();
+    }
+    try (VarLengthInputStream in = new VarLengthInputStream(data)) {
+      String fingerprint = readNullableString(in, stringTable);
+      String inputsFingerprint = readNullableString(in, stringTable);
+      if (fingerprint == null || inputsFingerprint == null) {
+        throw new IOException("Can't read data from cache, format corrupted");
+      }
+      FileAnalysisResults results = new FileAnalysisResults(fingerprint, inputsFingerprint);
+      int issueCount = in.readInt();
+      for (int i = 0; i < issueCount; i++) {
+        String ruleKey = readNullableString(in, stringTable);
+        int cost = in.readInt();
+        Location primaryLocation = readLocation(in, stringTable);
+        int secondaryCount = in.readInt();
+        List<Location> secondaryLocations = new ArrayList<>(secondaryCount);
+        for (int j = 0; j < secondaryCount; j++) {
+          secondaryLocations.add(readLocation(in, stringTable));
+        }
+        if (ruleKey == null) {
+          throw new IOException("Can't read data from cache, format corrupted");
+        }
+        results.addIssue(new Issue(ruleKey, cost == 0 ? null : (cost - 1), primaryLocation, secondaryLocations));
+      }
+      int measureCount = in.readInt();
+      for (int i = 0; i < measureCount; i++) {
+        String metricKey = readNullableString(in, stringTable);
+        if (metricKey == null) {
+          throw new IOException("Can't read data from cache, format corrupted");
+        }
+        results.addMeasure(metricKey, in.readInt());
+      }
+      results.addLinesOfCode(readLines(in));
+      results.addExecutableLines(readLines(in));
+      results.addNoSonarLines(readLines(in));
+      int highlightCount = in.readInt();
+      for (int i = 0; i < highlightCount; i++) {
+        int startLine = in.readInt();
+        int startLineOffset = in.readInt();
+        int endLine = in.readInt();
+        int endLineOffset = in.readInt();
+        int type = in.readInt();
+        if (type >= TYPES_OF_TEXT.length) {
+          throw new IOException("Can't read data from cache, format corrupted");
+        }
+        results.addHighlight(startLine, startLineOffset, endLine, endLineOffset, TYPES_OF_TEXT[type]);
+      }
+      if (!END_MARKER.equals(in.readUTF())) {
+        throw new IOException("Can't read data from cache, format corrupted");
+      }
+      return results;
+    }
+  }
+
+  private static void writeLocation(VarLengthOutputStream out, StringTable stringTable, Location location) throws IOException {
+    writeNullableString(out, stringTable, location.fileId);
+    out.writeInt(location.startLine);
+    // Offsets may be undefined (-1)
+    out.writeInt(location.startLineOffset + 1);
+    out.writeInt(location.endLine);
+    out.writeInt(location.endLineOffset + 1);
+    writeNullableString(out, stringTable, location.message);
+  }
+
+  private static Location readLocation(VarLengthInputStream in, StringTable stringTable) throws IOException {
+    String fileId = readNullableString(in, stringTable);
+    int startLine = in.readInt();
+    int startLineOffset = in.readInt() - 1;
+    int endLine = in.readInt();
+    int endLineOffset = in.readInt() - 1;
+    String message = readNullableString(in, stringTable);
+    return new Location(fileId, startLine, startLineOffset, endLine, endLineOffset, message);
+  }
+
+  private static void writeNullableString(VarLengthOutputStream out, StringTable stringTable, @Nullable String string) throws IOException {
+    out.writeInt(string == null ? 0 : (stringTable.getIndex(string) + 1));
+  }
+
+  @CheckForNull
+  private static String readNullableString(VarLengthInputStream in, StringTable stringTable) throws IOException {
+    int index = in.readInt();
+    if (index == 0) {
+      return null;
+    }
+    if (index > stringTable.getStringList().size()) {
+      throw new IOException("Can't read data from cache, format corrupted");
+    }
+    return stringTable.getString(index - 1);
+  }
+
+  private static void writeLines(VarLengthOutputStream out, BitSet lines) throws IOException {
+    // Lines are sorted: only deltas are stored
+    out.writeInt(lines.cardinality());
+    int previous = 0;
+    for (int line = lines.nextSetBit(0); line >= 0; line = lines.nextSetBit(line + 1)) {
+      out.writeInt(line - previous);
+      previous = line;
+    }
+  }
+
+  private static BitSet readLines(VarLengthInputStream in) throws IOException {
+    int size = in.readInt();
+    BitSet lines = new BitSet();
+    int line = 0;
+    for (int i = 0; i < size; i++) {
+      line += in.readInt();
+      lines.set(line);
+    }
+    return lines;
+  }
+}
@@ -22,77 +22,122 @@ package org.sonar.plugins.python.cpd;
 import com.sonar.sslr.api.GenericTokenType;
 import com.sonar.sslr.api.TokenType;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import javax.annotation.Nullable;
+import org.sonar.api.batch.fs.FilePredicate;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.batch.sensor.cpd.NewCpdTokens;
+import org.sonar.api.config.Configuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.plugins.python.api.PythonVisitorContext;
 import org.sonar.plugins.python.api.caching.CacheContext;
-import org.sonar.python.TokenLocation;
 import org.sonar.python.api.PythonTokenType;
-import org.sonar.plugins.python.api.tree.Token;
 import org.sonar.plugins.python.api.tree.Tree;
 import org.sonar.python.caching.CpdSerializer;
-import org.sonar.python.tree.TreeUtils;
+import org.sonar.python.tree.FileTokens;
 
+import static org.sonar.plugins.python.caching.Caching.CPD_SMALL_FILE_CACHE_KEY_PREFIX;
 import static org.sonar.plugins.python.caching.Caching.CPD_TOKENS_CACHE_KEY_PREFIX;
-import static org.sonar.plugins.python.caching.Caching.CPD_TOKENS_STRING_TABLE_KEY_PREFIX;
 
 public class PythonCpdAnalyzer {
 
   private static final Logger LOG = LoggerFactory.getLogger(PythonCpdAnalyzer.class);
 
+  static final String CPD_EXCLUSIONS_KEY = "sonar.cpd.exclusions";
+  static final String CPD_SKIP_KEY = "sonar.cpd.python.skip";
+  static final String MINIMUM_TOKENS_KEY = "sonar.cpd.python.minimumTokens";
+  private static final String DEPRECATED_CPD_SKIP_KEY = "sonar.cpd.skip";
+  private static final int DEFAULT_MINIMUM_TOKENS = 100;
+
   private final SensorContext context;
+  private final boolean skipped;
+  @Nullable
+  private final FilePredicate excludedFiles;
+  private final int minimumTokens;
+  private int skippedFilesCount = 0;
 
   public PythonCpdAnalyzer(SensorContext context) {
     this.context = context;
+    Configuration config = context.config();
+    this.skipped = config.getBoolean(CPD_SKIP_KEY).orElse(false) || config.getBoolean(DEPRECATED_CPD_SKIP_KEY).orElse(false);
+    String[] exclusions = Arrays.stream(config.getStringArray(CPD_EXCLUSIONS_KEY)).filter(s -> !s.isBlank()).toArray(String[]::new);
+    this.excludedFiles = exclusions.length == 0 ? null : context.fileSystem().predicates().matchesPathPatterns(exclusions);
+    this.minimumTokens = config.getInt(MINIMUM_TOKENS_KEY).orElse(DEFAULT_MINIMUM_TOKENS);
+  }
+
+  /**
+   * Number of files for which no CPD token was computed nor replayed, because they are excluded from duplication detection
+   * or too small to contain a duplicated block.
+   */
+  public int skippedFilesCount() {
+    return skippedFilesCount;
   }
 
   public void pushCpdTokens(InputFile inputFile, PythonVisitorContext visitorContext) {
     Tree root = visitorContext.rootTree();
     if (root != null) {
+      if (isExcluded(inputFile)) {
+        skippedFilesCount++;
+        return;
+      }
+      FileTokens tokens = FileTokens.of(root);
+      if (tokens.size() < minimumTokens) {
+        // Duplicated blocks shorter than the minimum number of tokens are not reported: such a file can't contain any
+        skippedFilesCount++;
+        // The token count of such a file is recorded under its own key, so that it can't be mistaken for serialized tokens
+        byte[] tokenCount = ByteBuffer.allocate(Integer.BYTES).putInt(tokens.size()).array();
+        writeToCache(visitorContext, smallFileCacheKey(visitorContext.pythonFile().key()), tokenCount);
+        return;
+      }
       NewCpdTokens cpdTokens = context.newCpdTokens().onFile(inputFile);
-      List<Token> tokens = TreeUtils.tokens(root);
-      List<Token> tokensToCache = new ArrayList<>();
+      int[] tokensToCache = new int[tokens.size()];
+      int tokensToCacheCount = 0;
       for (int i = 0; i < tokens.size(); i++) {
-        Token token = tokens.get(i);
-        TokenType currentTokenType = token.type();
-        TokenType nextTokenType = i + 1 < tokens.size() ? tokens.get(i + 1).type() : GenericTokenType.EOF;
+        TokenType currentTokenType = tokens.token(i).type();
+        TokenType nextTokenType = i + 1 < tokens.size() ? tokens.token(i + 1).type() : GenericTokenType.EOF;
         // INDENT/DEDENT could not be completely ignored during CPD see https://docs.python.org/3/reference/lexical_analysis.html#indentation
         // Just taking into account DEDENT is enough, but because the DEDENT token has an empty value, it's the
         // preceding new line which is added in its place to create a difference
         if (isNewLineWithIndentationChange(currentTokenType, nextTokenType) || !isIgnoredType(currentTokenType)) {
-          TokenLocation location = new TokenLocation(token);
-          cpdTokens.addToken(location.startLine(), location.startLineOffset(), location.endLine(), location.endLineOffset(), token.value());
-          tokensToCache.add(token);
+          cpdTokens.addToken(tokens.startLine(i), tokens.startLineOffset(i), tokens.endLine(i), tokens.endLineOffset(i), tokens.token(i).value());
+          tokensToCache[tokensToCacheCount++] = i;
         }
       }
-      saveTokensToCache(visitorContext, tokensToCache);
+      saveTokensToCache(visitorContext, tokens, Arrays.copyOf(tokensToCache, tokensToCacheCount));
       cpdTokens.save();
     }
   }
 
   public boolean pushCachedCpdTokens(InputFile inputFile, CacheContext cacheContext) {
+    if (isExcluded(inputFile)) {
+      skippedFilesCount++;
+      return true;
+    }
+    String smallFileKey = smallFileCacheKey(inputFile.key());
+    byte[] tokenCountBytes = cacheContext.getReadCache().readBytes(smallFileKey);
+    if (tokenCountBytes != null) {
+      if (tokenCountBytes.length != Integer.BYTES || ByteBuffer.wrap(tokenCountBytes).getInt() >= minimumTokens) {
+        // Corrupted entry, or the minimum number of tokens has been lowered since the previous analysis
+        return false;
+      }
+      skippedFilesCount++;
+      cacheContext.getWriteCache().copyFromPrevious(smallFileKey);
+      return true;
+    }
     String dataKey = dataCacheKey(inputFile.key());
-    String tableKey = stringTableCacheKey(inputFile.key());
     byte[] dataBytes = cacheContext.getReadCache().readBytes(dataKey);
-    byte[] tableBytes = cacheContext.getReadCache().readBytes(tableKey);
-    if (dataBytes == null || tableBytes == null) {
+    if (dataBytes == null) {
       return false;
     }
 
     try {
-      List<CpdSerializer.TokenInfo> tokens = CpdSerializer.deserialize(dataBytes, tableBytes);
-
       NewCpdTokens cpdTokens = context.newCpdTokens().onFile(inputFile);
-      tokens.forEach(tokenInfo ->
-        cpdTokens.addToken(tokenInfo.startLine, tokenInfo.startLineOffset, tokenInfo.endLine, tokenInfo.endLineOffset, tokenInfo.value));
+      CpdSerializer.deserialize(dataBytes, cpdTokens::addToken);
       cpdTokens.save();
       cacheContext.getWriteCache().copyFromPrevious(dataKey);
-      cacheContext.getWriteCache().copyFromPrevious(tableKey);
       return true;
     } catch (IOException e) {
       LOG.warn("Failed to deserialize CPD tokens ({}: {})", e.getClass().getSimpleName(), e.getMessage());
@@ -101,18 +146,30 @@ public class PythonCpdAnalyzer {
     return false;
   }
 
-  private static void saveTokensToCache(PythonVisitorContext visitorContext, List<Token> tokensToCache) {
+  private boolean isExcluded(InputFile inputFile) {
+    return skipped || (excludedFiles != null && excludedFiles.apply(inputFile));
+  }
+
+  private static void saveTokensToCache(PythonVisitorContext visitorContext, FileTokens tokens, int[] tokensToCache) {
+    if (!visitorContext.cacheContext().isCacheEnabled()) {
+      return;
+    }
+
+    try {
+      writeToCache(visitorContext, dataCacheKey(visitorContext.pythonFile().key()), CpdSerializer.serialize(tokens, tokensToCache));
+    } catch (IOException e) {
+      LOG.warn("Could not write CPD tokens to cache ({}: {})", e.getClass().getSimpleName(), e.getMessage());
+    }
+  }
+
+  private static void writeToCache(PythonVisitorContext visitorContext, String key, byte[] data) {
     CacheContext cacheContext = visitorContext.cacheContext();
     if (!cacheContext.isCacheEnabled()) {
       return;
     }
 
     try {
-      String fileKey = visitorContext.pythonFile().key();
-
-      CpdSerializer.SerializationResult result = CpdSerializer.serialize(tokensToCache);
-      cacheContext.getWriteCache().write(stringTableCacheKey(fileKey), result.stringTable);
-      cacheContext.getWriteCache().write(dataCacheKey(fileKey), result.data);
+      cacheContext.getWriteCache().write(key, data);
     } catch (Exception e) {
       LOG.warn("Could not write CPD tokens to cache ({}: {})", e.getClass().getSimpleName(), e.getMessage());
     }
@@ -133,7 +190,7 @@ public class PythonCpdAnalyzer {
     return CPD_TOKENS_CACHE_KEY_PREFIX + fileKey.replace('\\', '/');
   }
 
-  private static String stringTableCacheKey(String fileKey) {
-    return CPD_TOKENS_STRING_TABLE_KEY_PREFIX + fileKey.replace('\\', '/');
+  private static String smallFileCacheKey(String fileKey) {
+    return CPD_SMALL_FILE_CACHE_KEY_PREFIX + fileKey.replace('\\', '/');
   }
 }
@@ -103,6 +103,15 @@ public abstract class PythonIndexer {
     return false;
   }
 
+  /**
+   * Fingerprint of the inputs of the analysis of a file: its content and the descriptors of the modules it imports.
+   * Returns null when it cannot be computed, in which case results of the analysis of the file should not be reused.
+   */
+  @CheckForNull
+  public String inputsFingerprint(InputFile inputFile) {
+    return null;
+  }
+
   public abstract CacheContext cacheContext();
 
   class GlobalSymbolsScanner extends Scanner {
@@ -20,16 +20,30 @@
 package org.sonar.plugins.python.indexer;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.slf4j.Logger;
@@ -37,6 +51,7 @@ import org.slf4j.LoggerFactory;
 import org.sonar.plugins.python.api.caching.CacheContext;
 import org.sonar.plugins.python.caching.Caching;
 import org.sonar.python.index.Descriptor;
+import org.sonar.python.index.DescriptorEquivalence;
 import org.sonar.python.semantic.DependencyGraph;
 import org.sonar.python.semantic.SymbolUtils;
 import org.sonar.python.types.TypeShed;
@@ -52,6 +67,23 @@ public class SonarQubePythonIndexer extends PythonIndexer {
    * Setting it to true or false, forces the behavior from the analyzer independently of the server.
    */
   public static final String SONAR_CAN_SKIP_UNCHANGED_FILES_KEY = "sonar.python.skipUnchanged";
+
+  /**
+   * Describes if per-file cache entries (imports, descriptors, content hashes) are packed into a few large shards
+   * instead of being stored under one cache key each. Disabled by default.
+   */
+  public static final String SONAR_PYTHON_BATCHED_CACHE_KEY = "sonar.python.cache.batched";
+
+  /**
+   * Describes if file contents are hashed with a non-cryptographic 128-bit hash (MurmurHash3) instead of MD5. Disabled by default.
+   */
+  public static final String SONAR_PYTHON_FAST_HASH_KEY = "sonar.python.cache.fastHash";
+
+  /**
+   * Number of threads used to validate cached data of unchanged files at the beginning of an incremental analysis.
+   */
+  public static final String SONAR_PYTHON_CACHE_VALIDATION_THREADS_KEY = "sonar.python.cache.validationThreads";
+  private static final int DEFAULT_CACHE_VALIDATION_THREADS = Math.min(4, Runtime.getRuntime().availableProcessors());
   private static final Logger LOG = LoggerFactory.getLogger(SonarQubePythonIndexer.class);
 
   private final Caching caching;
@@ -59,10 +91,16 @@ public class SonarQubePythonIndexer extends PythonIndexer {
   private final Set<InputFile> partiallySkippableFiles = new HashSet<>();
   private final List<InputFile> inputFiles = new ArrayList<>();
   private final Map<InputFile, String> inputFileToFQN = new HashMap<>();
+  private final Map<InputFile, byte[]> contentHashes = new ConcurrentHashMap<>();
+  private final Map<String, Set<String>> cachedImportsByModule = new HashMap<>();
+  private final FileHashingUtils.HashAlgorithm hashAlgorithm;
 
   public SonarQubePythonIndexer(List<InputFile> inputFiles, CacheContext cacheContext, SensorContext context) {
     this.projectBaseDirAbsolutePath = context.fileSystem().baseDir().getAbsolutePath();
-    this.caching = new Caching(cacheContext, getCacheVersion(context));
+    boolean useBatchedLayout = context.config().getBoolean(SONAR_PYTHON_BATCHED_CACHE_KEY).orElse(false);
+    this.hashAlgorithm = context.config().getBoolean(SONAR_PYTHON_FAST_HASH_KEY).orElse(false) ?
+      FileHashingUtils.HashAlgorithm.MURMUR3_128 : FileHashingUtils.HashAlgorithm.MD5;
+    this.caching = new Caching(cacheContext, getCacheVersion(context, useBatchedLayout, hashAlgorithm), useBatchedLayout);
     inputFiles.forEach(f -> {
       this.inputFiles.add(f);
       inputFileToFQN.put(f, SymbolUtils.fullyQualifiedModuleName(packageName(f), f.filename()));
@@ -90,37 +128,66 @@ public class SonarQubePythonIndexer extends PythonIndexer {
   private void computeGlobalSymbolsUsingCache(SensorContext context) {
     loadTypeshedSymbols();
     LOG.info("Using cached data to retrieve global symbols.");
+    caching.prefetch();
     Set<String> currentProjectModulesFQNs = new HashSet<>(inputFileToFQN.values());
     Set<String> deletedModulesFQNs = deletedModulesFQNs(currentProjectModulesFQNs);
     Set<String> allProjectFilesFQNs = Stream.concat(currentProjectModulesFQNs.stream(), deletedModulesFQNs.stream())
       .collect(Collectors.toSet());
-    Map<String, Set<String>> importsByModule = new HashMap<>();
-    // Deleted files are considered impactful to their dependents but will not be re-analyzed.
+    Map<String, Set<String>> importsByModule = cachedImportsByModule;
     List<InputFile> impactfulFiles = new ArrayList<>();
-    List<String> impactfulModulesFQNs = new ArrayList<>(deletedModulesFQNs);
-    for (InputFile inputFile : inputFiles) {
+    List<CachedEntry> cachedEntries = readCachedEntries(context);
+    for (int i = 0; i < inputFiles.size(); i++) {
+      InputFile inputFile = inputFiles.get(i);
       String currFQN = inputFileToFQN.get(inputFile);
-      boolean isUnimpacted = tryToUseCache(importsByModule, inputFile, currFQN);
+      boolean isUnimpacted = tryToUseCache(importsByModule, inputFile, currFQN, cachedEntries.get(i));
       if (!isUnimpacted) {
         // Failed to retrieve some data: consider the file as impactful.
         impactfulFiles.add(inputFile);
-        impactfulModulesFQNs.add(currFQN);
       } else {
         partiallySkippableFiles.add(inputFile);
       }
     }
+    // Although we need to analyze all impacted files, we only need to recompute global symbols for modified files (no cross-file dependencies in the project symbol table)
+    computeGlobalSymbols(impactfulFiles, context);
+
+    // Deleted files are considered impactful to their dependents but will not be re-analyzed.
+    List<String> impactfulModulesFQNs = new ArrayList<>(deletedModulesFQNs);
+    Set<String> modulesWithUnchangedDescriptors = new HashSet<>();
+    for (InputFile inputFile : impactfulFiles) {
+      String currFQN = inputFileToFQN.get(inputFile);
+      if (hasUnchangedDescriptors(inputFile, currFQN)) {
+        // Only the module itself needs to be re-analyzed: its dependents only see its descriptors, which are identical.
+        modulesWithUnchangedDescriptors.add(currFQN);
+      } else {
+        impactfulModulesFQNs.add(currFQN);
+      }
+    }
     // Impacted modules are computed from both modified files and deleted ones.
     Set<String> impactedModulesFQN = DependencyGraph.from(importsByModule, allProjectFilesFQNs).impactedModules(impactfulModulesFQNs);
+    impactedModulesFQN.addAll(modulesWithUnchangedDescriptors);
     inputFiles.stream().filter(f -> !impactedModulesFQN.contains(inputFileToFQN.get(f))).forEach(fullySkippableFiles::add);
     LOG.info(
       "Cached information of global symbols will be used for {} out of {} main files. Global symbols will be recomputed for the remaining files.",
       inputFiles.size() - impactfulFiles.size(),
       inputFiles.size()
     );
+    LOG.info("Global symbols are unchanged for {} out of {} recomputed files: their dependents will not be considered impacted.",
+      modulesWithUnchangedDescriptors.size(), impactfulFiles.size());
     LOG.info("Fully optimized analysis can be performed for {} out of {} files.", fullySkippableFiles.size(), inputFiles.size());
     LOG.info("Partially optimized analysis can be performed for {} out of {} files.", partiallySkippableFiles.size(), inputFiles.size());
-    // Although we need to analyze all impacted files, we only need to recompute global symbols for modified files (no cross-file dependencies in the project symbol table)
-    computeGlobalSymbols(impactfulFiles, context);
+  }
+
+  /**
+   * Compares the freshly computed descriptors of a module with the ones from the previous analysis.
+   * When they are structurally identical, the change did not affect the module's public surface (e.g. only a function body was modified).
+   */
+  private boolean hasUnchangedDescriptors(InputFile inputFile, String moduleFQN) {
+    Set<Descriptor> currentDescriptors = projectLevelSymbolTable().descriptorsForModule(moduleFQN);
+    if (currentDescriptors == null) {
+      return false;
+    }
+    Set<Descriptor> previousDescriptors = caching.readProjectLevelSymbolTableEntry(inputFile.key());
+    return previousDescriptors != null && DescriptorEquivalence.areEquivalent(currentDescriptors, previousDescriptors);
   }
 
   /*
@@ -134,16 +201,57 @@ public class SonarQubePythonIndexer extends PythonIndexer {
     typeShedModules.forEach(TypeShed::symbolsForModule);
   }
 
-  private boolean tryToUseCache(Map<String, Set<String>> importsByModule, InputFile inputFile, String currFQN) {
-    if (!fileIsUnchanged(inputFile)) {
-      return false;
+  /**
+   * Hashing files and reading/deserializing their cache entries is done on a bounded thread pool.
+   * Results are returned in the order of the input files, so that merging them stays deterministic.
+   */
+  private List<CachedEntry> readCachedEntries(SensorContext context) {
+    int threads = context.config().getInt(SONAR_PYTHON_CACHE_VALIDATION_THREADS_KEY).orElse(DEFAULT_CACHE_VALIDATION_THREADS);
+    if (threads <= 1 || inputFiles.size() <= 1) {
+      return inputFiles.stream().map(this::readCachedEntry).collect(Collectors.toList());
     }
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, inputFiles.size()));
+    try {
+      List<Future<CachedEntry>> futures = executor.invokeAll(inputFiles.stream()
+        .map(f -> (Callable<CachedEntry>) () -> readCachedEntry(f))
+        .collect(Collectors.toList()));
+      List<CachedEntry> result = new ArrayList<>(futures.size());
+      for (Future<CachedEntry> future : futures) {
+        result.add(getCachedEntry(future));
+      }
+      return result;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return inputFiles.stream().map(f -> CachedEntry.MISSING).collect(Collectors.toList());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
 
+  private static CachedEntry getCachedEntry(Future<CachedEntry> future) throws InterruptedException {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      LOG.debug("Failed to read cached data: {}", e.getCause().getMessage());
+      return CachedEntry.MISSING;
+    }
+  }
+
+  private CachedEntry readCachedEntry(InputFile inputFile) {
+    if (!fileIsUnchanged(inputFile)) {
+      return CachedEntry.MISSING;
+    }
     Set<String> imports = caching.readImportMapEntry(inputFile.key());
+    Set<Descriptor> descriptors = caching.readProjectLevelSymbolTableEntry(inputFile.key());
+    return new CachedEntry(imports, descriptors);
+  }
+
+  private boolean tryToUseCache(Map<String, Set<String>> importsByModule, InputFile inputFile, String currFQN, CachedEntry cachedEntry) {
+    Set<String> imports = cachedEntry.imports;
     if (imports != null) {
       importsByModule.put(currFQN, imports);
     }
-    Set<Descriptor> descriptors = caching.readProjectLevelSymbolTableEntry(inputFile.key());
+    Set<Descriptor> descriptors = cachedEntry.descriptors;
     if (descriptors != null && imports != null) {
       saveRetrievedDescriptors(inputFile.key(), descriptors, caching);
       return true;
@@ -152,6 +260,18 @@ public class SonarQubePythonIndexer extends PythonIndexer {
     return false;
   }
 
+  private static class CachedEntry {
+    private static final CachedEntry MISSING = new CachedEntry(null, null);
+
+    private final Set<String> imports;
+    private final Set<Descriptor> descriptors;
+
+    private CachedEntry(@Nullable Set<String> imports, @Nullable Set<Descriptor> descriptors) {
+      this.imports = imports;
+      this.descriptors = descriptors;
+    }
+  }
+
   private boolean fileIsUnchanged(InputFile inputFile) {
     if (!inputFile.status().equals(InputFile.Status.SAME)) {
       return false;
@@ -160,7 +280,7 @@ public class SonarQubePythonIndexer extends PythonIndexer {
     // InputFile.Status is not reliable in some cases
     // We use the hash of the file's content to double-check the content is the same.
     try {
-      byte[] bytes = FileHashingUtils.inputFileContentHash(inputFile);
+      byte[] bytes = contentHash(inputFile);
       return MessageDigest.isEqual(fileHash, bytes);
     } catch (IOException | NoSuchAlgorithmException e) {
       LOG.debug("Failed to compute content hash for file {}", inputFile.key());
@@ -183,6 +303,7 @@ public class SonarQubePythonIndexer extends PythonIndexer {
       if (!stubModules.isEmpty()) {
         caching.writeTypeshedModules(stubModules);
       }
+      caching.flush();
       caching.writeCacheVersion();
     }
   }
@@ -207,7 +328,7 @@ public class SonarQubePythonIndexer extends PythonIndexer {
   private boolean writeContentHashToCache(InputFile inputFile) {
     byte[] contentHash;
     try {
-      contentHash = FileHashingUtils.inputFileContentHash(inputFile);
+      contentHash = contentHash(inputFile);
     } catch (IOException | NoSuchAlgorithmException e) {
       LOG.debug("Failed to compute content hash for file {}", inputFile.key());
       return false;
@@ -216,6 +337,18 @@ public class SonarQubePythonIndexer extends PythonIndexer {
     return true;
   }
 
+  /**
+   * Content hashes are computed at most once per file and per analysis.
+   */
+  private byte[] contentHash(InputFile inputFile) throws IOException, NoSuchAlgorithmException {
+    byte[] hash = contentHashes.get(inputFile);
+    if (hash == null) {
+      hash = FileHashingUtils.inputFileContentHash(inputFile, hashAlgorithm);
+      contentHashes.put(inputFile, hash);
+    }
+    return hash;
+  }
+
   private Set<String> deletedModulesFQNs(Set<String> projectModulesFQNs) {
     Set<String> previousAnalysisModulesFQNs = caching.readFilesList();
     previousAnalysisModulesFQNs.removeAll(projectModulesFQNs);
@@ -236,14 +369,66 @@ public class SonarQubePythonIndexer extends PythonIndexer {
     return fullySkippableFiles.contains(inputFile);
   }
 
+  /**
+   * Imported modules are sorted so that the fingerprint does not depend on iteration order.
+   * Modules without descriptors (e.g. Typeshed modules, which only change with the plugin version) only contribute their name.
+   */
+  @CheckForNull
+  @Override
+  public String inputsFingerprint(InputFile inputFile) {
+    String moduleFQN = inputFileToFQN.get(inputFile);
+    Set<String> imports = projectLevelSymbolTable().importsByModule().get(moduleFQN);
+    if (imports == null) {
+      imports = cachedImportsByModule.get(moduleFQN);
+    }
+    if (imports == null) {
+      return null;
+    }
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(contentHash(inputFile));
+      for (String importedModule : new TreeSet<>(imports)) {
+        digest.update(importedModule.getBytes(StandardCharsets.UTF_8));
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(DescriptorEquivalence.hash(descriptorsOfModule(importedModule))).array());
+      }
+      return Base64.getEncoder().encodeToString(digest.digest());
+    } catch (IOException | NoSuchAlgorithmException e) {
+      LOG.debug("Failed to compute content hash for file {}", inputFile.key());
+      return null;
+    }
+  }
+
+  @CheckForNull
+  private Set<Descriptor> descriptorsOfModule(String moduleFQN) {
+    Set<Descriptor> descriptors = projectLevelSymbolTable().descriptorsForModule(moduleFQN);
+    if (descriptors != null) {
+      return descriptors;
+    }
+    // Descriptors retrieved from the cache are stored under the key of their file
+    return inputFileToFQN.entrySet().stream()
+      .filter(e -> e.getKey() != null && moduleFQN.equals(e.getValue()))
+      .map(e -> projectLevelSymbolTable().descriptorsForModule(e.getKey().key()))
+      .filter(Objects::nonNull)
+      .findFirst()
+      .orElse(null);
+  }
+
   @Override
   public CacheContext cacheContext() {
     return caching.cacheContext();
   }
 
-  private static String getCacheVersion(SensorContext context) {
+  private static String getCacheVersion(SensorContext context, boolean useBatchedLayout, FileHashingUtils.HashAlgorithm hashAlgorithm) {
     String implementationVersion = getImplementationVersion(SonarQubePythonIndexer.class);
-    return context.config().get(PYTHON_VERSION_KEY).map(v -> implementationVersion + ";" + v).orElse(implementationVersion);
+    String cacheVersion = context.config().get(PYTHON_VERSION_KEY).map(v -> implementationVersion + ";" + v).orElse(implementationVersion);
+    // Switching layouts or hash algorithms must invalidate the cache, as entries written with one setting cannot be used with the other
+    if (useBatchedLayout) {
+      cacheVersion += ";batched";
+    }
+    if (hashAlgorithm != FileHashingUtils.HashAlgorithm.MD5) {
+      cacheVersion += ";" + hashAlgorithm.name().toLowerCase(Locale.ROOT);
+    }
+    return cacheVersion;
   }
 
   private static String getImplementationVersion(Class<?> cls) {
@@ -60,6 +60,7 @@ import org.sonar.api.batch.rule.internal.ActiveRulesBuilder;
 import org.sonar.api.batch.rule.internal.NewActiveRule;
 import org.sonar.api.batch.sensor.cpd.internal.TokensLine;
 import org.sonar.api.batch.sensor.error.AnalysisError;
+import org.sonar.api.batch.sensor.highlighting.TypeOfText;
 import org.sonar.api.batch.sensor.internal.DefaultSensorDescriptor;
 import org.sonar.api.batch.sensor.internal.SensorContextTester;
 import org.sonar.api.batch.sensor.issue.Issue;
@@ -82,12 +83,15 @@ import org.sonar.plugins.python.api.ProjectPythonVersion;
 import org.sonar.plugins.python.api.PythonCheck;
 import org.sonar.plugins.python.api.PythonCustomRuleRepository;
 import org.sonar.plugins.python.api.PythonInputFileContext;
+import org.sonar.plugins.python.api.PythonSubscriptionCheck;
 import org.sonar.plugins.python.api.PythonVersionUtils;
 import org.sonar.plugins.python.api.PythonVisitorContext;
 import org.sonar.plugins.python.api.caching.CacheContext;
 import org.sonar.plugins.python.api.internal.EndOfAnalysis;
 import org.sonar.plugins.python.api.tree.Token;
+import org.sonar.plugins.python.api.tree.Tree;
 import org.sonar.plugins.python.caching.Caching;
+import org.sonar.plugins.python.caching.FileAnalysisResults;
 import org.sonar.plugins.python.caching.TestReadCache;
 import org.sonar.plugins.python.caching.TestWriteCache;
 import org.sonar.plugins.python.indexer.FileHashingUtils;
@@ -115,9 +119,9 @@ import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.sonar.plugins.python.caching.Caching.ANALYSIS_RESULTS_CACHE_KEY_PREFIX;
 import static org.sonar.plugins.python.caching.Caching.CACHE_VERSION_KEY;
 import static org.sonar.plugins.python.caching.Caching.CPD_TOKENS_CACHE_KEY_PREFIX;
-import static org.sonar.plugins.python.caching.Caching.CPD_TOKENS_STRING_TABLE_KEY_PREFIX;
 import static org.sonar.plugins.python.caching.Caching.IMPORTS_MAP_CACHE_KEY_PREFIX;
 import static org.sonar.plugins.python.caching.Caching.PROJECT_SYMBOL_TABLE_CACHE_KEY_PREFIX;
 import static org.sonar.plugins.python.caching.Caching.fileContentHashCacheKey;
@@ -135,9 +139,11 @@ class PythonSensorTest {
   private static final String FILE_INVALID_SYNTAX = "invalid_syntax.py";
   private static final String ONE_STATEMENT_PER_LINE_RULE_KEY = "OneStatementPerLine";
   private static final String FILE_COMPLEXITY_RULE_KEY = "FileComplexity";
+  private static final String CPD_MINIMUM_TOKENS_KEY = "sonar.cpd.python.minimumTokens";
   private static final String CUSTOM_REPOSITORY_KEY = "customKey";
   private static final String CUSTOM_RULE_KEY = "key";
   private static final String RULE_CRASHING_ON_SCAN_KEY = "key2";
+  private static final String RULE_CRASHING_DURING_TRAVERSAL_KEY = "key3";
 
   private static final Version SONARLINT_DETECTABLE_VERSION = Version.create(6, 0);
 
@@ -151,7 +157,7 @@ class PythonSensorTest {
 
     @Override
     public List<Class> checkClasses() {
-      return List.of(MyCustomRule.class, RuleCrashingOnRegularScan.class);
+      return List.of(MyCustomRule.class, RuleCrashingOnRegularScan.class, RuleCrashingDuringTraversal.class);
     }
   }};
   private static Path workDir;
@@ -205,6 +211,21 @@ class PythonSensorTest {
     }
   }
 
+  @Rule(
+    key = RULE_CRASHING_DURING_TRAVERSAL_KEY,
+    name = "rule_crashing_during_traversal",
+    description = "desc",
+    tags = {"bug"})
+  public static class RuleCrashingDuringTraversal extends PythonSubscriptionCheck {
+
+    @Override
+    public void initialize(Context context) {
+      context.registerSyntaxNodeConsumer(Tree.Kind.WHILE_STMT, ctx -> {
+        throw new IllegalStateException("Crash during traversal");
+      });
+    }
+  }
+
   private final File baseDir = new File("src/test/resources/org/sonar/plugins/python/sensor").getAbsoluteFile();
 
   private SensorContextTester context;
@@ -404,6 +425,64 @@ class PythonSensorTest {
     assertThat(PythonScanner.getWorkingDirectory(context)).isEqualTo(workDir.toFile());
   }
 
+  @Test
+  void failing_check_does_not_prevent_saving_metrics_cpd_tokens_and_highlighting() {
+    activeRules = new ActiveRulesBuilder()
+      .addRule(new NewActiveRule.Builder()
+        .setRuleKey(RuleKey.of(CUSTOM_REPOSITORY_KEY, RULE_CRASHING_DURING_TRAVERSAL_KEY))
+        .build())
+      .build();
+    InputFile inputFile = inputFile(FILE_2);
+    context.setSettings(new MapSettings().setProperty(CPD_MINIMUM_TOKENS_KEY, 1));
+    sensor().execute(context);
+
+    assertThat(logTester.logs(Level.WARN)).contains("Unable to analyze file: " + inputFile);
+    String key = inputFile.key();
+    assertThat(context.measure(key, CoreMetrics.NCLOC).value()).isEqualTo(7);
+    assertThat(context.measure(key, CoreMetrics.COMPLEXITY).value()).isEqualTo(5);
+    assertThat(context.cpdTokens(key)).isNotEmpty();
+    assertThat(context.highlightingTypeAt(key, 3, 0)).containsExactly(TypeOfText.KEYWORD);
+    assertThat(context.referencesForSymbolAt(key, 3, 4)).isNotNull();
+  }
+
+  @Test
+  void data_flow_max_blocks_is_set_per_analysis() {
+    inputFile(FILE_1);
+    context.setSettings(new MapSettings().setProperty(PythonScanner.SONAR_PYTHON_DATA_FLOW_MAX_BLOCKS_KEY, 1));
+    sensor().execute(context);
+    assertThat(logTester.logs(Level.DEBUG)).anyMatch(log -> log.endsWith("too large for data flow analyses (more than 1 blocks)"));
+
+    logTester.clear();
+    context.setSettings(new MapSettings());
+    sensor().execute(context);
+    assertThat(logTester.logs(Level.DEBUG)).anyMatch(log -> log.endsWith("too large for data flow analyses (more than 2000 blocks)"));
+  }
+
+  @Test
+  void type_inference_is_skipped_when_no_check_requires_it() {
+    activeRules = new ActiveRulesBuilder()
+      .addRule(new NewActiveRule.Builder()
+        .setRuleKey(RuleKey.of(CheckList.REPOSITORY_KEY, "LineLength"))
+        .build())
+      .build();
+
+    inputFile(FILE_1);
+    sensor().execute(context);
+    assertThat(logTester.logs(Level.DEBUG)).contains("Type inference skipped for 1 files");
+
+    logTester.clear();
+    activeRules = new ActiveRulesBuilder()
+      .addRule(new NewActiveRule.Builder()
+        .setRuleKey(RuleKey.of(CheckList.REPOSITORY_KEY, "LineLength"))
+        .build())
+      .addRule(new NewActiveRule.Builder()
+        .setRuleKey(RuleKey.of(CheckList.REPOSITORY_KEY, "S5905"))
+        .build())
+      .build();
+    sensor().execute(context);
+    assertThat(logTester.logs(Level.DEBUG)).contains("Type inference skipped for 0 files");
+  }
+
   @Test
   void cross_files_secondary_locations() {
     activeRules = new ActiveRulesBuilder()
@@ -774,11 +853,10 @@ class PythonSensorTest {
     writeCache.bind(readCache);
 
     byte[] serializedSymbolTable = toProtobufModuleDescriptor(Set.of(new VariableDescriptor("x", "main.x", null))).toByteArray();
-    CpdSerializer.SerializationResult cpdTokens = CpdSerializer.serialize(Collections.emptyList());
+    byte[] cpdTokens = CpdSerializer.serialize(Collections.emptyList());
     readCache.put(importsMapCacheKey(inputFile.key()), String.join(";", Collections.emptyList()).getBytes(StandardCharsets.UTF_8));
     readCache.put(projectSymbolTableCacheKey(inputFile.key()), serializedSymbolTable);
-    readCache.put(CPD_TOKENS_CACHE_KEY_PREFIX + inputFile.key(), cpdTokens.data);
-    readCache.put(CPD_TOKENS_STRING_TABLE_KEY_PREFIX + inputFile.key(), cpdTokens.stringTable);
+    readCache.put(CPD_TOKENS_CACHE_KEY_PREFIX + inputFile.key(), cpdTokens);
     readCache.put(fileContentHashCacheKey(inputFile.key()), FileHashingUtils.inputFileContentHash(inputFile));
     context.setPreviousCache(readCache);
     context.setNextCache(writeCache);
@@ -927,17 +1005,16 @@ class PythonSensorTest {
     context.setPreviousCache(readCache);
     context.setNextCache(writeCache);
     context.setCacheEnabled(true);
-    context.setSettings(new MapSettings().setProperty("sonar.python.skipUnchanged", true));
+    context.setSettings(new MapSettings().setProperty("sonar.python.skipUnchanged", true).setProperty(CPD_MINIMUM_TOKENS_KEY, 1));
     sensor().execute(context);
 
     assertThat(writeCache.getData().keySet()).containsExactlyInAnyOrder(
       "python:cache_version", "python:files", "python:descriptors:moduleKey:pass.py", "python:imports:moduleKey:pass.py",
-      "python:cpd:data:moduleKey:pass.py", "python:cpd:stringTable:moduleKey:pass.py", "python:content_hashes:moduleKey:pass.py");
+      "python:cpd:tokens:moduleKey:pass.py", "python:content_hashes:moduleKey:pass.py");
 
-    byte[] tokenData = writeCache.getData().get("python:cpd:data:moduleKey:pass.py");
-    byte[] stringTable = writeCache.getData().get("python:cpd:stringTable:moduleKey:pass.py");
+    byte[] tokenData = writeCache.getData().get("python:cpd:tokens:moduleKey:pass.py");
 
-    List<CpdSerializer.TokenInfo> actualTokens = CpdSerializer.deserialize(tokenData, stringTable);
+    List<CpdSerializer.TokenInfo> actualTokens = CpdSerializer.deserialize(tokenData);
     assertThat(actualTokens)
       .hasSize(1);
 
@@ -968,7 +1045,7 @@ class PythonSensorTest {
     sensor().execute(context);
 
     assertThat(logTester.logs(Level.WARN))
-      .contains("Could not write CPD tokens to cache (IllegalArgumentException: Same key cannot be written to multiple times (python:cpd:data:moduleKey:pass.py))");
+      .contains("Could not write CPD tokens to cache (IllegalArgumentException: Same key cannot be written to multiple times (python:cpd:tokens:moduleKey:pass.py))");
   }
 
   @Test
@@ -988,18 +1065,16 @@ class PythonSensorTest {
     context.setPreviousCache(readCache);
     context.setNextCache(writeCache);
     context.setCacheEnabled(true);
-    context.setSettings(new MapSettings().setProperty("sonar.python.skipUnchanged", true));
+    context.setSettings(new MapSettings().setProperty("sonar.python.skipUnchanged", true).setProperty(CPD_MINIMUM_TOKENS_KEY, 1));
     sensor().execute(context);
 
-    byte[] mainTokensData = writeCache.getData().get("python:cpd:data:moduleKey:main.py");
-    byte[] mainTokensTable = writeCache.getData().get("python:cpd:stringTable:moduleKey:main.py");
-    List<CpdSerializer.TokenInfo> actualTokensForMain = CpdSerializer.deserialize(mainTokensData, mainTokensTable);
+    byte[] mainTokensData = writeCache.getData().get("python:cpd:tokens:moduleKey:main.py");
+    List<CpdSerializer.TokenInfo> actualTokensForMain = CpdSerializer.deserialize(mainTokensData);
     assertThat(actualTokensForMain)
       .hasSize(14);
 
-    byte[] passTokensData = writeCache.getData().get("python:cpd:data:moduleKey:pass.py");
-    byte[] passTokensTable = writeCache.getData().get("python:cpd:stringTable:moduleKey:pass.py");
-    List<CpdSerializer.TokenInfo> actualTokensForPass = CpdSerializer.deserialize(passTokensData, passTokensTable);
+    byte[] passTokensData = writeCache.getData().get("python:cpd:tokens:moduleKey:pass.py");
+    List<CpdSerializer.TokenInfo> actualTokensForPass = CpdSerializer.deserialize(passTokensData);
     assertThat(actualTokensForPass)
       .hasSize(1);
   }
@@ -1017,9 +1092,8 @@ class PythonSensorTest {
     List<Token> tokens = List.of(new TokenImpl(sslrToken));
 
     TestReadCache readCache = getValidReadCache();
-    CpdSerializer.SerializationResult cpdTokens = CpdSerializer.serialize(tokens);
-    readCache.put(CPD_TOKENS_CACHE_KEY_PREFIX + inputFile.key(), cpdTokens.data);
-    readCache.put(CPD_TOKENS_STRING_TABLE_KEY_PREFIX + inputFile.key(), cpdTokens.stringTable);
+    byte[] cpdTokens = CpdSerializer.serialize(tokens);
+    readCache.put(CPD_TOKENS_CACHE_KEY_PREFIX + inputFile.key(), cpdTokens);
     byte[] serializedSymbolTable = toProtobufModuleDescriptor(Collections.emptySet()).toByteArray();
     readCache.put(importsMapCacheKey(inputFile.key()), String.join(";", Collections.emptyList()).getBytes(StandardCharsets.UTF_8));
     readCache.put(projectSymbolTableCacheKey(inputFile.key()), serializedSymbolTable);
@@ -1045,8 +1119,7 @@ class PythonSensorTest {
 
     // Verify that we carried the tokens over to the next cache
     assertThat(writeCache.getData())
-      .containsEntry(CPD_TOKENS_CACHE_KEY_PREFIX + inputFile.key(), cpdTokens.data)
-      .containsEntry(CPD_TOKENS_STRING_TABLE_KEY_PREFIX + inputFile.key(), cpdTokens.stringTable);
+      .containsEntry(CPD_TOKENS_CACHE_KEY_PREFIX + inputFile.key(), cpdTokens);
   }
 
   @Test
@@ -1070,7 +1143,7 @@ class PythonSensorTest {
     context.setPreviousCache(readCache);
     context.setNextCache(writeCache);
     context.setCacheEnabled(true);
-    context.setSettings(new MapSettings().setProperty("sonar.python.skipUnchanged", true));
+    context.setSettings(new MapSettings().setProperty("sonar.python.skipUnchanged", true).setProperty(CPD_MINIMUM_TOKENS_KEY, 1));
 
     sensor().execute(context);
 
@@ -1084,11 +1157,10 @@ class PythonSensorTest {
 
     // Verify that we carried the tokens over to the next cache
     List<Token> expectedTokens = List.of(new TokenImpl(passToken(inputFile.uri())));
-    CpdSerializer.SerializationResult cpdTokens = CpdSerializer.serialize(expectedTokens);
+    byte[] cpdTokens = CpdSerializer.serialize(expectedTokens);
 
     assertThat(writeCache.getData())
-      .containsEntry(Caching.CPD_TOKENS_CACHE_KEY_PREFIX + inputFile.key(), cpdTokens.data)
-      .containsEntry(CPD_TOKENS_STRING_TABLE_KEY_PREFIX + inputFile.key(), cpdTokens.stringTable);
+      .containsEntry(Caching.CPD_TOKENS_CACHE_KEY_PREFIX + inputFile.key(), cpdTokens);
   }
 
   @Test
@@ -1106,7 +1178,6 @@ class PythonSensorTest {
     TestReadCache readCache = getValidReadCache();
 
     readCache.put(CPD_TOKENS_CACHE_KEY_PREFIX + inputFile.key(), "not valid data".getBytes(UTF_8));
-    readCache.put(CPD_TOKENS_STRING_TABLE_KEY_PREFIX + inputFile.key(), "not valid string table".getBytes(UTF_8));
 
     byte[] serializedSymbolTable = toProtobufModuleDescriptor(Collections.emptySet()).toByteArray();
     readCache.put(importsMapCacheKey(inputFile.key()), String.join(";", Collections.emptyList()).getBytes(StandardCharsets.UTF_8));
@@ -1119,7 +1190,7 @@ class PythonSensorTest {
     context.setPreviousCache(readCache);
     context.setNextCache(writeCache);
     context.setCacheEnabled(true);
-    context.setSettings(new MapSettings().setProperty("sonar.python.skipUnchanged", true));
+    context.setSettings(new MapSettings().setProperty("sonar.python.skipUnchanged", true).setProperty(CPD_MINIMUM_TOKENS_KEY, 1));
 
     sensor().execute(context);
 
@@ -1136,11 +1207,10 @@ class PythonSensorTest {
 
     // Verify that we carried the tokens over to the next cache
     List<Token> expectedTokens = List.of(new TokenImpl(passToken(inputFile.uri())));
-    CpdSerializer.SerializationResult cpdTokens = CpdSerializer.serialize(expectedTokens);
+    byte[] cpdTokens = CpdSerializer.serialize(expectedTokens);
 
     assertThat(writeCache.getData())
-      .containsEntry(Caching.CPD_TOKENS_CACHE_KEY_PREFIX + inputFile.key(), cpdTokens.data)
-      .containsEntry(CPD_TOKENS_STRING_TABLE_KEY_PREFIX + inputFile.key(), cpdTokens.stringTable);
+      .containsEntry(Caching.CPD_TOKENS_CACHE_KEY_PREFIX + inputFile.key(), cpdTokens);
   }
 
   @Test
@@ -1159,7 +1229,7 @@ class PythonSensorTest {
     context.setPreviousCache(readCache);
     context.setNextCache(writeCache);
     context.setCacheEnabled(false);
-    context.setSettings(new MapSettings().setProperty("sonar.python.skipUnchanged", true));
+    context.setSettings(new MapSettings().setProperty("sonar.python.skipUnchanged", true).setProperty(CPD_MINIMUM_TOKENS_KEY, 1));
     sensor().execute(context);
 
     List<TokensLine> tokensLines = context.cpdTokens("moduleKey:pass.py");
@@ -1196,6 +1266,7 @@ class PythonSensorTest {
       new MapSettings()
         .setProperty("sonar.python.skipUnchanged", true)
         .setProperty("sonar.internal.analysis.failFast", true)
+        .setProperty(CPD_MINIMUM_TOKENS_KEY, 1)
     );
 
     sensor().execute(context);
@@ -1210,11 +1281,163 @@ class PythonSensorTest {
 
     // Verify that we carried the tokens over to the next cache
     List<Token> expectedTokens = List.of(new TokenImpl(passToken(inputFile.uri())));
-    CpdSerializer.SerializationResult cpdTokens = CpdSerializer.serialize(expectedTokens);
+    byte[] cpdTokens = CpdSerializer.serialize(expectedTokens);
 
     assertThat(writeCache.getData())
-      .containsEntry(Caching.CPD_TOKENS_CACHE_KEY_PREFIX + inputFile.key(), cpdTokens.data)
-      .containsEntry(CPD_TOKENS_STRING_TABLE_KEY_PREFIX + inputFile.key(), cpdTokens.stringTable);
+      .containsEntry(Caching.CPD_TOKENS_CACHE_KEY_PREFIX + inputFile.key(), cpdTokens);
+  }
+
+  @Test
+  void cpd_skipped_for_excluded_and_small_files() {
+    inputFile("main.py", Type.MAIN, InputFile.Status.ADDED);
+    inputFile("pass.py", Type.MAIN, InputFile.Status.ADDED);
+    context.setSettings(new MapSettings().setProperty("sonar.cpd.exclusions", "**/main.py").setProperty(CPD_MINIMUM_TOKENS_KEY, 4));
+    sensor().execute(context);
+
+    assertThat(context.cpdTokens("moduleKey:main.py")).isNull();
+    assertThat(context.cpdTokens("moduleKey:pass.py")).isNull();
+    assertThat(logTester.logs(Level.INFO))
+      .contains("CPD tokens were not computed for 2 out of 2 files, which are excluded from duplication detection or too small to contain duplicated blocks.");
+  }
+
+  @Test
+  void write_analysis_results_to_cache() throws IOException {
+    activeRules = activeRulesForAnalysisResults(null);
+    TestReadCache readCache = getValidReadCache();
+    TestWriteCache writeCache = new TestWriteCache();
+    writeCache.bind(readCache);
+
+    inputFile(FILE_2, Type.MAIN, InputFile.Status.ADDED);
+    context.setPreviousCache(readCache);
+    context.setNextCache(writeCache);
+    context.setCacheEnabled(true);
+    context.setSettings(new MapSettings()
+      .setProperty("sonar.python.skipUnchanged", true)
+      .setProperty(PythonScanner.SONAR_PYTHON_CACHE_ANALYSIS_RESULTS_KEY, true));
+    sensor().execute(context);
+
+    byte[] bytes = writeCache.getData().get(ANALYSIS_RESULTS_CACHE_KEY_PREFIX + "moduleKey:" + FILE_2);
+    assertThat(bytes).isNotNull();
+    FileAnalysisResults results = FileAnalysisResults.deserialize(bytes);
+    assertThat(results.issues()).extracting(issue -> issue.ruleKey)
+      .containsExactlyInAnyOrder("python:" + ONE_STATEMENT_PER_LINE_RULE_KEY, "python:S134");
+    assertThat(results.measures()).containsEntry(CoreMetrics.NCLOC_KEY, 7);
+    assertThat(results.linesOfCode().cardinality()).isEqualTo(7);
+    assertThat(results.highlights()).isNotEmpty();
+  }
+
+  @Test
+  void analysis_results_with_missing_metric_key_are_corrupted() throws IOException {
+    FileAnalysisResults results = new FileAnalysisResults("rules", "inputs");
+    results.addMeasure(null, 42);
+    byte[] bytes = results.serialize();
+    assertThatThrownBy(() -> FileAnalysisResults.deserialize(bytes))
+      .isInstanceOf(IOException.class)
+      .hasMessage("Can't read data from cache, format corrupted");
+  }
+
+  @Test
+  void analysis_results_not_written_when_disabled() {
+    activeRules = activeRulesForAnalysisResults(null);
+    TestReadCache readCache = getValidReadCache();
+    TestWriteCache writeCache = new TestWriteCache();
+    writeCache.bind(readCache);
+
+    inputFile(FILE_2, Type.MAIN, InputFile.Status.ADDED);
+    context.setPreviousCache(readCache);
+    context.setNextCache(writeCache);
+    context.setCacheEnabled(true);
+    context.setSettings(new MapSettings().setProperty("sonar.python.skipUnchanged", true));
+    sensor().execute(context);
+
+    assertThat(writeCache.getData().keySet()).noneMatch(key -> key.startsWith(ANALYSIS_RESULTS_CACHE_KEY_PREFIX));
+  }
+
+  @Test
+  void replay_analysis_results_from_cache() {
+    activeRules = activeRulesForAnalysisResults(null);
+    TestWriteCache firstWriteCache = analyzeWithAnalysisResultsCache(getValidReadCache(), InputFile.Status.ADDED);
+    String componentKey = "moduleKey:" + FILE_2;
+    assertThat(context.allIssues()).hasSize(2);
+
+    TestReadCache readCache = new TestReadCache().putAll(firstWriteCache);
+    context = SensorContextTester.create(baseDir);
+    context.fileSystem().setWorkDir(workDir);
+    TestWriteCache writeCache = analyzeWithAnalysisResultsCache(readCache, InputFile.Status.SAME);
+
+    assertThat(logTester.logs(Level.INFO))
+      .contains("The Python analyzer was able to leverage cached data from previous analyses for 1 out of 1 files. These files were not parsed.");
+    assertThat(context.allIssues()).extracting(issue -> issue.ruleKey().rule())
+      .containsExactlyInAnyOrder(ONE_STATEMENT_PER_LINE_RULE_KEY, "S134");
+    assertThat(context.measure(componentKey, CoreMetrics.NCLOC).value()).isEqualTo(7);
+    assertThat(context.highlightingTypeAt(componentKey, 3, 0)).containsExactly(TypeOfText.KEYWORD);
+    assertThat(writeCache.getData().get(ANALYSIS_RESULTS_CACHE_KEY_PREFIX + componentKey))
+      .isEqualTo(firstWriteCache.getData().get(ANALYSIS_RESULTS_CACHE_KEY_PREFIX + componentKey));
+  }
+
+  @Test
+  void analysis_results_not_replayed_when_active_rules_changed() {
+    activeRules = activeRulesForAnalysisResults(null);
+    TestWriteCache firstWriteCache = analyzeWithAnalysisResultsCache(getValidReadCache(), InputFile.Status.ADDED);
+
+    TestReadCache readCache = new TestReadCache().putAll(firstWriteCache);
+    context = SensorContextTester.create(baseDir);
+    context.fileSystem().setWorkDir(workDir);
+    activeRules = activeRulesForAnalysisResults("3");
+    analyzeWithAnalysisResultsCache(readCache, InputFile.Status.SAME);
+
+    assertThat(logTester.logs(Level.DEBUG))
+      .contains("Cached analysis results of moduleKey:file2.py were computed with a different set of active rules");
+    assertThat(logTester.logs(Level.INFO))
+      .contains("The Python analyzer was able to leverage cached data from previous analyses for 0 out of 1 files. These files were not parsed.");
+    assertThat(context.allIssues()).isNotEmpty();
+  }
+
+  @Test
+  void analysis_results_not_replayed_when_inputs_changed() throws IOException {
+    activeRules = activeRulesForAnalysisResults(null);
+    TestWriteCache firstWriteCache = analyzeWithAnalysisResultsCache(getValidReadCache(), InputFile.Status.ADDED);
+    String cacheKey = ANALYSIS_RESULTS_CACHE_KEY_PREFIX + "moduleKey:" + FILE_2;
+    FileAnalysisResults results = FileAnalysisResults.deserialize(firstWriteCache.getData().get(cacheKey));
+    assertThat(results.inputsFingerprint()).isNotEmpty();
+
+    // Same active rules, but recorded for other inputs (e.g. changed descriptors of an imported module)
+    TestReadCache readCache = new TestReadCache().putAll(firstWriteCache)
+      .put(cacheKey, new FileAnalysisResults(results.rulesFingerprint(), "otherInputs").serialize());
+    context = SensorContextTester.create(baseDir);
+    context.fileSystem().setWorkDir(workDir);
+    analyzeWithAnalysisResultsCache(readCache, InputFile.Status.SAME);
+
+    assertThat(logTester.logs(Level.DEBUG))
+      .contains("Cached analysis results of moduleKey:file2.py were computed with a different content or different dependencies");
+    assertThat(context.allIssues()).isNotEmpty();
+  }
+
+  private ActiveRules activeRulesForAnalysisResults(@Nullable String maxNestingLevel) {
+    NewActiveRule.Builder nestingRule = new NewActiveRule.Builder().setRuleKey(RuleKey.of(CheckList.REPOSITORY_KEY, "S134"));
+    if (maxNestingLevel != null) {
+      nestingRule.setParam("max", maxNestingLevel);
+    }
+    return new ActiveRulesBuilder()
+      .addRule(new NewActiveRule.Builder()
+        .setRuleKey(RuleKey.of(CheckList.REPOSITORY_KEY, ONE_STATEMENT_PER_LINE_RULE_KEY))
+        .build())
+      .addRule(nestingRule.build())
+      .build();
+  }
+
+  private TestWriteCache analyzeWithAnalysisResultsCache(TestReadCache readCache, InputFile.Status status) {
+    TestWriteCache writeCache = new TestWriteCache();
+    writeCache.bind(readCache);
+    inputFile(FILE_2, Type.MAIN, status);
+    context.setPreviousCache(readCache);
+    context.setNextCache(writeCache);
+    context.setCacheEnabled(true);
+    context.setSettings(new MapSettings()
+      .setProperty("sonar.python.skipUnchanged", true)
+      .setProperty(PythonScanner.SONAR_PYTHON_CACHE_ANALYSIS_RESULTS_KEY, true));
+    sensor().execute(context);
+    return writeCache;
   }
 
   private com.sonar.sslr.api.Token passToken(URI uri) {
@@ -31,7 +31,6 @@ import org.sonar.api.batch.fs.internal.DefaultTextRange;
 import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
 import org.sonar.api.batch.sensor.internal.SensorContextTester;
 import org.sonar.plugins.python.api.PythonVisitorContext;
-import org.sonar.plugins.python.api.tree.FileInput;
 import org.sonar.python.TestPythonVisitorRunner;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -54,8 +53,7 @@ class SymbolVisitorTest {
 
     SymbolVisitor symbolVisitor = new SymbolVisitor(context.newSymbolTable().onFile(inputFile));
     PythonVisitorContext context = TestPythonVisitorRunner.createContext(file);
-    FileInput fileInput = context.rootTree();
-    fileInput.accept(symbolVisitor);
+    symbolVisitor.scanFile(context);
   }
 
   @Test
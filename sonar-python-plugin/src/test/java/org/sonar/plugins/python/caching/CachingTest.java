@@ -47,6 +47,7 @@ import org.sonar.python.index.VariableDescriptor;
 import org.sonar.python.types.protobuf.DescriptorsProtos;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.sonar.plugins.python.caching.Caching.IMPORTS_MAP_CACHE_KEY_PREFIX;
@@ -189,4 +190,64 @@ class CachingTest {
     assertThat(caching.readProjectLevelSymbolTableEntry(module)).isNull();
     assertThat(logTester.logs(Level.DEBUG)).contains("Failed to deserialize project level symbol table entry for module: \"mod\"");
   }
+
+  @Test
+  void batchedLayoutRoundTrip() {
+    TestWriteCache writeCache = new TestWriteCache();
+    CacheContextImpl cacheContext = new CacheContextImpl(true, new PythonWriteCacheImpl(writeCache), new PythonReadCacheImpl(new TestReadCache()));
+    Caching caching = new Caching(cacheContext, CACHE_VERSION, true);
+    Set<Descriptor> descriptors = Set.of(new VariableDescriptor("x", "mod.x", null));
+    caching.writeImportsMapEntry("mod", Set.of("mod2"));
+    caching.writeProjectLevelSymbolTableEntry("mod", descriptors);
+    caching.writeFileContentHash("mod", new byte[] {1, 2, 3});
+    assertThat(writeCache.getData()).isEmpty();
+
+    caching.flush();
+    assertThat(caching.isUsingBatchedLayout()).isTrue();
+    assertThat(writeCache.getData()).containsOnlyKeys(Caching.BATCHED_INDEX_KEY, Caching.batchedShardKey(0));
+
+    TestReadCache readCache = new TestReadCache().putAll(writeCache);
+    TestWriteCache nextWriteCache = new TestWriteCache();
+    nextWriteCache.bind(readCache);
+    Caching nextCaching = new Caching(new CacheContextImpl(true, new PythonWriteCacheImpl(nextWriteCache), new PythonReadCacheImpl(readCache)), CACHE_VERSION, true);
+    assertThat(nextCaching.readImportMapEntry("mod")).containsExactly("mod2");
+    assertThat(nextCaching.readProjectLevelSymbolTableEntry("mod")).usingRecursiveFieldByFieldElementComparator().containsExactlyInAnyOrderElementsOf(descriptors);
+    assertThat(nextCaching.readFileContentHash("mod")).containsExactly(1, 2, 3);
+    assertThat(nextCaching.readImportMapEntry("unknown")).isNull();
+    assertThat(logTester.logs(Level.DEBUG)).contains("Prefetched 3 cache entries from 1 shards.");
+
+    nextCaching.copyFromPrevious("mod");
+    nextCaching.flush();
+    assertThat(nextWriteCache.getData().get(Caching.batchedShardKey(0))).isEqualTo(writeCache.getData().get(Caching.batchedShardKey(0)));
+  }
+
+  @Test
+  void batchedLayoutErrors() {
+    TestReadCache readCache = new TestReadCache();
+    readCache.put(Caching.BATCHED_INDEX_KEY, new byte[] {2});
+    readCache.put(Caching.batchedShardKey(0), new byte[] {1});
+    CacheContextImpl cacheContext = new CacheContextImpl(true, new PythonWriteCacheImpl(new TestWriteCache()), new PythonReadCacheImpl(readCache));
+    Caching caching = new Caching(cacheContext, CACHE_VERSION, true);
+
+    assertThat(caching.readImportMapEntry("mod")).isNull();
+    assertThat(logTester.logs(Level.DEBUG)).contains("Failed to read batched cache shard 0");
+    assertThatThrownBy(() -> caching.copyFromPrevious("mod")).isInstanceOf(IllegalArgumentException.class);
+
+    caching.writeImportsMapEntry("mod", Set.of("mod2"));
+    assertThatThrownBy(() -> caching.writeImportsMapEntry("mod", Set.of("mod2"))).isInstanceOf(IllegalArgumentException.class);
+
+    Caching corruptedIndex = new Caching(new CacheContextImpl(true, new PythonWriteCacheImpl(new TestWriteCache()),
+      new PythonReadCacheImpl(new TestReadCache().put(Caching.BATCHED_INDEX_KEY, new byte[0]))), CACHE_VERSION, true);
+    assertThat(corruptedIndex.prefetch()).isEmpty();
+    assertThat(logTester.logs(Level.DEBUG)).contains("Failed to read batched cache index");
+  }
+
+  @Test
+  void unbatchedLayoutHasNoPrefetch() {
+    TestWriteCache writeCache = new TestWriteCache();
+    Caching caching = new Caching(new CacheContextImpl(true, new PythonWriteCacheImpl(writeCache), new PythonReadCacheImpl(new TestReadCache())), CACHE_VERSION);
+    assertThat(caching.prefetch()).isEmpty();
+    caching.flush();
+    assertThat(writeCache.getData()).isEmpty();
+  }
 }
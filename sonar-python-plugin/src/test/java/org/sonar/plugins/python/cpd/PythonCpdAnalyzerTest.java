@@ -24,6 +24,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 import java.util.List;
 import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.fs.internal.DefaultInputFile;
@@ -33,6 +34,13 @@ import org.sonar.api.batch.sensor.internal.SensorContextTester;
 import org.sonar.plugins.python.Python;
 import org.sonar.plugins.python.TestUtils;
 import org.sonar.plugins.python.api.PythonVisitorContext;
+import org.sonar.plugins.python.caching.Caching;
+import org.sonar.plugins.python.caching.TestReadCache;
+import org.sonar.plugins.python.caching.TestWriteCache;
+import org.sonar.python.caching.CacheContextImpl;
+import org.sonar.python.caching.PythonReadCacheImpl;
+import org.sonar.python.caching.PythonWriteCacheImpl;
+import org.sonar.python.semantic.ProjectLevelSymbolTable;
 import org.sonar.python.TestPythonVisitorRunner;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -42,7 +50,13 @@ class PythonCpdAnalyzerTest {
 
   private static final String BASE_DIR = "src/test/resources/org/sonar/plugins/python";
   private SensorContextTester context = SensorContextTester.create(new File(BASE_DIR));
-  private PythonCpdAnalyzer cpdAnalyzer = new PythonCpdAnalyzer(context);
+  private PythonCpdAnalyzer cpdAnalyzer;
+
+  @BeforeEach
+  void setUp() {
+    context.settings().setProperty(PythonCpdAnalyzer.MINIMUM_TOKENS_KEY, 1);
+    cpdAnalyzer = new PythonCpdAnalyzer(context);
+  }
 
   @Test
   void code_chunks_2() {
@@ -115,6 +129,98 @@ class PythonCpdAnalyzerTest {
     }
   }
 
+  @Test
+  void excluded_files() {
+    context.settings().setProperty(PythonCpdAnalyzer.CPD_EXCLUSIONS_KEY, "**/code_chunks_*.py");
+    cpdAnalyzer = new PythonCpdAnalyzer(context);
+
+    DefaultInputFile excluded = inputFile("code_chunks_2.py");
+    cpdAnalyzer.pushCpdTokens(excluded, TestPythonVisitorRunner.createContext(excluded.path().toFile()));
+    DefaultInputFile notExcluded = inputFile("cpd_dedent.py");
+    cpdAnalyzer.pushCpdTokens(notExcluded, TestPythonVisitorRunner.createContext(notExcluded.path().toFile()));
+
+    assertThat(context.cpdTokens("moduleKey:code_chunks_2.py")).isNull();
+    assertThat(context.cpdTokens("moduleKey:cpd_dedent.py")).isNotEmpty();
+    assertThat(cpdAnalyzer.skippedFilesCount()).isEqualTo(1);
+  }
+
+  @Test
+  void cpd_skipped() {
+    context.settings().setProperty(PythonCpdAnalyzer.CPD_SKIP_KEY, true);
+    cpdAnalyzer = new PythonCpdAnalyzer(context);
+
+    DefaultInputFile inputFile = inputFile("cpd_dedent.py");
+    cpdAnalyzer.pushCpdTokens(inputFile, TestPythonVisitorRunner.createContext(inputFile.path().toFile()));
+
+    assertThat(context.cpdTokens("moduleKey:cpd_dedent.py")).isNull();
+    assertThat(cpdAnalyzer.skippedFilesCount()).isEqualTo(1);
+  }
+
+  @Test
+  void files_smaller_than_minimum_tokens() {
+    context.settings().setProperty(PythonCpdAnalyzer.MINIMUM_TOKENS_KEY, 1000);
+    cpdAnalyzer = new PythonCpdAnalyzer(context);
+
+    DefaultInputFile inputFile = inputFile("cpd_dedent.py");
+    cpdAnalyzer.pushCpdTokens(inputFile, TestPythonVisitorRunner.createContext(inputFile.path().toFile()));
+
+    assertThat(context.cpdTokens("moduleKey:cpd_dedent.py")).isNull();
+    assertThat(cpdAnalyzer.skippedFilesCount()).isEqualTo(1);
+  }
+
+  @Test
+  void cached_small_files_are_checked_against_minimum_tokens() {
+    context.settings().setProperty(PythonCpdAnalyzer.MINIMUM_TOKENS_KEY, 1000);
+    cpdAnalyzer = new PythonCpdAnalyzer(context);
+    DefaultInputFile inputFile = inputFile("cpd_dedent.py");
+    TestWriteCache writeCache = new TestWriteCache();
+    CacheContextImpl cacheContext = new CacheContextImpl(true, new PythonWriteCacheImpl(writeCache), new PythonReadCacheImpl(new TestReadCache()));
+    cpdAnalyzer.pushCpdTokens(inputFile, TestPythonVisitorRunner.createContext(inputFile.path().toFile(), null, "", ProjectLevelSymbolTable.empty(), cacheContext));
+    assertThat(writeCache.getData()).hasSize(1);
+
+    TestReadCache readCache = new TestReadCache()
+      .put(Caching.CPD_SMALL_FILE_CACHE_KEY_PREFIX + inputFile.key(), writeCache.getData().values().iterator().next());
+    TestWriteCache nextWriteCache = new TestWriteCache();
+    nextWriteCache.bind(readCache);
+    CacheContextImpl nextCacheContext = new CacheContextImpl(true, new PythonWriteCacheImpl(nextWriteCache), new PythonReadCacheImpl(readCache));
+
+    cpdAnalyzer = new PythonCpdAnalyzer(context);
+    assertThat(cpdAnalyzer.pushCachedCpdTokens(inputFile, nextCacheContext)).isTrue();
+    assertThat(cpdAnalyzer.skippedFilesCount()).isEqualTo(1);
+
+    context.settings().setProperty(PythonCpdAnalyzer.MINIMUM_TOKENS_KEY, 1);
+    cpdAnalyzer = new PythonCpdAnalyzer(context);
+    assertThat(cpdAnalyzer.pushCachedCpdTokens(inputFile, nextCacheContext)).isFalse();
+    assertThat(cpdAnalyzer.skippedFilesCount()).isZero();
+  }
+
+  @Test
+  void small_file_entries_cannot_be_confused_with_serialized_tokens() {
+    DefaultInputFile inputFile = inputFile("cpd_dedent.py");
+    String tokensKey = Caching.CPD_TOKENS_CACHE_KEY_PREFIX + inputFile.key();
+
+    // Data of the same size as a token count, stored under the key of serialized tokens, is read as serialized tokens
+    TestReadCache readCache = new TestReadCache().put(tokensKey, new byte[Integer.BYTES]);
+    TestWriteCache writeCache = new TestWriteCache();
+    writeCache.bind(readCache);
+    CacheContextImpl cacheContext = new CacheContextImpl(true, new PythonWriteCacheImpl(writeCache), new PythonReadCacheImpl(readCache));
+    assertThat(cpdAnalyzer.pushCachedCpdTokens(inputFile, cacheContext)).isFalse();
+    assertThat(cpdAnalyzer.skippedFilesCount()).isZero();
+
+    // Serialized tokens and token counts of small files are written under distinct keys
+    writeCache = new TestWriteCache();
+    cacheContext = new CacheContextImpl(true, new PythonWriteCacheImpl(writeCache), new PythonReadCacheImpl(new TestReadCache()));
+    cpdAnalyzer.pushCpdTokens(inputFile, TestPythonVisitorRunner.createContext(inputFile.path().toFile(), null, "", ProjectLevelSymbolTable.empty(), cacheContext));
+    assertThat(writeCache.getData().keySet()).singleElement().asString().startsWith(Caching.CPD_TOKENS_CACHE_KEY_PREFIX);
+
+    context.settings().setProperty(PythonCpdAnalyzer.MINIMUM_TOKENS_KEY, 1000);
+    cpdAnalyzer = new PythonCpdAnalyzer(context);
+    writeCache = new TestWriteCache();
+    cacheContext = new CacheContextImpl(true, new PythonWriteCacheImpl(writeCache), new PythonReadCacheImpl(new TestReadCache()));
+    cpdAnalyzer.pushCpdTokens(inputFile, TestPythonVisitorRunner.createContext(inputFile.path().toFile(), null, "", ProjectLevelSymbolTable.empty(), cacheContext));
+    assertThat(writeCache.getData().keySet()).singleElement().asString().startsWith(Caching.CPD_SMALL_FILE_CACHE_KEY_PREFIX);
+  }
+
   private DefaultInputFile inputFile(String fileName) {
     File file = new File(BASE_DIR, fileName);
 
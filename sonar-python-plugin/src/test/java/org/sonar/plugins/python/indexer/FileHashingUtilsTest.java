@@ -22,8 +22,10 @@ package org.sonar.plugins.python.indexer;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import org.junit.jupiter.api.Test;
 import org.sonar.api.batch.fs.InputFile;
 
@@ -41,4 +43,40 @@ class FileHashingUtilsTest {
     assertThat(MessageDigest.isEqual(FileHashingUtils.inputFileContentHash(file1), FileHashingUtils.inputFileContentHash(file1))).isTrue();
     assertThat(MessageDigest.isEqual(FileHashingUtils.inputFileContentHash(file1), FileHashingUtils.inputFileContentHash(file2))).isFalse();
   }
+
+  @Test
+  void fast_hashing() throws IOException, NoSuchAlgorithmException {
+    InputFile file1 = createInputFile(baseDir, "main.py", InputFile.Status.CHANGED, InputFile.Type.MAIN);
+    InputFile file2 = createInputFile(baseDir, "mod.py", InputFile.Status.SAME, InputFile.Type.MAIN);
+    byte[] hash1 = FileHashingUtils.inputFileContentHash(file1, FileHashingUtils.HashAlgorithm.MURMUR3_128);
+    assertThat(hash1).hasSize(16).isEqualTo(FileHashingUtils.inputFileContentHash(file1, FileHashingUtils.HashAlgorithm.MURMUR3_128));
+    assertThat(hash1).isNotEqualTo(FileHashingUtils.inputFileContentHash(file2, FileHashingUtils.HashAlgorithm.MURMUR3_128));
+    assertThat(hash1).isNotEqualTo(FileHashingUtils.inputFileContentHash(file1));
+  }
+
+  @Test
+  void murmur3_reference_values() {
+    assertThat(murmur3("hello".getBytes(StandardCharsets.UTF_8), 3)).isEqualTo(hex("029bbd41b3a7d8cb191dae486a901e5b"));
+    byte[] sentence = "The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.UTF_8);
+    assertThat(murmur3(sentence, sentence.length)).isEqualTo(hex("6c1b07bc7bbc4be347939ac4a93c437a"));
+    assertThat(murmur3(sentence, 5)).isEqualTo(hex("6c1b07bc7bbc4be347939ac4a93c437a"));
+    assertThat(murmur3(sentence, 16)).isEqualTo(hex("6c1b07bc7bbc4be347939ac4a93c437a"));
+    assertThat(murmur3(new byte[0], 1)).isEqualTo(new byte[16]);
+  }
+
+  private static byte[] murmur3(byte[] bytes, int chunkSize) {
+    FileHashingUtils.Murmur3Hasher hasher = new FileHashingUtils.Murmur3Hasher();
+    for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+      hasher.update(Arrays.copyOfRange(bytes, offset, Math.min(offset + chunkSize, bytes.length)), Math.min(chunkSize, bytes.length - offset));
+    }
+    return hasher.digest();
+  }
+
+  private static byte[] hex(String hex) {
+    byte[] result = new byte[hex.length() / 2];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = (byte) Integer.parseInt(hex.substring(2 * i, 2 * i + 2), 16);
+    }
+    return result;
+  }
 }
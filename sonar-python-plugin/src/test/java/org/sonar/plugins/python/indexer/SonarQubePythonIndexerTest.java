@@ -56,9 +56,11 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
 import static org.sonar.plugins.python.TestUtils.createInputFile;
+import static org.sonar.plugins.python.caching.Caching.BATCHED_INDEX_KEY;
 import static org.sonar.plugins.python.caching.Caching.CACHE_VERSION_KEY;
 import static org.sonar.plugins.python.caching.Caching.PROJECT_FILES_KEY;
 import static org.sonar.plugins.python.caching.Caching.TYPESHED_MODULES_KEY;
+import static org.sonar.plugins.python.caching.Caching.batchedShardKey;
 import static org.sonar.plugins.python.caching.Caching.fileContentHashCacheKey;
 import static org.sonar.plugins.python.caching.Caching.importsMapCacheKey;
 import static org.sonar.plugins.python.caching.Caching.projectSymbolTableCacheKey;
@@ -157,6 +159,109 @@ class SonarQubePythonIndexerTest {
       .contains("1/1 source file has been analyzed");
   }
 
+  @Test
+  void test_modified_dependency_with_unchanged_descriptors() {
+    file1 = createInputFile(baseDir, "main.py", InputFile.Status.SAME, InputFile.Type.MAIN);
+    file2 = createInputFile(baseDir, "mod.py", InputFile.Status.CHANGED, InputFile.Type.MAIN);
+
+    List<InputFile> inputFiles = new ArrayList<>(Arrays.asList(file1, file2));
+
+    // Previous analysis computed the same descriptors for "mod" as the current one
+    TestWriteCache previousWriteCache = new TestWriteCache();
+    CacheContextImpl previousCacheContext = new CacheContextImpl(true, new PythonWriteCacheImpl(previousWriteCache), new PythonReadCacheImpl(new TestReadCache()));
+    new SonarQubePythonIndexer(inputFiles, previousCacheContext, context).computeGlobalSymbols(inputFiles, context);
+    readCache.putAll(previousWriteCache);
+
+    pythonIndexer = new SonarQubePythonIndexer(inputFiles, cacheContext, context);
+    pythonIndexer.buildOnce(context);
+
+    assertThat(pythonIndexer.canBeFullyScannedWithoutParsing(file1)).isTrue();
+    assertThat(pythonIndexer.canBePartiallyScannedWithoutParsing(file2)).isFalse();
+    assertThat(logTester.logs(Level.INFO))
+      .contains("Global symbols are unchanged for 1 out of 1 recomputed files: their dependents will not be considered impacted.")
+      .contains("Fully optimized analysis can be performed for 1 out of 2 files.");
+  }
+
+  @Test
+  void test_batched_cache_layout() {
+    context.settings().setProperty("sonar.python.cache.batched", true);
+    file1 = createInputFile(baseDir, "main.py", InputFile.Status.SAME, InputFile.Type.MAIN);
+    file2 = createInputFile(baseDir, "mod.py", InputFile.Status.SAME, InputFile.Type.MAIN);
+
+    List<InputFile> inputFiles = new ArrayList<>(Arrays.asList(file1, file2));
+
+    TestWriteCache previousWriteCache = new TestWriteCache();
+    CacheContextImpl previousCacheContext = new CacheContextImpl(true, new PythonWriteCacheImpl(previousWriteCache), new PythonReadCacheImpl(new TestReadCache()));
+    new SonarQubePythonIndexer(inputFiles, previousCacheContext, context).buildOnce(context);
+    assertThat(previousWriteCache.getData())
+      .containsKeys(BATCHED_INDEX_KEY, batchedShardKey(0))
+      .doesNotContainKey(importsMapCacheKey("moduleKey:main.py"))
+      .containsEntry(CACHE_VERSION_KEY, "unknownPluginVersion;batched".getBytes(StandardCharsets.UTF_8));
+
+    readCache.putAll(previousWriteCache);
+    pythonIndexer = new SonarQubePythonIndexer(inputFiles, cacheContext, context);
+    pythonIndexer.buildOnce(context);
+
+    assertThat(pythonIndexer.canBeFullyScannedWithoutParsing(file1)).isTrue();
+    assertThat(pythonIndexer.canBeFullyScannedWithoutParsing(file2)).isTrue();
+    assertThat(writeCache.getData()).containsKeys(BATCHED_INDEX_KEY, batchedShardKey(0));
+    assertThat(writeCache.getData().get(batchedShardKey(0))).isEqualTo(previousWriteCache.getData().get(batchedShardKey(0)));
+  }
+
+  @Test
+  void test_fast_hash() throws IOException, NoSuchAlgorithmException {
+    context.settings().setProperty("sonar.python.cache.fastHash", true);
+    file1 = createInputFile(baseDir, "main.py", InputFile.Status.SAME, InputFile.Type.MAIN);
+
+    List<InputFile> inputFiles = new ArrayList<>(List.of(file1));
+
+    TestWriteCache previousWriteCache = new TestWriteCache();
+    CacheContextImpl previousCacheContext = new CacheContextImpl(true, new PythonWriteCacheImpl(previousWriteCache), new PythonReadCacheImpl(new TestReadCache()));
+    new SonarQubePythonIndexer(inputFiles, previousCacheContext, context).buildOnce(context);
+    assertThat(previousWriteCache.getData())
+      .containsEntry(CACHE_VERSION_KEY, "unknownPluginVersion;murmur3_128".getBytes(StandardCharsets.UTF_8));
+    assertThat(previousWriteCache.getData().get(fileContentHashCacheKey("moduleKey:main.py"))).hasSize(16).isNotEqualTo(inputFileContentHash(file1));
+
+    readCache.putAll(previousWriteCache);
+    pythonIndexer = new SonarQubePythonIndexer(inputFiles, cacheContext, context);
+    pythonIndexer.buildOnce(context);
+    assertThat(pythonIndexer.canBeFullyScannedWithoutParsing(file1)).isTrue();
+  }
+
+  @Test
+  void test_cache_validation_thread_count() throws IOException, NoSuchAlgorithmException {
+    file1 = createInputFile(baseDir, "main.py", InputFile.Status.SAME, InputFile.Type.MAIN);
+    file2 = createInputFile(baseDir, "mod.py", InputFile.Status.CHANGED, InputFile.Type.MAIN);
+    InputFile file3 = createInputFile(baseDir, "added.py", InputFile.Status.SAME, InputFile.Type.MAIN);
+
+    List<InputFile> inputFiles = new ArrayList<>(Arrays.asList(file1, file2, file3));
+
+    byte[] serializedSymbolTable = toProtobufModuleDescriptor(Set.of(new VariableDescriptor("x", "main.x", null))).toByteArray();
+    byte[] outdatedEntry = toProtobufModuleDescriptor(Set.of(new VariableDescriptor("outdated", "mod.outdated", null))).toByteArray();
+    readCache.put(importsMapCacheKey("moduleKey:main.py"), importsAsByteArray(List.of("mod")));
+    readCache.put(importsMapCacheKey("moduleKey:added.py"), importsAsByteArray(Collections.emptyList()));
+    readCache.put(projectSymbolTableCacheKey("moduleKey:main.py"), serializedSymbolTable);
+    readCache.put(projectSymbolTableCacheKey("moduleKey:mod.py"), outdatedEntry);
+    readCache.put(projectSymbolTableCacheKey("moduleKey:added.py"), outdatedEntry);
+    readCache.put(fileContentHashCacheKey("moduleKey:main.py"), inputFileContentHash(file1));
+    readCache.put(fileContentHashCacheKey("moduleKey:added.py"), inputFileContentHash(file3));
+
+    for (String threads : List.of("1", "3")) {
+      context.settings().setProperty("sonar.python.cache.validationThreads", threads);
+      TestWriteCache threadWriteCache = new TestWriteCache();
+      threadWriteCache.bind(readCache);
+      CacheContextImpl threadCacheContext = new CacheContextImpl(true, new PythonWriteCacheImpl(threadWriteCache), new PythonReadCacheImpl(readCache));
+      pythonIndexer = new SonarQubePythonIndexer(inputFiles, threadCacheContext, context);
+      pythonIndexer.buildOnce(context);
+
+      assertThat(pythonIndexer.canBePartiallyScannedWithoutParsing(file1)).isTrue();
+      assertThat(pythonIndexer.canBeFullyScannedWithoutParsing(file1)).isFalse();
+      assertThat(pythonIndexer.canBePartiallyScannedWithoutParsing(file2)).isFalse();
+      assertThat(pythonIndexer.canBeFullyScannedWithoutParsing(file3)).isTrue();
+      assertThat(threadWriteCache.getData()).containsKeys(projectSymbolTableCacheKey("moduleKey:main.py"), projectSymbolTableCacheKey("moduleKey:added.py"));
+    }
+  }
+
   @Test
   void test_deleted_dependency() throws IOException, NoSuchAlgorithmException {
     file1 = createInputFile(baseDir, "main.py", InputFile.Status.SAME, InputFile.Type.MAIN);
@@ -491,7 +596,7 @@ class SonarQubePythonIndexerTest {
     pythonIndexer = new SonarQubePythonIndexer(inputFiles, cacheContext, context);
 
     try (MockedStatic<FileHashingUtils> FileHashingUtilsStaticMock = Mockito.mockStatic(FileHashingUtils.class)) {
-      FileHashingUtilsStaticMock.when(() -> FileHashingUtils.inputFileContentHash(any())).thenThrow(new IOException("BOOM!"));
+      FileHashingUtilsStaticMock.when(() -> FileHashingUtils.inputFileContentHash(any(), any())).thenThrow(new IOException("BOOM!"));
       pythonIndexer.buildOnce(context);
       assertThat(logTester.logs(Level.DEBUG)).contains("Failed to compute content hash for file moduleKey:main.py");
     }
@@ -510,7 +615,7 @@ class SonarQubePythonIndexerTest {
     pythonIndexer = new SonarQubePythonIndexer(inputFiles, cacheContext, context);
 
     try (MockedStatic<FileHashingUtils> FileHashingUtilsStaticMock = Mockito.mockStatic(FileHashingUtils.class)) {
-      FileHashingUtilsStaticMock.when(() -> FileHashingUtils.inputFileContentHash(any())).thenThrow(new IOException("BOOM!"));
+      FileHashingUtilsStaticMock.when(() -> FileHashingUtils.inputFileContentHash(any(), any())).thenThrow(new IOException("BOOM!"));
       pythonIndexer.buildOnce(context);
       assertThat(logTester.logs(Level.DEBUG)).contains("Failed to compute content hash for file moduleKey:mod.py");
     }